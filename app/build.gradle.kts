@@ -31,6 +31,10 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // android.util.Log and friends are no-ops in JVM unit tests
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -47,6 +51,12 @@ dependencies {
     implementation(libs.viewpager2)
     implementation(libs.cardview) // Single cardview implementation
 
+    // Installs src/main/baseline-prof.txt on devices that did not get it from Play
+    implementation(libs.profileinstaller)
+
+    // Background prefetch of exam papers ahead of start time
+    implementation(libs.work.runtime)
+
     // Firebase dependencies using BoM
     implementation(platform(libs.firebase.bom))
     implementation(libs.firebase.auth)
@@ -62,6 +72,8 @@ dependencies {
 
     // Testing dependencies
     testImplementation(libs.junit)
+    // Real org.json for unit tests; the android.jar copy is stubbed out
+    testImplementation(libs.json)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
@@ -0,0 +1,71 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every query shape in ExamQueries against the Firestore emulator
+ * (`firebase emulators:start --only firestore`). The emulator does not enforce composite
+ * indexes, so this catches invalid shapes (bad clause order, mixed inequalities); IndexPlanTest
+ * checks that the shapes needing composite indexes are declared.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExamQueriesEmulatorTest {
+
+    private static FirebaseFirestore db;
+
+    @BeforeClass
+    public static void useEmulator() {
+        db = FirebaseProvider.getFirestore();
+        // 10.0.2.2 is the host machine from the Android emulator
+        db.useEmulator("10.0.2.2", 8080);
+    }
+
+    @Test
+    public void allShapesExecute() throws Exception {
+        long now = System.currentTimeMillis();
+        await(ExamQueries.myExams(db, "student", now).get());
+        await(ExamQueries.sharedExams(db, now).get());
+        await(ExamQueries.unendedExams(db, now).get());
+        await(ExamQueries.unclosedExamsForSection(db, "CS101-A").get());
+        await(ExamQueries.allExamsByStart(db).get());
+        await(ExamQueries.unclosedExams(db).get());
+        await(ExamQueries.unclosedExamsCreatedBy(db, "teacher").get());
+        await(ExamQueries.closedExamsCreatedBy(db, "teacher").get());
+        await(ExamQueries.attemptsForExam(db, "exam").get());
+        await(ExamQueries.answerKeys(db, Arrays.asList("q1", "q2")).get());
+        await(ExamQueries.questionsForExam(db, "exam").get());
+        await(ExamQueries.questionsForTopics(db, Arrays.asList("algebra", "geometry")).get());
+        await(ExamQueries.allQuestions(db).get());
+        await(ExamQueries.enrollmentsForSections(db, Arrays.asList("CS101-A", "CS101-B")).get());
+        await(ExamQueries.tokensForUsers(db, Arrays.asList("a", "b")).get());
+        await(ExamQueries.tokensForDevice(db, "device").get());
+        await(ExamQueries.staleTokens(db, Timestamp.now()).get());
+        // One call above per shape; a new shape fails here until it is exercised too
+        assertEquals(17, ExamQueries.all().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongValueCountIsRejected() {
+        ExamQueries.UNCLOSED_EXAMS.build(db, Collections.singletonList("open"), "extra");
+    }
+
+    private static QuerySnapshot await(Task<QuerySnapshot> task) throws Exception {
+        return Tasks.await(task, 10, TimeUnit.SECONDS);
+    }
+}
@@ -14,11 +14,9 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
 
 public class AddExamActivity extends AppCompatActivity {
@@ -42,8 +40,8 @@ public class AddExamActivity extends AppCompatActivity {
     }
 
     private void initializeFirebase() {
-        mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        mAuth = FirebaseProvider.getAuth();
+        db = FirebaseProvider.getFirestore();
     }
 
     private void initializeViews() {
@@ -72,6 +70,18 @@ public class AddExamActivity extends AppCompatActivity {
     }
 
     private void verifyTeacherRole(FirebaseUser user) {
+        RoleResolver.getInstance().resolveRole(user.getUid(), role -> {
+            if (role == null) {
+                verifyTeacherRoleFromFirestore(user);
+            } else if ("teacher".equals(role)) {
+                handleTeacherVerificationSuccess();
+            } else {
+                handleTeacherVerificationFailure("Not a teacher");
+            }
+        });
+    }
+
+    private void verifyTeacherRoleFromFirestore(FirebaseUser user) {
         String email = user.getEmail();
         String displayName = user.getDisplayName();
         String normalizedName = getNormalizedName(displayName, email);
@@ -79,11 +89,12 @@ public class AddExamActivity extends AppCompatActivity {
 
         Log.d("AddExamActivity", "Verifying teacher role for: " + normalizedName);
 
-        db.collection("Teacher").document(normalizedName).get()
+        FirestoreOps.read("checkTeacherRole", db.collection("Teacher").document(normalizedName).get())
                 .addOnSuccessListener(document -> {
                     if (document.exists()) {
                         String docUid = document.getString("uid");
                         if (docUid != null && docUid.equals(authUid)) {
+                            RoleResolver.getInstance().cacheVerifiedRole(authUid, "teacher");
                             handleTeacherVerificationSuccess();
                         } else {
                             handleTeacherVerificationFailure("UID mismatch");
@@ -157,8 +168,7 @@ public class AddExamActivity extends AppCompatActivity {
     }
 
     private void updateTimeButton(Button button, Calendar calendar) {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault());
-        button.setText(sdf.format(calendar.getTime()));
+        button.setText(DateFormatCache.format(calendar.getTimeInMillis()));
     }
 
     private void scheduleExam() {
@@ -172,8 +182,12 @@ public class AddExamActivity extends AppCompatActivity {
 
         Map<String, Object> examData = createExamData(user, title, duration);
 
-        db.collection("exams").add(examData)
+        FirestoreOps.write("addExam", db.collection("exams").add(examData), 1, FirestoreOps.sizeOf(examData))
                 .addOnSuccessListener(documentReference -> {
+                    ExamLifecycleEngine.getInstance().track(documentReference.getId(),
+                            ExamLifecycle.SCHEDULED.getValue(), startTime, endTime);
+                    // Seals the (possibly still empty) paper, then fans the exam out
+                    ExamPublisher.publish(documentReference.getId());
                     showMessage("Exam scheduled successfully!");
                     finish();
                 })
@@ -235,6 +249,10 @@ public class AddExamActivity extends AppCompatActivity {
         examData.put("max_attempts", 1);
         examData.put("question_types", "MCQ");
         examData.put("questions", new ArrayList<>());
+        // No sections: every student sees it through the shared exams query
+        examData.put(ExamFanout.FIELD_AUDIENCE, ExamFanout.AUDIENCE_ALL);
+        examData.put(ExamLifecycle.FIELD_STATUS, ExamLifecycle.SCHEDULED.getValue());
+        examData.put("version", 1L);
 
         return examData;
     }
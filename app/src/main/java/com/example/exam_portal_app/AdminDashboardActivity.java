@@ -24,10 +24,11 @@ public class AdminDashboardActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_admin_dashboard);
+        StartupTracer.getInstance().reportFirstDashboardFrame(this);
 
         // Initialize Firebase
-        mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        mAuth = FirebaseProvider.getAuth();
+        db = FirebaseProvider.getFirestore();
 
         // Verify user is an admin before proceeding
         FirebaseUser user = mAuth.getCurrentUser();
@@ -38,10 +39,21 @@ public class AdminDashboardActivity extends AppCompatActivity {
         }
         checkAdminRole(user);
 
+        // Admins drive status transitions for every exam that has not closed yet
+        ExamLifecycleEngine.getInstance().trackAll(ExamQueries.UNCLOSED_EXAMS.getName(), ExamQueries.unclosedExams(db));
+
+        // Keep fan-out lists small by dropping devices that have gone quiet
+        DeviceTokenRegistry.pruneStaleTokens();
+        // One-off data migrations; once done each costs a single marker read per run
+        Migrations.runOnce(QuestionStore.SPLIT_MIGRATION, QuestionStore::splitLegacyQuestions);
+        // Exams from before the audience field would otherwise vanish from student dashboards
+        Migrations.runOnce(ExamFanout.AUDIENCE_MIGRATION, ExamFanout::migrateAudience);
+
         // UI elements
         addExamButton = findViewById(R.id.addExamButton);
         manageUsersButton = findViewById(R.id.manageExamsButton); // Corrected from manageExamsButton
         monitorActivityButton = findViewById(R.id.monitorActivityButton);
+        FirestoreMetricsActivity.attachTo(findViewById(R.id.adminDashboardTitle));
 
         // Set click listeners
         addExamButton.setOnClickListener(v -> {
@@ -55,8 +67,7 @@ public class AdminDashboardActivity extends AppCompatActivity {
         });
 
         monitorActivityButton.setOnClickListener(v -> {
-            // Implement monitor activity functionality (e.g., view student attempts or exam status)
-            Toast.makeText(this, "Monitor Activity feature coming soon!", Toast.LENGTH_SHORT).show();
+            startActivity(new Intent(this, ExamMonitorActivity.class));
         });
 
         // Tabbed interface for admin dashboard
@@ -87,14 +98,25 @@ public class AdminDashboardActivity extends AppCompatActivity {
     }
 
     private void checkAdminRole(FirebaseUser user) {
+        RoleResolver.getInstance().resolveRole(user.getUid(), role -> {
+            if (role == null) {
+                checkAdminRoleFromFirestore(user);
+            } else if (!"admin".equals(role)) {
+                Toast.makeText(this, "Access denied. You are not an admin.", Toast.LENGTH_SHORT).show();
+                finish();
+            }
+        });
+    }
+
+    private void checkAdminRoleFromFirestore(FirebaseUser user) {
         String email = user.getEmail();
         String normalizedName = (user.getDisplayName() != null ? user.getDisplayName().trim() : "unknown").toLowerCase().replace(" ", "-") + "-" + email.replace("@", "-").replace(".", "-");
 
-        db.collection("Admin").document(normalizedName)
-                .get()
+        FirestoreOps.read("checkAdminRole", db.collection("Admin").document(normalizedName).get())
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
                         // Proceed with admin dashboard
+                        RoleResolver.getInstance().cacheVerifiedRole(user.getUid(), "admin");
                     } else {
                         Toast.makeText(this, "Access denied. You are not an admin.", Toast.LENGTH_SHORT).show();
                         finish();
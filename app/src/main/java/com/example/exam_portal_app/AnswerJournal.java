@@ -0,0 +1,354 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Append-only, fsynced journal of one exam attempt so it survives lost connectivity, app kills and
+// reboots: journal/<examId>_<uid>.log holds the StartToken, every answer change and, once the
+// student submits without connectivity, the pending submission that OfflineSubmitWorker uploads.
+// Record layout: [int length][byte type][payload][32-byte MAC], where each MAC covers the previous
+// MAC plus the record, so editing, reordering or dropping records breaks the chain. A torn last
+// record (crash mid-write) is ignored; anything after a record whose MAC fails is cut off and the
+// journal is marked damaged, which the submission reports as a conflict.
+public class AnswerJournal {
+
+    private static final String TAG = "AnswerJournal";
+    private static final String DIR = "journal";
+    private static final byte TYPE_TOKEN = 1;
+    private static final byte TYPE_ANSWER = 2;
+    private static final byte TYPE_PENDING = 3;
+    // Written after a broken tail was cut off, so the damage stays on record
+    private static final byte TYPE_DAMAGED = 4;
+    // Coding answers change on every keystroke; answer records are coalesced for this long
+    private static final long COALESCE_MS = 1000;
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor();
+
+    public static final class Pending {
+        public final boolean autoSubmit;
+        // Attempt clock (StartToken.now) when the student submitted
+        public final long submittedAt;
+        final long shuffleSeed;
+        final byte[] questionOrder;
+        final byte[] optionOrder;
+
+        Pending(boolean autoSubmit, long submittedAt, long shuffleSeed, byte[] questionOrder, byte[] optionOrder) {
+            this.autoSubmit = autoSubmit;
+            this.submittedAt = submittedAt;
+            this.shuffleSeed = shuffleSeed;
+            this.questionOrder = questionOrder;
+            this.optionOrder = optionOrder;
+        }
+    }
+
+    public static final class State {
+        public StartToken token;
+        public final Map<String, String> answers = new LinkedHashMap<>();
+        public Pending pending;
+        // False when a MAC did not verify now or in an earlier read; such records were dropped
+        public boolean intact = true;
+    }
+
+    public interface OnLoadedListener {
+        void onLoaded(State state);
+    }
+
+    private final File file;
+    private final JournalSigner signer;
+    private final Map<String, String> unwritten = new LinkedHashMap<>();
+    private byte[] lastMac = new byte[JournalSigner.MAC_LENGTH];
+    private boolean flushScheduled;
+
+    AnswerJournal(File file, JournalSigner signer) {
+        this.file = file;
+        this.signer = signer;
+    }
+
+    public static AnswerJournal open(Context context, String examId, String uid) {
+        return new AnswerJournal(fileFor(context, examId, uid), JournalSigner.keystore());
+    }
+
+    static File fileFor(Context context, String examId, String uid) {
+        return new File(directory(context), examId + "_" + uid + ".log");
+    }
+
+    static File directory(Context context) {
+        return new File(context.getFilesDir(), DIR);
+    }
+
+    // Journals on the device that hold a submission still waiting for connectivity
+    static List<File> pendingJournals(Context context) {
+        List<File> pending = new ArrayList<>();
+        File[] files = directory(context).listFiles((dir, name) -> name.endsWith(".log"));
+        if (files == null) return pending;
+        for (File candidate : files) {
+            AnswerJournal journal = new AnswerJournal(candidate, JournalSigner.keystore());
+            if (journal.readState().pending != null) {
+                pending.add(candidate);
+            }
+        }
+        return pending;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    // Reads the journal on a background thread; the listener runs on the main thread
+    public void loadAsync(OnLoadedListener listener) {
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        EXECUTOR.execute(() -> {
+            State state = readState();
+            mainHandler.post(() -> listener.onLoaded(state));
+        });
+    }
+
+    public void start(StartToken token) {
+        EXECUTOR.execute(() -> {
+            try {
+                append(TYPE_TOKEN, token.encode());
+            } catch (IOException | GeneralSecurityException e) {
+                Log.w(TAG, "Failed to journal start token: " + e.getMessage());
+            }
+        });
+    }
+
+    // answer == null records that the question was cleared
+    public void recordAnswer(String questionId, String answer) {
+        if (!queue(questionId, answer)) return;
+        // Delayed rather than slept on, so loads, flushes and other journals are not held up
+        EXECUTOR.schedule(this::writeAnswers, COALESCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // True when no write is scheduled yet for the queued answers
+    synchronized boolean queue(String questionId, String answer) {
+        unwritten.put(questionId, answer);
+        if (flushScheduled) return false;
+        flushScheduled = true;
+        return true;
+    }
+
+    public void flush() {
+        EXECUTOR.execute(this::writeAnswers);
+    }
+
+    // Writes outstanding answers and the pending submission, then calls back on the main thread
+    public void recordPending(Pending pending, Runnable onWritten) {
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        EXECUTOR.execute(() -> {
+            writeAnswers();
+            try {
+                append(TYPE_PENDING, encodePending(pending));
+            } catch (IOException | GeneralSecurityException e) {
+                Log.e(TAG, "Failed to journal pending submission: " + e.getMessage());
+            }
+            mainHandler.post(onWritten);
+        });
+    }
+
+    public void delete() {
+        EXECUTOR.execute(() -> {
+            synchronized (this) {
+                unwritten.clear();
+            }
+            if (file.exists() && !file.delete()) {
+                Log.w(TAG, "Could not delete " + file.getName());
+            }
+        });
+    }
+
+    void writeAnswers() {
+        Map<String, String> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            if (unwritten.isEmpty()) return;
+            batch = new LinkedHashMap<>(unwritten);
+            unwritten.clear();
+        }
+        try {
+            for (Map.Entry<String, String> entry : batch.entrySet()) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                writeString(out, entry.getKey());
+                out.writeBoolean(entry.getValue() != null);
+                if (entry.getValue() != null) writeString(out, entry.getValue());
+                out.flush();
+                append(TYPE_ANSWER, bytes.toByteArray());
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            Log.w(TAG, "Failed to journal answers: " + e.getMessage());
+        }
+    }
+
+    synchronized void append(byte type, byte[] payload) throws IOException, GeneralSecurityException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        byte[] mac = signer.sign(chain(lastMac, type, payload));
+        try (FileOutputStream stream = new FileOutputStream(file, true)) {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(payload.length);
+            out.writeByte(type);
+            out.write(payload);
+            out.write(mac);
+            out.flush();
+            // An answer is only journaled once it is on disk
+            stream.getFD().sync();
+        }
+        lastMac = mac;
+    }
+
+    // Replays the journal; also positions the MAC chain so later appends continue it
+    synchronized State readState() {
+        State state = new State();
+        byte[] previousMac = new byte[JournalSigner.MAC_LENGTH];
+        long validLength = 0;
+        boolean damaged = false;
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+                while (true) {
+                    int length = in.readInt();
+                    if (length < 0 || length > file.length()) {
+                        // Garbage length from a torn write
+                        break;
+                    }
+                    byte type = in.readByte();
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    byte[] mac = new byte[JournalSigner.MAC_LENGTH];
+                    in.readFully(mac);
+                    if (!signer.verify(chain(previousMac, type, payload), mac)) {
+                        damaged = true;
+                        break;
+                    }
+                    previousMac = mac;
+                    validLength += 4 + 1 + length + JournalSigner.MAC_LENGTH;
+                    apply(state, type, payload);
+                }
+            } catch (EOFException e) {
+                // End of file, or a torn last record
+            } catch (IOException | GeneralSecurityException | RuntimeException e) {
+                Log.w(TAG, "Journal " + file.getName() + " unreadable past this point: " + e.getMessage());
+                damaged = true;
+            }
+        }
+        if (state.token != null && !state.token.verify(signer)) {
+            state.token = null;
+            damaged = true;
+        }
+        lastMac = previousMac;
+        if (damaged) {
+            state.intact = false;
+            markDamaged(validLength);
+        } else if (file.exists() && file.length() > validLength) {
+            // Drop a torn tail so new records are not appended behind it
+            truncate(validLength);
+        }
+        return state;
+    }
+
+    private void markDamaged(long validLength) {
+        try {
+            truncate(validLength);
+            append(TYPE_DAMAGED, new byte[0]);
+        } catch (IOException | GeneralSecurityException e) {
+            Log.w(TAG, "Could not mark journal " + file.getName() + " damaged: " + e.getMessage());
+        }
+    }
+
+    private void truncate(long length) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not truncate journal " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static void apply(State state, byte type, byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        switch (type) {
+            case TYPE_TOKEN:
+                state.token = StartToken.decode(in);
+                break;
+            case TYPE_ANSWER:
+                String questionId = readString(in);
+                if (in.readBoolean()) {
+                    state.answers.put(questionId, readString(in));
+                } else {
+                    state.answers.remove(questionId);
+                }
+                break;
+            case TYPE_PENDING:
+                state.pending = new Pending(in.readBoolean(), in.readLong(), in.readLong(), readBytes(in), readBytes(in));
+                break;
+            case TYPE_DAMAGED:
+                state.intact = false;
+                break;
+            default:
+                throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    private static byte[] encodePending(Pending pending) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeBoolean(pending.autoSubmit);
+        out.writeLong(pending.submittedAt);
+        out.writeLong(pending.shuffleSeed);
+        writeBytes(out, pending.questionOrder);
+        writeBytes(out, pending.optionOrder);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] chain(byte[] previousMac, byte type, byte[] payload) {
+        byte[] data = Arrays.copyOf(previousMac, previousMac.length + 1 + payload.length);
+        data[previousMac.length] = type;
+        System.arraycopy(payload, 0, data, previousMac.length + 1, payload.length);
+        return data;
+    }
+
+    // writeUTF is limited to 64 KB, which a long coding answer can exceed
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        byte[] bytes = value != null ? value : new byte[0];
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.exam_portal_app;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Enforces Exam.maxAttempts. Each student-exam pair has its own counter document
+//   attempt_counters/{examId}_{uid}  exam_id, student_id, count, max_attempts, last_attempt_id
+// and the attempt is written in the same transaction that increments it, so a submission either
+// lands together with its count or not at all. Only one student ever writes a given counter, so
+// the transaction never contends with other students however many submit at once. firestore.rules
+// holds clients to the same protocol: count moves by one per write, and an attempt is only accepted
+// alongside the counter increment that numbers it.
+public final class AttemptLimiter {
+
+    public static final String COUNTERS = "attempt_counters";
+    public static final String ATTEMPTS = "student_attempts";
+
+    public interface OnSubmitListener {
+        void onSubmitted(String attemptId, int attemptNumber);
+
+        void onLimitReached(int maxAttempts);
+
+        void onFailed(Exception e);
+    }
+
+    public interface OnAttemptsLoadedListener {
+        void onAttemptsLoaded(int used, int maxAttempts);
+
+        // The counter could not be read, even on a retry
+        void onAttemptsUnknown(Exception e);
+    }
+
+    static final int LIMIT_REACHED = -1;
+
+    private AttemptLimiter() {
+    }
+
+    public static int maxAttemptsOf(Exam exam) {
+        return Math.max(1, exam.getMaxAttempts());
+    }
+
+    static String counterId(String examId, String uid) {
+        return examId + "_" + uid;
+    }
+
+    // Lets the exam screen turn a student away before they answer anything. A failed read is
+    // retried once and then reported, never taken as "no attempts used"
+    public static void loadAttemptsUsed(Exam exam, String uid, OnAttemptsLoadedListener listener) {
+        int maxAttempts = maxAttemptsOf(exam);
+        DocumentReference counterRef = FirebaseProvider.getFirestore().collection(COUNTERS)
+                .document(counterId(exam.getId(), uid));
+        FirestoreOps.read("loadAttemptsUsed", counterRef.get())
+                .continueWithTask(task -> task.isSuccessful() ? task
+                        : FirestoreOps.read("loadAttemptsUsed", counterRef.get()))
+                .addOnSuccessListener(snapshot -> listener.onAttemptsLoaded(countOf(snapshot), maxAttempts))
+                .addOnFailureListener(listener::onAttemptsUnknown);
+    }
+
+    // The number the next attempt gets, or LIMIT_REACHED once every attempt has been used
+    static int nextAttemptNumber(int used, int maxAttempts) {
+        return used < maxAttempts ? used + 1 : LIMIT_REACHED;
+    }
+
+    // attemptData gets attempt_number added; the attempt is only stored while attempts remain
+    public static void submit(Exam exam, String uid, Map<String, Object> attemptData, OnSubmitListener listener) {
+        submit(exam, uid, null, attemptData, listener);
+    }
+
+    // With an attemptId (the StartToken id) a retried submission is recognised instead of
+    // being counted twice
+    public static void submit(Exam exam, String uid, @Nullable String attemptId, Map<String, Object> attemptData,
+                              OnSubmitListener listener) {
+        int maxAttempts = maxAttemptsOf(exam);
+        DocumentReference attemptRef = attemptRef(attemptId);
+        submitTask(exam, uid, attemptRef, attemptData)
+                .addOnSuccessListener(attemptNumber -> listener.onSubmitted(attemptRef.getId(), attemptNumber))
+                .addOnFailureListener(e -> {
+                    if (isLimitReached(e)) {
+                        listener.onLimitReached(maxAttempts);
+                    } else {
+                        listener.onFailed(e);
+                    }
+                });
+    }
+
+    static DocumentReference attemptRef(@Nullable String attemptId) {
+        CollectionReference attempts = FirebaseProvider.getFirestore().collection(ATTEMPTS);
+        return attemptId != null ? attempts.document(attemptId) : attempts.document();
+    }
+
+    public static boolean isLimitReached(Exception e) {
+        return e instanceof FirebaseFirestoreException && ((FirebaseFirestoreException) e).getCode()
+                == FirebaseFirestoreException.Code.FAILED_PRECONDITION;
+    }
+
+    // Transactions fail fast without a connection instead of queueing like plain writes
+    public static boolean isOffline(Exception e) {
+        return e instanceof FirebaseFirestoreException && ((FirebaseFirestoreException) e).getCode()
+                == FirebaseFirestoreException.Code.UNAVAILABLE;
+    }
+
+    // Resolves to the attempt number; OfflineSubmitWorker awaits this directly
+    static Task<Integer> submitTask(Exam exam, String uid, DocumentReference attemptRef, Map<String, Object> attemptData) {
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        int maxAttempts = maxAttemptsOf(exam);
+        DocumentReference counterRef = db.collection(COUNTERS).document(counterId(exam.getId(), uid));
+
+        // Counter and attempt read, then the attempt and the counter written
+        return FirestoreOps.track("submitExam", db.runTransaction(transaction -> {
+                    DocumentSnapshot existing = transaction.get(attemptRef);
+                    if (existing.exists()) {
+                        // Already uploaded by an earlier try whose reply was lost
+                        Long number = existing.getLong("attempt_number");
+                        return number != null ? number.intValue() : 1;
+                    }
+                    int attemptNumber = nextAttemptNumber(countOf(transaction.get(counterRef)), maxAttempts);
+                    if (attemptNumber == LIMIT_REACHED) {
+                        throw new FirebaseFirestoreException("Attempt limit reached",
+                                FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+                    }
+
+                    Map<String, Object> attempt = new HashMap<>(attemptData);
+                    attempt.put("attempt_number", attemptNumber);
+                    transaction.set(attemptRef, attempt);
+
+                    Map<String, Object> counter = new HashMap<>();
+                    counter.put("exam_id", exam.getId());
+                    counter.put("student_id", uid);
+                    counter.put("count", attemptNumber);
+                    counter.put("max_attempts", maxAttempts);
+                    counter.put("last_attempt_id", attemptRef.getId());
+                    counter.put("updated_at", FieldValue.serverTimestamp());
+                    transaction.set(counterRef, counter);
+                    return attemptNumber;
+                }), 2, 2, FirestoreOps.sizeOf(attemptData));
+    }
+
+    static int countOf(DocumentSnapshot snapshot) {
+        Long count = snapshot.exists() ? snapshot.getLong("count") : null;
+        return count != null ? count.intValue() : 0;
+    }
+}
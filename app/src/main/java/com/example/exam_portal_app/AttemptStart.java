@@ -0,0 +1,72 @@
+package com.example.exam_portal_app;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Server-side start of a student's current attempt, so the countdown survives relaunching the
+// exam, reinstalling and switching devices:
+//   attempt_starts/{examId}_{uid}  exam_id, student_id, attempt_id, attempt_number, started_at
+// started_at is ServerClock time in ms. The first device to start an attempt writes it; every
+// later launch reuses it until the attempt is counted in attempt_counters. firestore.rules only
+// accepts started_at within a minute of request.time and denies replacing a start whose
+// attempt_number is still uncounted.
+public final class AttemptStart {
+
+    public static final String COLLECTION = "attempt_starts";
+
+    public final String attemptId;
+    public final long startedAt;
+
+    public interface OnStartListener {
+        void onStart(AttemptStart start);
+
+        void onFailed(Exception e);
+    }
+
+    AttemptStart(String attemptId, long startedAt) {
+        this.attemptId = attemptId;
+        this.startedAt = startedAt;
+    }
+
+    // Call only with a synced ServerClock; offline starts stay on the device (see StartToken)
+    public static void claim(Exam exam, String uid, String newAttemptId, OnStartListener listener) {
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        String id = AttemptLimiter.counterId(exam.getId(), uid);
+        DocumentReference startRef = db.collection(COLLECTION).document(id);
+        DocumentReference counterRef = db.collection(AttemptLimiter.COUNTERS).document(id);
+
+        FirestoreOps.track("claimAttemptStart", db.runTransaction(transaction -> {
+                    DocumentSnapshot stored = transaction.get(startRef);
+                    DocumentSnapshot counter = transaction.get(counterRef);
+                    int used = AttemptLimiter.countOf(counter);
+                    if (stored.exists() && isCurrent(stored.getLong("attempt_number"), used)) {
+                        Long startedAt = stored.getLong("started_at");
+                        String attemptId = stored.getString("attempt_id");
+                        if (startedAt != null && attemptId != null) {
+                            return new AttemptStart(attemptId, startedAt);
+                        }
+                    }
+
+                    AttemptStart start = new AttemptStart(newAttemptId, ServerClock.now());
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("exam_id", exam.getId());
+                    data.put("student_id", uid);
+                    data.put("attempt_id", start.attemptId);
+                    data.put("attempt_number", used + 1);
+                    data.put("started_at", start.startedAt);
+                    transaction.set(startRef, data);
+                    return start;
+                }), 2, 1, 0)
+                .addOnSuccessListener(listener::onStart)
+                .addOnFailureListener(listener::onFailed);
+    }
+
+    // A stored start belongs to the running attempt until that attempt has been submitted
+    static boolean isCurrent(Long storedAttemptNumber, int used) {
+        return storedAttemptNumber != null && storedAttemptNumber > used;
+    }
+}
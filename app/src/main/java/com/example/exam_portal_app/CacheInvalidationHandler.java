@@ -0,0 +1,144 @@
+package com.example.exam_portal_app;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Applies change events carried in FCM data messages to ExamCache:
+//   type        exam_changed | exam_deleted | questions_changed
+//   exam_id     affected exam
+//   version     document version after the change; stale or duplicate events are ignored
+//   version     for questions_changed, the exam's paper_version
+//   status      optional, for exam_changed sent on a status transition
+// Events are broadcast to every student, so only exams this device has cached are acted on.
+// exam_changed with a status patches the cached exam from the payload; without one it re-reads
+// that one exam document. Question changes invalidate the cached paper so it is reloaded the next
+// time the exam is opened, and re-read a cached exam so its paper_version points at the new package.
+// Re-reads are spread over REFETCH_JITTER_MS so devices woken by the same push do not all read
+// the exam at once.
+// Senders: TeacherDashboardActivity when an exam is scheduled, ExamLifecycleEngine on every status
+// change and ExamPublisher whenever a question save or delete re-seals the paper. The app never
+// deletes exams; an exam_changed for a missing document drops it from the cache.
+public final class CacheInvalidationHandler {
+
+    private static final String TAG = "CacheInvalidation";
+
+    public static final String KEY_TYPE = "type";
+    public static final String KEY_EXAM_ID = "exam_id";
+    public static final String KEY_VERSION = "version";
+    public static final String KEY_STATUS = "status";
+
+    public static final String TYPE_EXAM_CHANGED = "exam_changed";
+    public static final String TYPE_EXAM_DELETED = "exam_deleted";
+    public static final String TYPE_QUESTIONS_CHANGED = "questions_changed";
+
+    static final long REFETCH_JITTER_MS = 30_000L;
+
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+
+    private CacheInvalidationHandler() {
+    }
+
+    public static Map<String, String> buildEvent(String type, String examId, long version) {
+        Map<String, String> data = new HashMap<>();
+        data.put(KEY_TYPE, type);
+        data.put(KEY_EXAM_ID, examId);
+        data.put(KEY_VERSION, String.valueOf(version));
+        return data;
+    }
+
+    public static Map<String, String> buildStatusEvent(String examId, long version, String status) {
+        Map<String, String> data = buildEvent(TYPE_EXAM_CHANGED, examId, version);
+        data.put(KEY_STATUS, status);
+        return data;
+    }
+
+    // Data-only message to every student; a no-op when no relay is configured
+    public static void broadcast(String type, String examId, long version) {
+        broadcast(buildEvent(type, examId, version));
+    }
+
+    public static void broadcast(Map<String, String> event) {
+        NotificationDispatcher dispatcher = NotificationDispatcher.getDefault();
+        if (dispatcher != null) {
+            dispatcher.dispatchDataToAllStudents(event);
+        }
+    }
+
+    // Returns true if the data message was a cache event
+    public static boolean handle(Map<String, String> data) {
+        String type = data.get(KEY_TYPE);
+        String examId = data.get(KEY_EXAM_ID);
+        if (type == null || examId == null) {
+            return false;
+        }
+        long version = parseVersion(data.get(KEY_VERSION));
+        ExamCache cache = ExamCache.getInstance();
+
+        switch (type) {
+            case TYPE_EXAM_CHANGED:
+                Exam current = cache.getExam(examId);
+                String status = data.get(KEY_STATUS);
+                if (current == null) {
+                    // Not listed on this device (or not this student's exam); the next load fetches it
+                    Log.d(TAG, "Ignoring event for uncached exam " + examId);
+                } else if (!isNewer(version, current.getVersion())) {
+                    Log.d(TAG, "Ignoring stale event for exam " + examId);
+                } else if (status != null) {
+                    cache.patchExam(current.withStatus(status, version));
+                } else {
+                    scheduleRefetch(examId);
+                }
+                return true;
+            case TYPE_EXAM_DELETED:
+                cache.removeExam(examId);
+                return true;
+            case TYPE_QUESTIONS_CHANGED:
+                cache.invalidateQuestions(examId, version);
+                Exam cached = cache.getExam(examId);
+                if (cached != null && isNewer(version, cached.getPaperVersion())) {
+                    scheduleRefetch(examId);
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void scheduleRefetch(String examId) {
+        handler.postDelayed(() -> refetchExam(examId), ThreadLocalRandom.current().nextLong(REFETCH_JITTER_MS));
+    }
+
+    private static void refetchExam(String examId) {
+        FirestoreOps.read("refetchExam", FirebaseProvider.getFirestore().collection("exams").document(examId).get())
+                .addOnSuccessListener(document -> {
+                    if (!document.exists()) {
+                        ExamCache.getInstance().removeExam(examId);
+                        return;
+                    }
+                    Exam exam = Exam.fromSnapshot(document);
+                    if (exam != null) {
+                        ExamCache.getInstance().patchExam(exam);
+                    }
+                })
+                .addOnFailureListener(e -> Log.w(TAG, "Failed to refetch exam " + examId + ": " + e.getMessage()));
+    }
+
+    // Events arrive out of order and more than once; only a higher version than cached counts
+    static boolean isNewer(long eventVersion, long cachedVersion) {
+        return eventVersion > cachedVersion;
+    }
+
+    static long parseVersion(String version) {
+        if (version == null) return Long.MAX_VALUE;
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.exam_portal_app;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.Log;
+import android.widget.EditText;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Autosaves coding answers as a base plus an append-only list of TextDiff edits:
+//   attempt_drafts/{examId}_{uid}/code/{questionId}  base, edits[{p, d, i, r}], revision
+// Each flush sends only the changed region of the program. Once the edits grow past
+// COMPACT_EDIT_COUNT entries or half the size of the base, the next flush rewrites the base with
+// the current text and clears the list, which keeps the document and restore cost bounded.
+// The drafts are deleted once the attempt has been submitted (discard/deleteDrafts).
+public class CodeAutosave {
+
+    private static final String TAG = "CodeAutosave";
+    public static final String DRAFTS = "attempt_drafts";
+    private static final String CODE = "code";
+
+    private static final long FLUSH_INTERVAL_MS = 5000;
+    private static final int COMPACT_EDIT_COUNT = 50;
+    private static final int COMPACT_MIN_BYTES = 4096;
+
+    private final FirebaseFirestore db;
+    private final String draftId;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, Draft> drafts = new HashMap<>();
+    private final Runnable flushRunnable = this::flush;
+    private boolean flushScheduled;
+    private boolean discarded;
+
+    public interface OnCodeChangedListener {
+        void onCodeChanged(String questionId, String code);
+    }
+
+    // Text rebuilt from a stored draft, with the size of its edit list
+    static final class Restored {
+        final String text;
+        final int editCount;
+        final int editBytes;
+
+        Restored(String text, int editCount, int editBytes) {
+            this.text = text;
+            this.editCount = editCount;
+            this.editBytes = editBytes;
+        }
+    }
+
+    private static final class Draft {
+        final EditText editText;
+        String syncedText;
+        long revision;
+        int editCount;
+        int editBytes;
+        boolean restored;
+
+        Draft(EditText editText) {
+            this.editText = editText;
+        }
+    }
+
+    public CodeAutosave(String examId, String uid) {
+        this.db = FirebaseProvider.getFirestore();
+        this.draftId = examId + "_" + uid;
+    }
+
+    // Restores any saved draft into the field, then autosaves it while the student types
+    public void attach(Question question, EditText editText, OnCodeChangedListener listener) {
+        String questionId = question.getId();
+        Draft draft = new Draft(editText);
+        drafts.put(questionId, draft);
+
+        FirestoreOps.read("restoreCodeDraft", codeRef(questionId).get())
+                .addOnSuccessListener(document -> {
+                    String base = document.exists() ? document.getString("base") : null;
+                    if (base != null) {
+                        Restored restored = restore(base, document.get("edits"));
+                        Long revision = document.getLong("revision");
+                        draft.revision = revision != null ? revision : 0;
+                        draft.editCount = restored.editCount;
+                        draft.editBytes = restored.editBytes;
+                        draft.syncedText = restored.text;
+                        // The saved draft beats an empty field or the template, never code the
+                        // student has typed (or the journal restored) in the meantime
+                        String current = editText.getText().toString();
+                        if (!restored.text.isEmpty() && isUntouched(current, question.getCodeTemplate())) {
+                            editText.setText(restored.text);
+                            listener.onCodeChanged(questionId, restored.text);
+                        }
+                    }
+                    draft.restored = true;
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Failed to restore draft for " + questionId + ": " + e.getMessage());
+                    draft.restored = true;
+                });
+
+        editText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                listener.onCodeChanged(questionId, s.toString());
+                scheduleFlush();
+            }
+        });
+    }
+
+    public void flush() {
+        flushScheduled = false;
+        if (discarded) return;
+        for (Map.Entry<String, Draft> entry : drafts.entrySet()) {
+            Draft draft = entry.getValue();
+            // Until the restore completes we do not know the base the edits would apply to
+            if (!draft.restored) {
+                scheduleFlush();
+                continue;
+            }
+            flush(entry.getKey(), draft);
+        }
+    }
+
+    public void stop() {
+        handler.removeCallbacks(flushRunnable);
+        flush();
+        handler.removeCallbacks(flushRunnable);
+    }
+
+    // After a successful submission: nothing more is saved and the stored drafts are deleted
+    public void discard(String examId, String uid) {
+        discarded = true;
+        handler.removeCallbacks(flushRunnable);
+        drafts.clear();
+        deleteDrafts(examId, uid);
+    }
+
+    public static void deleteDrafts(String examId, String uid) {
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        String draftId = examId + "_" + uid;
+        FirestoreOps.read("loadCodeDrafts", db.collection(DRAFTS).document(draftId).collection(CODE).get())
+                .addOnSuccessListener(snapshots -> {
+                    if (snapshots.isEmpty()) return;
+                    WriteBatch batch = db.batch();
+                    for (DocumentSnapshot document : snapshots.getDocuments()) {
+                        batch.delete(document.getReference());
+                    }
+                    FirestoreOps.write("deleteCodeDrafts", batch.commit(), snapshots.size(), 0)
+                            .addOnFailureListener(e -> Log.w(TAG, "Failed to delete drafts " + draftId + ": " + e.getMessage()));
+                })
+                .addOnFailureListener(e -> Log.w(TAG, "Failed to load drafts " + draftId + ": " + e.getMessage()));
+    }
+
+    static boolean isUntouched(String current, String template) {
+        return current.trim().isEmpty() || (template != null && current.trim().equals(template.trim()));
+    }
+
+    static boolean needsCompaction(int editCount, int editBytes, TextDiff.Edit edit, int textLength) {
+        return editCount + 1 > COMPACT_EDIT_COUNT
+                || editBytes + edit.size() > Math.max(COMPACT_MIN_BYTES, textLength / 2);
+    }
+
+    private void flush(String questionId, Draft draft) {
+        String text = draft.editText.getText().toString();
+        if (draft.syncedText == null) {
+            if (text.isEmpty()) return;
+            writeBase(questionId, draft, text);
+            return;
+        }
+
+        TextDiff.Edit edit = TextDiff.between(draft.syncedText, text);
+        if (edit == null) return;
+
+        if (needsCompaction(draft.editCount, draft.editBytes, edit, text.length())) {
+            writeBase(questionId, draft, text);
+            return;
+        }
+
+        long revision = draft.revision + 1;
+        Map<String, Object> update = new HashMap<>();
+        update.put("edits", FieldValue.arrayUnion(edit.toMap(revision)));
+        update.put("revision", revision);
+        update.put("updated_at", FieldValue.serverTimestamp());
+        draft.syncedText = text;
+        draft.revision = revision;
+        draft.editCount++;
+        draft.editBytes += edit.size();
+        FirestoreOps.write("autosaveCodeEdit", codeRef(questionId).update(update), 1, FirestoreOps.sizeOf(update))
+                .addOnFailureListener(e -> {
+                    // The server may be missing this edit; the next flush rewrites the base
+                    Log.w(TAG, "Failed to save edit for " + questionId + ": " + e.getMessage());
+                    draft.editCount = COMPACT_EDIT_COUNT;
+                    scheduleFlushAfterFailure(draft);
+                });
+    }
+
+    private void writeBase(String questionId, Draft draft, String text) {
+        long revision = draft.revision + 1;
+        Map<String, Object> data = new HashMap<>();
+        data.put("base", text);
+        data.put("edits", new ArrayList<>());
+        data.put("revision", revision);
+        data.put("updated_at", FieldValue.serverTimestamp());
+        draft.syncedText = text;
+        draft.revision = revision;
+        draft.editCount = 0;
+        draft.editBytes = 0;
+        FirestoreOps.write("autosaveCodeBase", codeRef(questionId).set(data), 1, FirestoreOps.sizeOf(data))
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Failed to save draft for " + questionId + ": " + e.getMessage());
+                    scheduleFlushAfterFailure(draft);
+                });
+    }
+
+    // Forces a full rewrite on the next flush
+    private void scheduleFlushAfterFailure(Draft draft) {
+        draft.syncedText = null;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) return;
+        flushScheduled = true;
+        handler.postDelayed(flushRunnable, FLUSH_INTERVAL_MS);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Restored restore(String base, Object editsValue) {
+        List<TextDiff.Edit> edits = new ArrayList<>();
+        int editBytes = 0;
+        if (editsValue instanceof List) {
+            List<Map<String, Object>> maps = new ArrayList<>();
+            for (Object item : (List<Object>) editsValue) {
+                if (item instanceof Map) {
+                    maps.add((Map<String, Object>) item);
+                }
+            }
+            // arrayUnion keeps insertion order, but sort by revision in case of concurrent writers
+            maps.sort((a, b) -> Long.compare(revisionOf(a), revisionOf(b)));
+            for (Map<String, Object> map : maps) {
+                TextDiff.Edit edit = TextDiff.Edit.fromMap(map);
+                if (edit != null) {
+                    edits.add(edit);
+                    editBytes += edit.size();
+                }
+            }
+        }
+        try {
+            return new Restored(TextDiff.applyAll(base, edits), edits.size(), editBytes);
+        } catch (IllegalArgumentException e) {
+            // An edit went missing; the base is the last consistent state, and a full edit list
+            // makes the next flush rewrite it rather than append to edits that do not apply
+            Log.w(TAG, "Draft edits do not apply, falling back to base: " + e.getMessage());
+            return new Restored(base, COMPACT_EDIT_COUNT, editBytes);
+        }
+    }
+
+    private static long revisionOf(Map<String, Object> map) {
+        Object revision = map.get("r");
+        return revision instanceof Number ? ((Number) revision).longValue() : 0;
+    }
+
+    private DocumentReference codeRef(String questionId) {
+        return db.collection(DRAFTS).document(draftId).collection(CODE).document(questionId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.exam_portal_app;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Fetches code templates from question_templates on demand and keeps them for the session, so a
+// coding question only costs its template read if the student actually scrolls to it.
+public final class CodeTemplateLoader {
+
+    private static final String TAG = "CodeTemplateLoader";
+
+    private static CodeTemplateLoader instance;
+
+    private final Map<String, String> templates = new HashMap<>();
+    private final Map<String, List<OnTemplateLoadedListener>> pending = new HashMap<>();
+
+    public interface OnTemplateLoadedListener {
+        // template is empty when the question has none
+        void onTemplateLoaded(String template);
+    }
+
+    private CodeTemplateLoader() {
+    }
+
+    public static synchronized CodeTemplateLoader getInstance() {
+        if (instance == null) {
+            instance = new CodeTemplateLoader();
+        }
+        return instance;
+    }
+
+    // Listeners are called on the main thread; concurrent requests for one question share a read
+    public void load(String questionId, OnTemplateLoadedListener listener) {
+        String cached = templates.get(questionId);
+        if (cached != null) {
+            listener.onTemplateLoaded(cached);
+            return;
+        }
+        List<OnTemplateLoadedListener> waiting = pending.get(questionId);
+        if (waiting != null) {
+            waiting.add(listener);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(listener);
+        pending.put(questionId, waiting);
+
+        FirestoreOps.read("loadCodeTemplate",
+                        FirebaseProvider.getFirestore().collection(QuestionStore.TEMPLATES).document(questionId).get())
+                .addOnSuccessListener(document -> {
+                    String template = document.exists() ? document.getString("codeTemplate") : null;
+                    deliver(questionId, template != null ? template : "");
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Failed to load template for " + questionId + ": " + e.getMessage());
+                    List<OnTemplateLoadedListener> failed = pending.remove(questionId);
+                    if (failed != null) {
+                        for (OnTemplateLoadedListener waiter : failed) {
+                            waiter.onTemplateLoaded("");
+                        }
+                    }
+                });
+    }
+
+    private void deliver(String questionId, String template) {
+        templates.put(questionId, template);
+        List<OnTemplateLoadedListener> waiting = pending.remove(questionId);
+        if (waiting != null) {
+            for (OnTemplateLoadedListener listener : waiting) {
+                listener.onTemplateLoaded(template);
+            }
+        }
+    }
+}
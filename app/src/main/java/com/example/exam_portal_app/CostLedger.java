@@ -0,0 +1,119 @@
+package com.example.exam_portal_app;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Firestore document reads/writes attributed to (screen, operation), with soft read budgets per
+// query and per screen visit. record() returns the budget messages the caller should surface;
+// it never blocks or rejects the operation itself.
+final class CostLedger {
+
+    static final class Cost {
+        final String screen;
+        final String op;
+        final AtomicLong queries = new AtomicLong();
+        final AtomicLong reads = new AtomicLong();
+        final AtomicLong writes = new AtomicLong();
+        final AtomicLong maxReadsPerQuery = new AtomicLong();
+
+        Cost(String screen, String op) {
+            this.screen = screen;
+            this.op = op;
+        }
+
+        String toJson() {
+            return "{\"screen\":\"" + screen + "\",\"op\":\"" + op + "\",\"queries\":" + queries.get()
+                    + ",\"reads\":" + reads.get() + ",\"writes\":" + writes.get()
+                    + ",\"max_reads_per_query\":" + maxReadsPerQuery.get() + "}";
+        }
+    }
+
+    private final ConcurrentHashMap<String, Cost> costs = new ConcurrentHashMap<>();
+    // Reads since the screen was last started, and whether its budget warning was already given
+    private final ConcurrentHashMap<String, AtomicLong> visitReads = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> visitWarned = new ConcurrentHashMap<>();
+    private final long queryReadBudget;
+    private final long defaultScreenBudget;
+    private final Map<String, Long> screenBudgets;
+
+    CostLedger(long queryReadBudget, long defaultScreenBudget, Map<String, Long> screenBudgets) {
+        this.queryReadBudget = queryReadBudget;
+        this.defaultScreenBudget = defaultScreenBudget;
+        this.screenBudgets = screenBudgets;
+    }
+
+    // Budgets come from config.xml as "Screen=reads" entries; malformed entries are skipped
+    static Map<String, Long> parseBudgets(String[] entries) {
+        Map<String, Long> budgets = new ConcurrentHashMap<>();
+        if (entries == null) return budgets;
+        for (String entry : entries) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0) continue;
+            try {
+                budgets.put(entry.substring(0, separator).trim(), Long.parseLong(entry.substring(separator + 1).trim()));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return budgets;
+    }
+
+    void startVisit(String screen) {
+        visitReads.put(screen, new AtomicLong());
+        visitWarned.remove(screen);
+    }
+
+    long screenBudget(String screen) {
+        Long budget = screenBudgets.get(screen);
+        return budget != null ? budget : defaultScreenBudget;
+    }
+
+    List<String> record(String screen, String op, long reads, long writes) {
+        Cost cost = costs.get(screen + "/" + op);
+        if (cost == null) {
+            Cost created = new Cost(screen, op);
+            cost = costs.putIfAbsent(screen + "/" + op, created);
+            if (cost == null) cost = created;
+        }
+        cost.queries.incrementAndGet();
+        cost.reads.addAndGet(reads);
+        cost.writes.addAndGet(writes);
+        long max;
+        while (reads > (max = cost.maxReadsPerQuery.get()) && !cost.maxReadsPerQuery.compareAndSet(max, reads)) {
+            // Lost a race with a concurrent larger query; re-read
+        }
+
+        List<String> violations = new ArrayList<>();
+        if (reads > queryReadBudget) {
+            violations.add(op + " on " + screen + " returned " + reads + " documents (budget " + queryReadBudget + " per query)");
+        }
+        AtomicLong visit = visitReads.get(screen);
+        if (visit == null) {
+            visit = new AtomicLong();
+            AtomicLong existing = visitReads.putIfAbsent(screen, visit);
+            if (existing != null) visit = existing;
+        }
+        long visitTotal = visit.addAndGet(reads);
+        long budget = screenBudget(screen);
+        if (visitTotal > budget && visitWarned.put(screen, Boolean.TRUE) == null) {
+            violations.add(screen + " read " + visitTotal + " documents in one visit (budget " + budget + "), last by " + op);
+        }
+        return violations;
+    }
+
+    // Highest total reads first
+    List<Cost> topOffenders(int limit) {
+        List<Cost> all = new ArrayList<>(costs.values());
+        Collections.sort(all, (a, b) -> Long.compare(b.reads.get(), a.reads.get()));
+        return all.size() > limit ? new ArrayList<>(all.subList(0, limit)) : all;
+    }
+
+    void reset() {
+        costs.clear();
+        visitReads.clear();
+        visitWarned.clear();
+    }
+}
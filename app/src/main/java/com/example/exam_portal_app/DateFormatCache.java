@@ -0,0 +1,44 @@
+package com.example.exam_portal_app;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// SimpleDateFormat is expensive to build and not thread-safe, so keep one per pattern per thread
+public final class DateFormatCache {
+
+    public static final String PATTERN_DATE_TIME = "yyyy-MM-dd HH:mm";
+
+    private static final ThreadLocal<Map<String, SimpleDateFormat>> FORMATS =
+            new ThreadLocal<Map<String, SimpleDateFormat>>() {
+                @Override
+                protected Map<String, SimpleDateFormat> initialValue() {
+                    return new HashMap<>();
+                }
+            };
+
+    private DateFormatCache() {
+    }
+
+    public static String format(long timeMillis) {
+        return format(PATTERN_DATE_TIME, timeMillis);
+    }
+
+    public static String format(String pattern, long timeMillis) {
+        return get(pattern).format(new Date(timeMillis));
+    }
+
+    private static SimpleDateFormat get(String pattern) {
+        Map<String, SimpleDateFormat> formats = FORMATS.get();
+        Locale locale = Locale.getDefault();
+        String key = pattern + "|" + locale;
+        SimpleDateFormat format = formats.get(key);
+        if (format == null) {
+            format = new SimpleDateFormat(pattern, locale);
+            formats.put(key, format);
+        }
+        return format;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+import com.google.firebase.installations.FirebaseInstallations;
+import com.google.firebase.messaging.FirebaseMessaging;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// FCM registration tokens, one document per token in device_tokens/{token}:
+//   uid        - owner; a token re-registered by another user simply changes hands
+//   device_id  - Firebase installation id; older tokens of the same install are removed
+//   last_seen  - refreshed at most once a day, used to prune devices that went quiet
+// Tokens FCM reports as UNREGISTERED are deleted by NotificationDispatcher through removeTokens().
+public final class DeviceTokenRegistry {
+
+    private static final String TAG = "DeviceTokenRegistry";
+    public static final String COLLECTION = "device_tokens";
+
+    private static final String PREFS = "device_token_registry";
+    private static final String PREF_TOKEN = "token";
+    private static final String PREF_UID = "uid";
+    private static final String PREF_LAST_SEEN = "last_seen";
+
+    private static final long LAST_SEEN_REFRESH_MS = 24 * 60 * 60 * 1000L;
+    public static final long STALE_AFTER_MS = 60L * 24 * 60 * 60 * 1000L;
+    // Firestore limits: whereIn takes 30 values, a batch takes 500 writes
+    private static final int WHERE_IN_LIMIT = 30;
+    private static final int BATCH_LIMIT = 500;
+
+    public interface OnTokensLoadedListener {
+        void onTokensLoaded(List<String> tokens);
+    }
+
+    private DeviceTokenRegistry() {
+    }
+
+    public static void saveToken(Context context, String token) {
+        Context appContext = context.getApplicationContext();
+        FirebaseUser user = FirebaseProvider.getAuth().getCurrentUser();
+        if (user == null || token == null) {
+            // Saved again on the next sign-in via registerCurrentDevice()
+            return;
+        }
+
+        SharedPreferences prefs = appContext.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        boolean unchanged = token.equals(prefs.getString(PREF_TOKEN, null))
+                && user.getUid().equals(prefs.getString(PREF_UID, null));
+        if (unchanged && System.currentTimeMillis() - prefs.getLong(PREF_LAST_SEEN, 0) < LAST_SEEN_REFRESH_MS) {
+            // Already registered recently; skip the write
+            return;
+        }
+
+        FirebaseInstallations.getInstance().getId()
+                .addOnSuccessListener(deviceId -> writeToken(appContext, user.getUid(), token, deviceId))
+                .addOnFailureListener(e -> writeToken(appContext, user.getUid(), token, null));
+    }
+
+    private static void writeToken(Context context, String uid, String token, String deviceId) {
+        Map<String, Object> tokenData = new HashMap<>();
+        tokenData.put("uid", uid);
+        tokenData.put("last_seen", FieldValue.serverTimestamp());
+        if (deviceId != null) {
+            tokenData.put("device_id", deviceId);
+        }
+
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        FirestoreOps.write("saveToken", db.collection(COLLECTION).document(token).set(tokenData, SetOptions.merge()),
+                        1, FirestoreOps.sizeOf(tokenData))
+                .addOnSuccessListener(aVoid -> {
+                    context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit()
+                            .putString(PREF_TOKEN, token)
+                            .putString(PREF_UID, uid)
+                            .putLong(PREF_LAST_SEEN, System.currentTimeMillis())
+                            .apply();
+                    if (deviceId != null) {
+                        removeOtherTokensOfDevice(deviceId, token);
+                    }
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to save token: " + e.getMessage()));
+    }
+
+    // A reinstalled or refreshed app leaves its previous token behind; drop it
+    private static void removeOtherTokensOfDevice(String deviceId, String currentToken) {
+        FirestoreOps.read(ExamQueries.TOKENS_FOR_DEVICE.getName(),
+                        ExamQueries.tokensForDevice(FirebaseProvider.getFirestore(), deviceId).get())
+                .addOnSuccessListener(snapshots -> {
+                    List<String> stale = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : snapshots) {
+                        if (!document.getId().equals(currentToken)) {
+                            stale.add(document.getId());
+                        }
+                    }
+                    removeTokens(stale);
+                });
+    }
+
+    public static void registerCurrentDevice(Context context, String uid, String role) {
+        FirebaseMessaging messaging = FirebaseMessaging.getInstance();
+        messaging.getToken()
+                .addOnSuccessListener(token -> saveToken(context, token))
+                .addOnFailureListener(e -> Log.w(TAG, "Failed to get FCM token: " + e.getMessage()));
+
+        if ("student".equalsIgnoreCase(role)) {
+            messaging.subscribeToTopic(NotificationTopics.studentTopicFor(uid))
+                    .addOnFailureListener(e -> Log.w(TAG, "Topic subscription failed: " + e.getMessage()));
+        }
+    }
+
+    // Distinct tokens for the given users, ready for NotificationDispatcher.dispatchToTokens()
+    public static void loadTokens(List<String> uids, OnTokensLoadedListener listener) {
+        List<List<String>> chunks = NotificationDispatcher.partition(uids, WHERE_IN_LIMIT);
+        if (chunks.isEmpty()) {
+            listener.onTokensLoaded(new ArrayList<>());
+            return;
+        }
+
+        Set<String> tokens = new LinkedHashSet<>();
+        int[] remaining = {chunks.size()};
+        for (List<String> chunk : chunks) {
+            FirestoreOps.read(ExamQueries.TOKENS_FOR_USERS.getName(),
+                            ExamQueries.tokensForUsers(FirebaseProvider.getFirestore(), chunk).get())
+                    .addOnCompleteListener(task -> {
+                        if (task.isSuccessful()) {
+                            for (QueryDocumentSnapshot document : task.getResult()) {
+                                tokens.add(document.getId());
+                            }
+                        } else {
+                            Log.w(TAG, "Failed to load tokens for " + chunk.size() + " users");
+                        }
+                        if (--remaining[0] == 0) {
+                            listener.onTokensLoaded(new ArrayList<>(tokens));
+                        }
+                    });
+        }
+    }
+
+    public static void removeTokens(List<String> tokens) {
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        for (List<String> chunk : NotificationDispatcher.partition(tokens, BATCH_LIMIT)) {
+            WriteBatch batch = db.batch();
+            for (String token : chunk) {
+                batch.delete(db.collection(COLLECTION).document(token));
+            }
+            FirestoreOps.write("removeTokens", batch.commit(), chunk.size(), 0)
+                    .addOnSuccessListener(aVoid -> Log.d(TAG, "Pruned " + chunk.size() + " tokens"))
+                    .addOnFailureListener(e -> Log.e(TAG, "Failed to prune tokens: " + e.getMessage()));
+        }
+    }
+
+    // Drop tokens whose device has not checked in for STALE_AFTER_MS
+    public static void pruneStaleTokens() {
+        Timestamp cutoff = new Timestamp(new Date(System.currentTimeMillis() - STALE_AFTER_MS));
+        FirestoreOps.read(ExamQueries.STALE_TOKENS.getName(),
+                        ExamQueries.staleTokens(FirebaseProvider.getFirestore(), cutoff).get())
+                .addOnSuccessListener(snapshots -> {
+                    List<String> stale = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : snapshots) {
+                        stale.add(document.getId());
+                    }
+                    removeTokens(stale);
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to query stale tokens: " + e.getMessage()));
+    }
+}
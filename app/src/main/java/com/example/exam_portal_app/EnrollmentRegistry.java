@@ -0,0 +1,98 @@
+package com.example.exam_portal_app;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Course/section enrollment. One document per student per section:
+//   enrollments/{uid}_{sectionId}  uid, course_id, section_id, enrolled_at
+// Section ids are course-qualified codes such as "CS101-A"; the course is the part before the
+// last '-'. Exams list the sections they are for in section_ids (see ExamFanout).
+public final class EnrollmentRegistry {
+
+    private static final String TAG = "EnrollmentRegistry";
+    public static final String COLLECTION = "enrollments";
+
+    // Firestore whereIn takes at most 30 values
+    private static final int WHERE_IN_LIMIT = 30;
+
+    public interface OnStudentsLoadedListener {
+        void onStudentsLoaded(List<String> uids);
+    }
+
+    private EnrollmentRegistry() {
+    }
+
+    public static String courseOf(String sectionId) {
+        int dash = sectionId.lastIndexOf('-');
+        return dash > 0 ? sectionId.substring(0, dash) : sectionId;
+    }
+
+    // Parses the comma separated section list typed by teachers and students
+    public static List<String> parseSections(String input) {
+        Set<String> sections = new LinkedHashSet<>();
+        if (input != null) {
+            for (String part : input.split(",")) {
+                String section = part.trim().toUpperCase();
+                if (!section.isEmpty()) {
+                    sections.add(section);
+                }
+            }
+        }
+        return new ArrayList<>(sections);
+    }
+
+    // Enrolls the student and copies the section's open exams into their my_exams index
+    public static void enroll(String uid, String sectionId) {
+        Map<String, Object> enrollment = new HashMap<>();
+        enrollment.put("uid", uid);
+        enrollment.put("course_id", courseOf(sectionId));
+        enrollment.put("section_id", sectionId);
+        enrollment.put("enrolled_at", FieldValue.serverTimestamp());
+
+        FirestoreOps.write("enroll", FirebaseProvider.getFirestore().collection(COLLECTION)
+                        .document(uid + "_" + sectionId).set(enrollment), 1, FirestoreOps.sizeOf(enrollment))
+                .addOnSuccessListener(aVoid -> ExamFanout.backfill(uid, sectionId))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to enroll " + uid + " in " + sectionId
+                        + ": " + e.getMessage()));
+    }
+
+    // Distinct students enrolled in any of the sections
+    public static void loadStudents(List<String> sectionIds, OnStudentsLoadedListener listener) {
+        List<List<String>> chunks = NotificationDispatcher.partition(sectionIds, WHERE_IN_LIMIT);
+        if (chunks.isEmpty()) {
+            listener.onStudentsLoaded(new ArrayList<>());
+            return;
+        }
+
+        Set<String> uids = new LinkedHashSet<>();
+        int[] remaining = {chunks.size()};
+        for (List<String> chunk : chunks) {
+            FirestoreOps.read(ExamQueries.ENROLLMENTS_FOR_SECTIONS.getName(),
+                            ExamQueries.enrollmentsForSections(FirebaseProvider.getFirestore(), chunk).get())
+                    .addOnCompleteListener(task -> {
+                        if (task.isSuccessful()) {
+                            for (QueryDocumentSnapshot document : task.getResult()) {
+                                String uid = document.getString("uid");
+                                if (uid != null) {
+                                    uids.add(uid);
+                                }
+                            }
+                        } else {
+                            Log.w(TAG, "Failed to load enrollments for " + chunk.size() + " sections");
+                        }
+                        if (--remaining[0] == 0) {
+                            listener.onStudentsLoaded(new ArrayList<>(uids));
+                        }
+                    });
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.exam_portal_app;
 
+import com.google.firebase.firestore.DocumentSnapshot;
+
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,6 +17,12 @@ public class Exam implements Serializable {
     private int maxAttempts;
     private String questionTypes;
     private List<String> questions;
+    private int questionCount;
+    private String status;
+    private long version;
+    private long paperVersion;
+    private List<String> sectionIds;
+    private boolean pooled;
 
     public Exam() {
         this.questions = new ArrayList<>();
@@ -35,6 +43,19 @@ public class Exam implements Serializable {
         this.questions = questions != null ? questions : new ArrayList<>();
     }
 
+    // Copy with a new status, for a status change pushed without the rest of the document
+    public Exam withStatus(String status, long version) {
+        Exam copy = new Exam(id, title, startTime, endTime, duration, created_by, teacher_name, maxAttempts,
+                questionTypes, new ArrayList<>(questions));
+        copy.questionCount = questionCount;
+        copy.paperVersion = paperVersion;
+        copy.sectionIds = sectionIds;
+        copy.pooled = pooled;
+        copy.status = status;
+        copy.version = version;
+        return copy;
+    }
+
     // Getters and setters
     public String getId() {
         return id;
@@ -116,6 +137,94 @@ public class Exam implements Serializable {
         this.questions = questions != null ? questions : new ArrayList<>();
     }
 
+    // From the published paper (question_count); legacy exams fall back to the questions list
+    public int getQuestionCount() {
+        return questionCount > 0 ? questionCount : getQuestions().size();
+    }
+
+    public void setQuestionCount(int questionCount) {
+        this.questionCount = questionCount;
+    }
+
+    public String getStatus() {
+        return status != null ? status : ExamLifecycle.SCHEDULED.getValue();
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    // Empty means the exam is for every student
+    public List<String> getSectionIds() {
+        return sectionIds != null ? sectionIds : new ArrayList<>();
+    }
+
+    public void setSectionIds(List<String> sectionIds) {
+        this.sectionIds = sectionIds;
+    }
+
+    // Pooled exams give every student their own paper drawn from the question bank
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    public void setPooled(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    // Bumped by ExamPublisher whenever the packed paper is regenerated
+    public long getPaperVersion() {
+        return paperVersion;
+    }
+
+    public void setPaperVersion(long paperVersion) {
+        this.paperVersion = paperVersion;
+    }
+
+    // Maps an exams/{id} document (snake_case fields) to an Exam, or null if required fields are missing
+    @SuppressWarnings("unchecked")
+    public static Exam fromSnapshot(DocumentSnapshot document) {
+        try {
+            String title = document.getString("title");
+            Long startTime = document.getLong("start_time");
+            Long endTime = document.getLong("end_time");
+            if (title == null || startTime == null || endTime == null || startTime <= 0 || endTime <= 0) {
+                return null;
+            }
+            Long duration = document.getLong("duration");
+            Long maxAttempts = document.getLong("max_attempts");
+            Long version = document.getLong("version");
+            Long paperVersion = document.getLong("paper_version");
+            Long questionCount = document.getLong(ExamFanout.FIELD_QUESTION_COUNT);
+
+            Exam exam = new Exam(document.getId(), title, startTime, endTime,
+                    duration != null ? duration.intValue() : 0,
+                    document.getString("created_by"),
+                    document.getString("teacher_name"),
+                    maxAttempts != null ? maxAttempts.intValue() : 1,
+                    document.getString("question_types"),
+                    (List<String>) document.get("questions"));
+            exam.setStatus(document.getString(ExamLifecycle.FIELD_STATUS));
+            exam.setVersion(version != null ? version : 0);
+            exam.setPaperVersion(paperVersion != null ? paperVersion : 0);
+            exam.setQuestionCount(questionCount != null ? questionCount.intValue() : 0);
+            exam.setSectionIds((List<String>) document.get(ExamFanout.FIELD_SECTION_IDS));
+            exam.setPooled(document.get(PaperBlueprint.FIELD) != null);
+            return exam;
+        } catch (RuntimeException e) {
+            // Wrong field types; treat as invalid
+            return null;
+        }
+    }
+
     @Override
     public String toString() {
         return "Exam{" +
@@ -129,6 +238,10 @@ public class Exam implements Serializable {
                 ", maxAttempts=" + maxAttempts +
                 ", questionTypes='" + questionTypes + '\'' +
                 ", questions=" + questions +
+                ", questionCount=" + questionCount +
+                ", status='" + status + '\'' +
+                ", version=" + version +
+                ", paperVersion=" + paperVersion +
                 '}';
     }
 }
\ No newline at end of file
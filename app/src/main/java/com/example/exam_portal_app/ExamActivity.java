@@ -1,35 +1,62 @@
 package com.example.exam_portal_app;
 
+import android.graphics.Rect;
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.LinearLayout;
+import android.widget.ScrollView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
+import java.security.GeneralSecurityException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 public class ExamActivity extends AppCompatActivity {
 
-    private TextView examTitleTextView;
+    private static final String TAG = "ExamActivity";
+
+    private TextView examTitleTextView, timerTextView;
     private LinearLayout questionsLayout;
+    private ScrollView questionsScrollView;
     private Button submitExamButton;
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
     private Exam exam;
     private List<Question> questions = new ArrayList<>();
     private Map<String, String> userAnswers = new HashMap<>();
+    private ExamTimer examTimer;
+    private boolean isSubmitting = false;
+    private ExamPaperLoader paperLoader;
+    private PaperShuffle shuffle;
+    // Coding answer fields whose template has not been fetched yet
+    private final Map<EditText, Question> pendingTemplates = new HashMap<>();
+    private final Rect visibleRect = new Rect();
+    private CodeAutosave codeAutosave;
+    private ExamMonitor examMonitor;
+    // Local copy of the attempt so it survives lost connectivity; see AnswerJournal
+    private AnswerJournal journal;
+    private StartToken startToken;
+    private boolean journalIntact = true;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,18 +67,68 @@ public class ExamActivity extends AppCompatActivity {
         initializeViews();
         getExamFromIntent();
         loadExamDetails();
-        loadQuestions();
+        checkAttemptsRemaining();
         setupSubmitButton();
+        openJournal();
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (examTimer != null) {
+            examTimer.resume();
+        }
+        if (examMonitor != null) {
+            examMonitor.onForegroundChanged(true);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        paperLoader.shutdown();
+        if (codeAutosave != null) {
+            codeAutosave.stop();
+        }
+        if (examMonitor != null) {
+            examMonitor.stop();
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // No ticks while the screen is not visible; the deadline keeps running on server time
+        if (examTimer != null) {
+            examTimer.pause();
+        }
+        // Push pending code edits now in case the process is killed in the background
+        if (codeAutosave != null) {
+            codeAutosave.flush();
+        }
+        if (examMonitor != null && !isSubmitting) {
+            examMonitor.onForegroundChanged(false);
+        }
+        if (journal != null) {
+            journal.flush();
+        }
     }
 
     private void initializeFirebase() {
-        mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        mAuth = FirebaseProvider.getAuth();
+        db = FirebaseProvider.getFirestore();
+        paperLoader = new ExamPaperLoader(this);
     }
 
     private void initializeViews() {
         examTitleTextView = findViewById(R.id.examTitleTextView);
+        timerTextView = findViewById(R.id.timerTextView);
         questionsLayout = findViewById(R.id.questionsLayout);
+        questionsScrollView = findViewById(R.id.questionsScrollView);
+        questionsScrollView.getViewTreeObserver().addOnScrollChangedListener(() -> {
+            loadVisibleTemplates();
+            reportProgress();
+        });
         submitExamButton = findViewById(R.id.submitExamButton);
     }
 
@@ -69,28 +146,206 @@ public class ExamActivity extends AppCompatActivity {
         }
     }
 
+    private void checkAttemptsRemaining() {
+        if (exam == null || mAuth.getCurrentUser() == null) return;
+
+        AttemptLimiter.loadAttemptsUsed(exam, mAuth.getCurrentUser().getUid(), new AttemptLimiter.OnAttemptsLoadedListener() {
+            @Override
+            public void onAttemptsLoaded(int used, int maxAttempts) {
+                if (!isFinishing() && used >= maxAttempts) {
+                    showErrorMessage("You have used all " + maxAttempts + " attempt(s) for this exam");
+                    finish();
+                }
+            }
+
+            @Override
+            public void onAttemptsUnknown(Exception e) {
+                // Without the count the attempt could be refused only at submission; stop here instead
+                Log.e(TAG, "Failed to load attempts for " + exam.getId() + ": " + e.getMessage());
+                if (!isFinishing()) {
+                    showErrorMessage("Could not check your remaining attempts. Please try again.");
+                    finish();
+                }
+            }
+        });
+    }
+
+    // Questions and the timer wait for the journal so a resumed attempt keeps its answers and deadline
+    private void openJournal() {
+        if (exam == null || mAuth.getCurrentUser() == null) return;
+
+        String uid = mAuth.getCurrentUser().getUid();
+        journal = AnswerJournal.open(this, exam.getId(), uid);
+        journal.loadAsync(state -> {
+            if (isFinishing()) return;
+            if (state.pending != null) {
+                // Submitted earlier without connectivity; the upload is still outstanding
+                OfflineSubmitWorker.schedule(this, journal);
+                showErrorMessage("Your answers are saved and will be submitted when you are back online");
+                finish();
+                return;
+            }
+            if (state.token != null) {
+                // Resumed attempt; a damaged journal still resumes, but the submission is flagged
+                startToken = state.token;
+                journalIntact = state.intact;
+                userAnswers.putAll(state.answers);
+            }
+            loadQuestions();
+            startTimer();
+        });
+    }
+
+    private void startTimer() {
+        if (exam == null || mAuth.getCurrentUser() == null) return;
+
+        examTimer = new ExamTimer(new ExamTimer.Listener() {
+            @Override
+            public void onTimeRemaining(long remainingMs) {
+                timerTextView.setText("Time left: " + ExamTimer.format(remainingMs));
+            }
+
+            @Override
+            public void onExpired() {
+                showErrorMessage("Time is up. Submitting your answers.");
+                submitExam(true);
+            }
+        });
+
+        examTimer.setClock(() -> startToken != null ? startToken.now(this) : ServerClock.now());
+
+        if (startToken != null) {
+            // Resumed attempt: the deadline was fixed when it started; a sync only sharpens the clock
+            examTimer.start(startToken.deadline);
+            ServerClock.sync(mAuth.getCurrentUser().getUid(), synced -> {
+            });
+            return;
+        }
+
+        // Anchor the countdown to server time so a wrong or changed device clock has no effect.
+        // Without connectivity the sync fails and the attempt starts on the device clock; the
+        // start token records that so the submission is flagged for review.
+        String uid = mAuth.getCurrentUser().getUid();
+        ServerClock.sync(uid, synced -> {
+            if (isFinishing()) return;
+            long now = ServerClock.now();
+            if (now < exam.getStartTime()) {
+                showErrorMessage("This exam has not started yet");
+                finish();
+                return;
+            }
+            if (!synced) {
+                startAttempt(new AttemptStart(UUID.randomUUID().toString(), now));
+                return;
+            }
+            // An attempt already started on another device or before a reinstall keeps its start
+            AttemptStart.claim(exam, uid, UUID.randomUUID().toString(), new AttemptStart.OnStartListener() {
+                @Override
+                public void onStart(AttemptStart start) {
+                    if (!isFinishing()) startAttempt(start);
+                }
+
+                @Override
+                public void onFailed(Exception e) {
+                    Log.w(TAG, "Could not store attempt start: " + e.getMessage());
+                    if (!isFinishing()) startAttempt(new AttemptStart(UUID.randomUUID().toString(), ServerClock.now()));
+                }
+            });
+        });
+    }
+
+    private void startAttempt(AttemptStart start) {
+        try {
+            startToken = StartToken.issue(this, exam, mAuth.getCurrentUser().getUid(), start, JournalSigner.keystore());
+            journal.start(startToken);
+            examTimer.start(startToken.deadline);
+        } catch (GeneralSecurityException e) {
+            Log.w(TAG, "Could not issue start token, attempt will need connectivity: " + e.getMessage());
+            examTimer.start(ExamTimer.computeDeadline(exam, start.startedAt));
+        }
+    }
+
     private void loadQuestions() {
         if (exam == null) return;
 
-        db.collection("questions")
-                .whereEqualTo("examId", exam.getId())
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    questions.clear();
-                    questionsLayout.removeAllViews();
+        paperLoader.load(exam, new ExamPaperLoader.Listener() {
+            @Override
+            public void onPaperLoaded(List<Question> loaded, String source) {
+                if (isFinishing()) return;
+                Log.d(TAG, "Loaded " + loaded.size() + " questions from " + source);
+                showQuestions(loaded);
+            }
 
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        Question question = document.toObject(Question.class);
-                        question.setId(document.getId());
-                        questions.add(question);
-                        displayQuestion(question);
-                    }
+            @Override
+            public void onPaperFailed(Exception e) {
+                if (isFinishing()) return;
+                showErrorMessage("Error loading questions: " + e.getMessage());
+            }
+        });
+    }
+
+    private void showQuestions(List<Question> loaded) {
+        questions.clear();
+        questionsLayout.removeAllViews();
+        pendingTemplates.clear();
+        if (mAuth.getCurrentUser() == null) return;
+
+        if (codeAutosave == null) {
+            codeAutosave = new CodeAutosave(exam.getId(), mAuth.getCurrentUser().getUid());
+        }
+        if (examMonitor == null) {
+            examMonitor = new ExamMonitor(this, exam.getId(), mAuth.getCurrentUser().getUid());
+        }
+        questions.addAll(loaded);
+        PaperShuffle.canonicalize(questions);
+        shuffle = PaperShuffle.create(mAuth.getCurrentUser().getUid(), exam.getId(), questions);
+        for (int i = 0; i < shuffle.size(); i++) {
+            int original = shuffle.originalQuestion(i);
+            displayQuestion(questions.get(original), original);
+        }
+
+        if (questions.isEmpty()) {
+            showEmptyQuestionsMessage();
+        }
+        // Coding questions already on screen get their templates without waiting for a scroll
+        questionsLayout.post(() -> {
+            loadVisibleTemplates();
+            reportProgress();
+        });
+    }
+
+    // Heartbeat for the admin monitor: the first question in view and how many are answered.
+    // ExamMonitor keeps only the latest values, so calling this on every scroll is cheap.
+    private void reportProgress() {
+        if (examMonitor == null) return;
+
+        int questionIndex = 0;
+        for (int i = 0; i < questionsLayout.getChildCount(); i++) {
+            if (questionsLayout.getChildAt(i).getLocalVisibleRect(visibleRect)) {
+                questionIndex = i;
+                break;
+            }
+        }
+        examMonitor.onProgress(questionIndex, userAnswers.size());
+    }
 
-                    if (questions.isEmpty()) {
-                        showEmptyQuestionsMessage();
-                    }
-                })
-                .addOnFailureListener(e -> showErrorMessage("Error loading questions: " + e.getMessage()));
+    private void loadVisibleTemplates() {
+        Iterator<Map.Entry<EditText, Question>> iterator = pendingTemplates.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<EditText, Question> entry = iterator.next();
+            EditText codeEditText = entry.getKey();
+            if (!codeEditText.getLocalVisibleRect(visibleRect)) continue;
+
+            iterator.remove();
+            Question question = entry.getValue();
+            CodeTemplateLoader.getInstance().load(question.getId(), template -> {
+                question.setCodeTemplate(template);
+                // Never overwrite code the student started typing before the template arrived
+                if (!isFinishing() && codeEditText.getText().length() == 0) {
+                    codeEditText.setText(template);
+                }
+            });
+        }
     }
 
     private void showEmptyQuestionsMessage() {
@@ -105,7 +360,7 @@ public class ExamActivity extends AppCompatActivity {
         Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
     }
 
-    private void displayQuestion(Question question) {
+    private void displayQuestion(Question question, int originalIndex) {
         if (question == null) return;
 
         View questionView = LayoutInflater.from(this).inflate(R.layout.item_exam_question, questionsLayout, false);
@@ -119,7 +374,7 @@ public class ExamActivity extends AppCompatActivity {
 
         switch (question.getType()) {
             case "MCQ":
-                setupMCQQuestion(question, optionsLayout);
+                setupMCQQuestion(question, originalIndex, optionsLayout);
                 break;
             case "subjective":
                 setupSubjectiveQuestion(question, answerEditText);
@@ -132,14 +387,14 @@ public class ExamActivity extends AppCompatActivity {
         questionsLayout.addView(questionView);
     }
 
-    private void setupMCQQuestion(Question question, LinearLayout optionsLayout) {
+    private void setupMCQQuestion(Question question, int originalIndex, LinearLayout optionsLayout) {
         if (question.getOptions() == null) return;
 
-        for (String option : question.getOptions()) {
+        for (String option : shuffle.displayedOptions(originalIndex, question.getOptions())) {
             Button optionButton = new Button(this);
             optionButton.setText(option);
             optionButton.setOnClickListener(v -> {
-                userAnswers.put(question.getId(), option);
+                setAnswer(question.getId(), option);
                 Toast.makeText(this, "Selected: " + option, Toast.LENGTH_SHORT).show();
             });
             optionsLayout.addView(optionButton);
@@ -148,11 +403,16 @@ public class ExamActivity extends AppCompatActivity {
 
     private void setupSubjectiveQuestion(Question question, EditText answerEditText) {
         answerEditText.setVisibility(View.VISIBLE);
+        // Answer restored from the journal of a resumed attempt
+        String saved = userAnswers.get(question.getId());
+        if (saved != null) {
+            answerEditText.setText(saved);
+        }
         answerEditText.setOnFocusChangeListener((v, hasFocus) -> {
             if (!hasFocus) {
                 String answer = answerEditText.getText().toString().trim();
                 if (!answer.isEmpty()) {
-                    userAnswers.put(question.getId(), answer);
+                    setAnswer(question.getId(), answer);
                 }
             }
         });
@@ -160,44 +420,178 @@ public class ExamActivity extends AppCompatActivity {
 
     private void setupCodingQuestion(Question question, EditText codeEditText) {
         codeEditText.setVisibility(View.VISIBLE);
-        codeEditText.setText(question.getCodeTemplate());
-        codeEditText.setOnFocusChangeListener((v, hasFocus) -> {
-            if (!hasFocus) {
-                String code = codeEditText.getText().toString().trim();
-                if (!code.isEmpty()) {
-                    userAnswers.put(question.getId(), code);
-                }
+        // Answer restored from the journal of a resumed attempt; the template and drafts only
+        // fill an untouched field, so neither replaces it
+        String saved = userAnswers.get(question.getId());
+        if (saved != null) {
+            codeEditText.setText(saved);
+        }
+        if (question.getCodeTemplate() != null) {
+            if (saved == null) codeEditText.setText(question.getCodeTemplate());
+        } else {
+            pendingTemplates.put(codeEditText, question);
+        }
+        // Restores a saved draft and autosaves edits as diffs; the answer tracks every change
+        codeAutosave.attach(question, codeEditText, (questionId, code) -> {
+            String trimmed = code.trim();
+            String template = question.getCodeTemplate();
+            // An untouched template is not an answer
+            if (trimmed.isEmpty() || (template != null && trimmed.equals(template.trim()))) {
+                setAnswer(questionId, null);
+            } else {
+                setAnswer(questionId, trimmed);
             }
         });
     }
 
+    // answer == null clears the question; every change is journaled before it counts as saved
+    private void setAnswer(String questionId, String answer) {
+        String previous = answer != null ? userAnswers.put(questionId, answer) : userAnswers.remove(questionId);
+        if (answer == null ? previous == null : answer.equals(previous)) return;
+        if (journal != null) {
+            journal.recordAnswer(questionId, answer);
+        }
+        reportProgress();
+    }
+
     private void setupSubmitButton() {
-        submitExamButton.setOnClickListener(v -> submitExam());
+        submitExamButton.setOnClickListener(v -> submitExam(false));
     }
 
-    private void submitExam() {
+    private void submitExam(boolean autoSubmit) {
+        if (isSubmitting) return;
+
         if (mAuth.getCurrentUser() == null) {
             showErrorMessage("User not authenticated");
             return;
         }
 
-        if (userAnswers.size() < questions.size()) {
+        // Once time is up a manual retry after a failed auto-submit must not demand every answer
+        autoSubmit = autoSubmit || (examTimer != null && examTimer.isExpired());
+        if (autoSubmit) {
+            // Answers are captured on focus loss, so flush the field being edited
+            View focused = getCurrentFocus();
+            if (focused != null) {
+                focused.clearFocus();
+            }
+        } else if (userAnswers.size() < questions.size()) {
             showErrorMessage("Please answer all questions before submitting");
             return;
         }
 
+        isSubmitting = true;
+        submitExamButton.setEnabled(false);
+        if (examTimer != null) {
+            examTimer.pause();
+        }
+
         Map<String, Object> attemptData = new HashMap<>();
         attemptData.put("student_id", mAuth.getCurrentUser().getUid());
         attemptData.put("exam_id", exam.getId());
         attemptData.put("answers", userAnswers);
-        attemptData.put("timestamp", System.currentTimeMillis());
+        List<String> questionIds = new ArrayList<>();
+        for (Question question : questions) {
+            questionIds.add(question.getId());
+        }
+        // Lets ExamGrader count unanswered questions towards max_score
+        attemptData.put("question_ids", questionIds);
+        attemptData.put("timestamp", ServerClock.now());
+        attemptData.put("submitted_at", FieldValue.serverTimestamp());
+        attemptData.put("auto_submitted", autoSubmit);
+        if (shuffle != null) {
+            attemptData.putAll(shuffle.toAttemptFields());
+        }
+        if (startToken != null) {
+            attemptData.put("start_token", startToken.toAttemptField());
+        }
+        if (!journalIntact) {
+            attemptData.put("conflicts", Collections.singletonList("journal_tampered"));
+        }
 
-        db.collection("student_attempts")
-                .add(attemptData)
-                .addOnSuccessListener(documentReference -> {
-                    Toast.makeText(this, "Exam submitted successfully!", Toast.LENGTH_SHORT).show();
-                    finish();
-                })
-                .addOnFailureListener(e -> showErrorMessage("Error submitting exam: " + e.getMessage()));
+        if (!isOnline()) {
+            deferSubmission(autoSubmit);
+            return;
+        }
+
+        long submitStart = SystemClock.elapsedRealtime();
+        boolean wasAutoSubmit = autoSubmit;
+        String attemptId = startToken != null ? startToken.id : null;
+        AttemptLimiter.submit(exam, mAuth.getCurrentUser().getUid(), attemptId, attemptData, new AttemptLimiter.OnSubmitListener() {
+            @Override
+            public void onSubmitted(String attemptId, int attemptNumber) {
+                Telemetry.submitOutcome("submitted", SystemClock.elapsedRealtime() - submitStart);
+                if (examMonitor != null) {
+                    examMonitor.onSubmitted();
+                }
+                if (journal != null) {
+                    journal.delete();
+                }
+                if (codeAutosave != null) {
+                    codeAutosave.discard(exam.getId(), mAuth.getCurrentUser().getUid());
+                }
+                Toast.makeText(ExamActivity.this, "Exam submitted successfully!", Toast.LENGTH_SHORT).show();
+                finish();
+            }
+
+            @Override
+            public void onLimitReached(int maxAttempts) {
+                Telemetry.submitOutcome("limit_reached", SystemClock.elapsedRealtime() - submitStart);
+                showErrorMessage("Attempt limit of " + maxAttempts + " reached; this submission was not recorded");
+                finish();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                Telemetry.submitOutcome("failed", SystemClock.elapsedRealtime() - submitStart);
+                if (AttemptLimiter.isOffline(e) && startToken != null) {
+                    // Connectivity dropped between the check and the transaction
+                    deferSubmission(wasAutoSubmit);
+                    return;
+                }
+                isSubmitting = false;
+                submitExamButton.setEnabled(true);
+                showErrorMessage("Error submitting exam: " + e.getMessage());
+            }
+        });
+    }
+
+    private boolean isOnline() {
+        ConnectivityManager connectivityManager = (ConnectivityManager) getSystemService(CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) return true;
+        NetworkCapabilities capabilities = connectivityManager.getNetworkCapabilities(connectivityManager.getActiveNetwork());
+        return capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+    }
+
+    // Offline submission: the answers are already journaled, so record the submission itself and
+    // let OfflineSubmitWorker upload it once the device reconnects
+    private void deferSubmission(boolean autoSubmit) {
+        if (journal == null || startToken == null) {
+            isSubmitting = false;
+            submitExamButton.setEnabled(true);
+            showErrorMessage("No connection. Please reconnect and submit again");
+            return;
+        }
+
+        long seed = 0;
+        byte[] questionOrder = new byte[0];
+        byte[] optionOrder = new byte[0];
+        if (shuffle != null) {
+            Map<String, Object> fields = shuffle.toAttemptFields();
+            seed = (Long) fields.get(PaperShuffle.FIELD_SEED);
+            questionOrder = ((Blob) fields.get(PaperShuffle.FIELD_QUESTION_ORDER)).toBytes();
+            optionOrder = ((Blob) fields.get(PaperShuffle.FIELD_OPTION_ORDER)).toBytes();
+        }
+        AnswerJournal.Pending pending = new AnswerJournal.Pending(autoSubmit, startToken.now(this), seed,
+                questionOrder, optionOrder);
+        journal.recordPending(pending, () -> {
+            OfflineSubmitWorker.schedule(this, journal);
+            Telemetry.submitOutcome("deferred", 0);
+            if (examMonitor != null) {
+                examMonitor.onSubmitted();
+            }
+            Toast.makeText(this, "You are offline. Your answers are saved on this device and will be "
+                    + "submitted automatically when you reconnect.", Toast.LENGTH_LONG).show();
+            finish();
+        });
     }
-}
\ No newline at end of file
+}
@@ -10,103 +10,122 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 public class ExamAdapter extends RecyclerView.Adapter<ExamAdapter.ExamViewHolder> {
 
-    private List<Exam> examList;
+    private List<ExamListItem> items;
     private OnExamStartListener listener;
     private Context context;
+    private final ExamStatusTicker statusTicker;
 
     public ExamAdapter(OnExamStartListener listener) {
-        this.examList = new ArrayList<>();
+        this.items = new ArrayList<>();
         this.listener = listener;
+        this.statusTicker = new ExamStatusTicker(this::notifyItemChanged);
     }
 
     public void setExamList(List<Exam> exams) {
         if (exams != null) {
-            this.examList = exams;
+            // Format dates and compute status once per load instead of on every bind
+            this.items = ExamListItem.fromExams(exams, ServerClock.now());
+            statusTicker.setItems(items);
             notifyDataSetChanged();
         }
     }
 
+    public void upsertExam(Exam exam) {
+        ExamListItem item = ExamListItem.fromExam(exam, ServerClock.now());
+        int index = indexOf(exam.getId());
+        if (index >= 0) {
+            items.set(index, item);
+            notifyItemChanged(index);
+        } else {
+            items.add(item);
+            notifyItemInserted(items.size() - 1);
+        }
+        statusTicker.setItems(items);
+    }
+
+    public void removeExam(String examId) {
+        int index = indexOf(examId);
+        if (index >= 0) {
+            items.remove(index);
+            notifyItemRemoved(index);
+            statusTicker.setItems(items);
+        }
+    }
+
+    public boolean contains(String examId) {
+        return indexOf(examId) >= 0;
+    }
+
+    private int indexOf(String examId) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getExam().getId().equals(examId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void refreshStatus() {
+        statusTicker.refresh();
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        statusTicker.start();
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        statusTicker.stop();
+    }
+
     @NonNull
     @Override
     public ExamViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         context = parent.getContext();
         View view = LayoutInflater.from(context).inflate(R.layout.item_exam, parent, false);
-        return new ExamViewHolder(view);
+        ExamViewHolder holder = new ExamViewHolder(view);
+        holder.startExamButton.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (listener != null && position != RecyclerView.NO_POSITION
+                    && items.get(position).getStatus().isStartable()) {
+                listener.onExamStart(items.get(position).getExam());
+            }
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ExamViewHolder holder, int position) {
-        if (holder == null || position < 0 || position >= examList.size()) {
+        if (holder == null || position < 0 || position >= items.size()) {
             return;
         }
 
-        Exam exam = examList.get(position);
-        if (exam == null) {
-            return;
-        }
+        ExamListItem item = items.get(position);
 
-        holder.examTitleTextView.setText(exam.getTitle() != null ? exam.getTitle() : "");
-
-        // Display teacher name if available
-        String teacherName = exam.getTeacher_name();
-        holder.teacherNameTextView.setText("Created by: " + (teacherName != null ? teacherName : "Unknown"));
-
-        // Display questions count
-        int questionCount = (exam.getQuestions() != null) ? exam.getQuestions().size() : 0;
-        holder.questionsTextView.setText("Questions: " + questionCount);
-
-        // Display duration
-        holder.durationTextView.setText("Duration: " + exam.getDuration() + " min");
-
-        try {
-            // Format and display start time
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault());
-            String startTime = sdf.format(new Date(exam.getStartTime()));
-            holder.startTimeTextView.setText("Starts: " + startTime);
-
-            // Format and display end time
-            String endTime = sdf.format(new Date(exam.getEndTime()));
-            holder.endTimeTextView.setText("Ends: " + endTime);
-
-            // Set button state based on exam status
-            long now = System.currentTimeMillis();
-            if (now < exam.getStartTime()) {
-                // Exam hasn't started yet
-                holder.startExamButton.setText("Upcoming");
-                holder.startExamButton.setEnabled(false);
-            } else if (now > exam.getEndTime()) {
-                // Exam has ended
-                holder.startExamButton.setText("Expired");
-                holder.startExamButton.setEnabled(false);
-            } else {
-                // Exam is active
-                holder.startExamButton.setText("Start");
-                holder.startExamButton.setEnabled(true);
-                holder.startExamButton.setOnClickListener(v -> {
-                    if (listener != null) {
-                        listener.onExamStart(exam);
-                    }
-                });
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            holder.startTimeTextView.setText("Start time unavailable");
-            holder.endTimeTextView.setText("End time unavailable");
-            holder.startExamButton.setEnabled(false);
-        }
+        holder.examTitleTextView.setText(item.getTitle());
+        holder.teacherNameTextView.setText(item.getTeacherText());
+        holder.questionsTextView.setText(item.getQuestionsText());
+        holder.durationTextView.setText(item.getDurationText());
+        holder.startTimeTextView.setText(item.getStartTimeText());
+        holder.endTimeTextView.setText(item.getEndTimeText());
+
+        // Set button state based on exam status
+        ExamStatus status = item.getStatus();
+        holder.startExamButton.setText(status.getButtonLabel());
+        holder.startExamButton.setEnabled(status.isStartable());
     }
 
     @Override
     public int getItemCount() {
-        return examList != null ? examList.size() : 0;
+        return items != null ? items.size() : 0;
     }
 
     public interface OnExamStartListener {
@@ -0,0 +1,52 @@
+package com.example.exam_portal_app;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Every question of an exam packed into one blob, so opening an exam costs a single document read
+// instead of one per question. Only stored sealed inside an ExamPackage, never in the clear.
+//
+// Layout: [4-byte magic "EXB1"][long version][gzip(QuestionCodec)]
+public final class ExamBundle {
+
+    private static final byte[] MAGIC = {'E', 'X', 'B', '1'};
+
+    private ExamBundle() {
+    }
+
+    public static byte[] encode(List<Question> questions, long version) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.write(MAGIC);
+        header.writeLong(version);
+        header.flush();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            QuestionCodec.write(out, questions);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Returns the bundle version; questions are streamed to the listener as they are decoded
+    public static long decode(InputStream bundle, QuestionCodec.OnQuestionDecodedListener listener)
+            throws IOException {
+        DataInputStream header = new DataInputStream(bundle);
+        byte[] magic = new byte[MAGIC.length];
+        header.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not an exam bundle");
+        }
+        long version = header.readLong();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(bundle)))) {
+            QuestionCodec.read(in, listener);
+        }
+        return version;
+    }
+}
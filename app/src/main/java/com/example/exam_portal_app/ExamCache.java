@@ -0,0 +1,115 @@
+package com.example.exam_portal_app;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Process-wide cache of exams and their questions, keyed by id and tagged with the document
+// version. Updates older than what is cached are ignored, and listeners (dashboards) are told
+// which exam changed so they can patch a single row.
+public final class ExamCache {
+
+    private static final ExamCache INSTANCE = new ExamCache();
+
+    private final Map<String, Exam> exams = new HashMap<>();
+    private final Map<String, List<Question>> questionsByExam = new HashMap<>();
+    private final Map<String, Long> questionVersions = new HashMap<>();
+    private final List<OnExamChangedListener> listeners = new ArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public interface OnExamChangedListener {
+        // exam is null when it was deleted
+        void onExamChanged(String examId, Exam exam);
+    }
+
+    private ExamCache() {
+    }
+
+    public static ExamCache getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized Exam getExam(String examId) {
+        return exams.get(examId);
+    }
+
+    public synchronized long getExamVersion(String examId) {
+        Exam exam = exams.get(examId);
+        return exam != null ? exam.getVersion() : -1;
+    }
+
+    // Stores the exam unless a newer version is already cached; returns true if it was stored
+    public boolean putExam(Exam exam) {
+        synchronized (this) {
+            Exam cached = exams.get(exam.getId());
+            if (cached != null && cached.getVersion() > exam.getVersion()) {
+                return false;
+            }
+            exams.put(exam.getId(), exam);
+        }
+        return true;
+    }
+
+    // putExam() plus a change notification to listeners
+    public void patchExam(Exam exam) {
+        if (putExam(exam)) {
+            notifyChanged(exam.getId(), exam);
+        }
+    }
+
+    public void removeExam(String examId) {
+        synchronized (this) {
+            exams.remove(examId);
+            questionsByExam.remove(examId);
+            questionVersions.remove(examId);
+        }
+        notifyChanged(examId, null);
+    }
+
+    public synchronized List<Question> getQuestions(String examId) {
+        List<Question> questions = questionsByExam.get(examId);
+        return questions != null ? new ArrayList<>(questions) : null;
+    }
+
+    public synchronized void putQuestions(String examId, List<Question> questions, long version) {
+        Long cached = questionVersions.get(examId);
+        if (cached != null && cached > version) return;
+        questionsByExam.put(examId, new ArrayList<>(questions));
+        questionVersions.put(examId, version);
+    }
+
+    // Drops cached questions older than the given version; the next exam open reloads them
+    public synchronized void invalidateQuestions(String examId, long version) {
+        Long cached = questionVersions.get(examId);
+        if (cached == null || CacheInvalidationHandler.isNewer(version, cached)) {
+            questionsByExam.remove(examId);
+            questionVersions.remove(examId);
+        }
+    }
+
+    public synchronized void addListener(OnExamChangedListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public synchronized void removeListener(OnExamChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyChanged(String examId, Exam exam) {
+        mainHandler.post(() -> {
+            List<OnExamChangedListener> snapshot;
+            synchronized (this) {
+                snapshot = new ArrayList<>(listeners);
+            }
+            for (OnExamChangedListener listener : snapshot) {
+                listener.onExamChanged(examId, exam);
+            }
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.exam_portal_app;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Denormalized per-student exam index. When an exam is created, republished or changes status its
+// summary is copied to Users/{uid}/my_exams/{examId} for every student enrolled in one of the
+// exam's section_ids, so the student dashboard reads only its own small subcollection instead of
+// scanning the global exams collection. Exams without sections have audience "all" and are not
+// copied at all: every student reads them with one shared query (ExamQueries.SHARED_EXAMS), so no
+// device ever has to enumerate the whole student body.
+public final class ExamFanout {
+
+    private static final String TAG = "ExamFanout";
+    public static final String MY_EXAMS = "my_exams";
+    public static final String FIELD_SECTION_IDS = "section_ids";
+    public static final String FIELD_AUDIENCE = "audience";
+    public static final String AUDIENCE_ALL = "all";
+    public static final String AUDIENCE_SECTIONS = "sections";
+    public static final String FIELD_QUESTION_COUNT = "question_count";
+    // migrations/{name} marker of the one-off audience backfill for exams created before the field
+    public static final String AUDIENCE_MIGRATION = "exam_audience_v1";
+
+    private static final int BATCH_LIMIT = 500;
+
+    // Fields the dashboard and exam screen need; Exam.fromSnapshot reads them back
+    private static final String[] SUMMARY_FIELDS = {
+            "title", "start_time", "end_time", "duration", "created_by", "teacher_name", "max_attempts",
+            "question_types", ExamLifecycle.FIELD_STATUS, "version", "paper_version", FIELD_SECTION_IDS, PaperBlueprint.FIELD,
+            FIELD_QUESTION_COUNT
+    };
+
+    private ExamFanout() {
+    }
+
+    public static void fanOut(String examId) {
+        FirestoreOps.read("loadExamForFanout", FirebaseProvider.getFirestore().collection("exams").document(examId).get())
+                .addOnSuccessListener(ExamFanout::fanOut)
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to load exam " + examId + ": " + e.getMessage()));
+    }
+
+    public static void fanOut(DocumentSnapshot examDocument) {
+        if (!examDocument.exists() || AUDIENCE_ALL.equals(audienceOf(examDocument))) return;
+        String examId = examDocument.getId();
+        Map<String, Object> summary = summaryOf(examDocument);
+        loadAudience(examDocument, uids -> writeSummaries(uids, examId, summary));
+    }
+
+    public static String audienceFor(List<String> sectionIds) {
+        return sectionIds != null && !sectionIds.isEmpty() ? AUDIENCE_SECTIONS : AUDIENCE_ALL;
+    }
+
+    // Exams written before the audience field existed are classified by their sections
+    @SuppressWarnings("unchecked")
+    static String audienceOf(DocumentSnapshot examDocument) {
+        String audience = examDocument.getString(FIELD_AUDIENCE);
+        return audience != null ? audience : audienceFor((List<String>) examDocument.get(FIELD_SECTION_IDS));
+    }
+
+    // Students enrolled in one of the exam's sections; none for an exam open to everyone
+    @SuppressWarnings("unchecked")
+    public static void loadAudience(DocumentSnapshot examDocument, EnrollmentRegistry.OnStudentsLoadedListener listener) {
+        List<String> sectionIds = (List<String>) examDocument.get(FIELD_SECTION_IDS);
+        if (sectionIds == null || sectionIds.isEmpty()) {
+            Log.w(TAG, "Exam " + examDocument.getId() + " has no sections, nothing to fan out");
+            listener.onStudentsLoaded(new ArrayList<>());
+            return;
+        }
+        EnrollmentRegistry.loadStudents(sectionIds, listener);
+    }
+
+    // One-off backfill (see Migrations): exams still running that predate the audience field are in
+    // neither the shared query nor anyone's my_exams, so classify them and fan out the sectioned ones
+    public static Task<Void> migrateAudience(FirebaseFirestore db) {
+        return FirestoreOps.read(ExamQueries.UNENDED_EXAMS.getName(), ExamQueries.unendedExams(db, ServerClock.now()).get())
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    List<DocumentSnapshot> legacy = new ArrayList<>();
+                    for (DocumentSnapshot exam : task.getResult().getDocuments()) {
+                        if (exam.getString(FIELD_AUDIENCE) == null) {
+                            legacy.add(exam);
+                        }
+                    }
+                    List<Task<Void>> commits = new ArrayList<>();
+                    for (List<DocumentSnapshot> chunk : NotificationDispatcher.partition(legacy, BATCH_LIMIT)) {
+                        WriteBatch batch = db.batch();
+                        for (DocumentSnapshot exam : chunk) {
+                            batch.update(exam.getReference(), FIELD_AUDIENCE, audienceOf(exam));
+                        }
+                        commits.add(FirestoreOps.write("migrateExamAudience", batch.commit(), chunk.size(),
+                                chunk.size() * FirestoreOps.sizeOf(Collections.singletonMap(FIELD_AUDIENCE, AUDIENCE_SECTIONS))));
+                    }
+                    return Tasks.whenAll(commits).addOnSuccessListener(aVoid -> {
+                        Log.d(TAG, "Classified " + legacy.size() + " legacy exams");
+                        for (DocumentSnapshot exam : legacy) {
+                            fanOut(exam);
+                        }
+                    });
+                });
+    }
+
+    // A newly enrolled student gets the section's scheduled and open exams
+    public static void backfill(String uid, String sectionId) {
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        FirestoreOps.read(ExamQueries.UNCLOSED_EXAMS_FOR_SECTION.getName(),
+                        ExamQueries.unclosedExamsForSection(db, sectionId).get())
+                .addOnSuccessListener(snapshots -> {
+                    List<DocumentSnapshot> exams = new ArrayList<>(snapshots.getDocuments());
+                    for (List<DocumentSnapshot> chunk : NotificationDispatcher.partition(exams, BATCH_LIMIT)) {
+                        WriteBatch batch = db.batch();
+                        long bytes = 0;
+                        for (DocumentSnapshot exam : chunk) {
+                            Map<String, Object> summary = summaryOf(exam);
+                            batch.set(myExamRef(db, uid, exam.getId()), summary, SetOptions.merge());
+                            bytes += FirestoreOps.sizeOf(summary);
+                        }
+                        FirestoreOps.write("backfillMyExams", batch.commit(), chunk.size(), bytes)
+                                .addOnFailureListener(e -> Log.e(TAG, "Failed to backfill " + uid + ": " + e.getMessage()));
+                    }
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to load exams for " + sectionId + ": " + e.getMessage()));
+    }
+
+    static Map<String, Object> summaryOf(DocumentSnapshot examDocument) {
+        Map<String, Object> summary = new HashMap<>();
+        for (String field : SUMMARY_FIELDS) {
+            Object value = examDocument.get(field);
+            if (value != null) {
+                summary.put(field, value);
+            }
+        }
+        return summary;
+    }
+
+    private static void writeSummaries(List<String> uids, String examId, Map<String, Object> summary) {
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        for (List<String> chunk : NotificationDispatcher.partition(uids, BATCH_LIMIT)) {
+            WriteBatch batch = db.batch();
+            for (String uid : chunk) {
+                batch.set(myExamRef(db, uid, examId), summary, SetOptions.merge());
+            }
+            FirestoreOps.write("fanOutExam", batch.commit(), chunk.size(), chunk.size() * FirestoreOps.sizeOf(summary))
+                    .addOnSuccessListener(aVoid -> Log.d(TAG, "Fanned out exam " + examId + " to " + chunk.size() + " students"))
+                    .addOnFailureListener(e -> Log.e(TAG, "Failed to fan out exam " + examId + ": " + e.getMessage()));
+        }
+    }
+
+    private static DocumentReference myExamRef(FirebaseFirestore db, String uid, String examId) {
+        return db.collection("Users").document(uid).collection(MY_EXAMS).document(examId);
+    }
+}
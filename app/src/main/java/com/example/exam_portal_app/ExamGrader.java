@@ -0,0 +1,198 @@
+package com.example.exam_portal_app;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Marks every attempt of a closed exam against question_answers and writes
+//   student_attempts/{id}  score, max_score, graded_at
+// The paper an attempt is marked against comes from the exam (or the student's published pooled
+// paper), never from the attempt, so dropping questions from an attempt cannot shrink max_score.
+// MCQ and subjective answers are compared like Question.isCorrect; questions without a stored
+// answer (coding) are left out of max_score. Run by ExamLifecycleEngine on the teacher/admin
+// device that closed the exam, which then marks the exam graded.
+public final class ExamGrader {
+
+    private static final String TAG = "ExamGrader";
+    private static final int IDS_PER_QUERY = 30;
+    private static final int BATCH_LIMIT = 500;
+
+    static final class Score {
+        final int correct;
+        final int max;
+
+        Score(int correct, int max) {
+            this.correct = correct;
+            this.max = max;
+        }
+    }
+
+    private ExamGrader() {
+    }
+
+    public static void grade(String examId, Runnable onGraded) {
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        Task<DocumentSnapshot> examRead = FirestoreOps.read("loadExamForGrading",
+                db.collection("exams").document(examId).get());
+        Task<QuerySnapshot> attemptsRead = FirestoreOps.read(ExamQueries.ATTEMPTS_FOR_EXAM.getName(),
+                ExamQueries.attemptsForExam(db, examId).get());
+        Tasks.whenAllSuccess(examRead, attemptsRead)
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    return loadPapers(db, examRead.getResult(), attemptsRead.getResult());
+                })
+                .addOnSuccessListener(papers -> {
+                    Set<String> questionIds = new LinkedHashSet<>();
+                    for (List<String> paper : papers.values()) {
+                        questionIds.addAll(paper);
+                    }
+                    loadAnswerKey(db, new ArrayList<>(questionIds))
+                            .addOnSuccessListener(key -> writeScores(db, examId, attemptsRead.getResult(), papers, key, onGraded))
+                            .addOnFailureListener(e -> Log.e(TAG, "Failed to load answers for " + examId + ": " + e.getMessage()));
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to load attempts of " + examId + ": " + e.getMessage()));
+    }
+
+    // The paper of every attempt by attempt id, from documents only teachers write: the exam's
+    // questions for a fixed paper, exam_papers/{examId}_{uid} for a pooled one. The question_ids
+    // an attempt carries are written by the student and never used for marking.
+    private static Task<Map<String, List<String>>> loadPapers(FirebaseFirestore db, DocumentSnapshot exam,
+                                                              QuerySnapshot attempts) {
+        String examId = exam.getId();
+        if (PaperBlueprint.fromSnapshot(exam) == null) {
+            return FirestoreOps.read(ExamQueries.QUESTIONS_FOR_EXAM.getName(),
+                            ExamQueries.questionsForExam(db, examId).get())
+                    .continueWith(task -> {
+                        List<String> paper = new ArrayList<>();
+                        for (QueryDocumentSnapshot question : task.getResult()) {
+                            paper.add(question.getId());
+                        }
+                        Map<String, List<String>> papers = new HashMap<>();
+                        for (QueryDocumentSnapshot attempt : attempts) {
+                            papers.put(attempt.getId(), paper);
+                        }
+                        return papers;
+                    });
+        }
+
+        List<QueryDocumentSnapshot> graded = new ArrayList<>();
+        List<Task<DocumentSnapshot>> reads = new ArrayList<>();
+        for (QueryDocumentSnapshot attempt : attempts) {
+            String uid = attempt.getString("student_id");
+            if (uid == null) continue;
+            graded.add(attempt);
+            reads.add(FirestoreOps.read("loadPaperForGrading", db.collection(ExamPublisher.PAPERS)
+                    .document(ExamPublisher.paperId(examId, uid)).get()));
+        }
+        return Tasks.whenAllSuccess(reads).continueWith(task -> {
+            Map<String, List<String>> papers = new HashMap<>();
+            for (int i = 0; i < graded.size(); i++) {
+                List<String> paper = questionIdsOf((DocumentSnapshot) task.getResult().get(i));
+                if (paper != null) {
+                    papers.put(graded.get(i).getId(), paper);
+                }
+            }
+            return papers;
+        });
+    }
+
+    private static Task<Map<String, String>> loadAnswerKey(FirebaseFirestore db, List<String> questionIds) {
+        List<Task<QuerySnapshot>> reads = new ArrayList<>();
+        for (List<String> chunk : NotificationDispatcher.partition(questionIds, IDS_PER_QUERY)) {
+            reads.add(FirestoreOps.read(ExamQueries.ANSWER_KEYS.getName(), ExamQueries.answerKeys(db, chunk).get()));
+        }
+        return Tasks.whenAllSuccess(reads).continueWith(task -> {
+            Map<String, String> key = new HashMap<>();
+            for (Object result : task.getResult()) {
+                for (QueryDocumentSnapshot document : (QuerySnapshot) result) {
+                    String answer = document.getString("correctAnswer");
+                    if (answer != null) {
+                        key.put(document.getId(), answer);
+                    }
+                }
+            }
+            return key;
+        });
+    }
+
+    private static void writeScores(FirebaseFirestore db, String examId, QuerySnapshot attempts,
+                                    Map<String, List<String>> papers, Map<String, String> key, Runnable onGraded) {
+        List<Task<Void>> commits = new ArrayList<>();
+        for (List<DocumentSnapshot> chunk : NotificationDispatcher.partition(attempts.getDocuments(), BATCH_LIMIT)) {
+            WriteBatch batch = db.batch();
+            for (DocumentSnapshot attempt : chunk) {
+                List<String> paper = papers.get(attempt.getId());
+                if (paper == null) {
+                    // No published paper for this student; leave the attempt for a teacher to mark
+                    Log.e(TAG, "No paper for attempt " + attempt.getId() + " of " + examId);
+                    continue;
+                }
+                Score score = scoreAttempt(attempt.getData(), paper, key);
+                Map<String, Object> fields = new HashMap<>();
+                fields.put("score", score.correct);
+                fields.put("max_score", score.max);
+                fields.put("graded_at", FieldValue.serverTimestamp());
+                batch.update(attempt.getReference(), fields);
+            }
+            commits.add(FirestoreOps.write("gradeAttempts", batch.commit(), chunk.size(), 0));
+        }
+        Tasks.whenAll(commits)
+                .addOnSuccessListener(aVoid -> {
+                    Log.d(TAG, "Graded " + attempts.size() + " attempts of " + examId);
+                    onGraded.run();
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to grade " + examId + ": " + e.getMessage()));
+    }
+
+    // Questions without an answer key are not marked; unanswered ones count towards max
+    static Score score(Map<String, Object> answers, List<String> paper, Map<String, String> key) {
+        int correct = 0;
+        int max = 0;
+        for (String questionId : paper) {
+            String expected = key.get(questionId);
+            if (expected == null) continue;
+            max++;
+            Object answer = answers.get(questionId);
+            if (answer instanceof String && expected.trim().equalsIgnoreCase(((String) answer).trim())) {
+                correct++;
+            }
+        }
+        return new Score(correct, max);
+    }
+
+    // Only the answers are taken from the attempt; the paper is the trusted one
+    static Score scoreAttempt(Map<String, Object> attempt, List<String> paper, Map<String, String> key) {
+        return score(answersOf(attempt), paper, key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> answersOf(Map<String, Object> attempt) {
+        Object answers = attempt != null ? attempt.get("answers") : null;
+        return answers instanceof Map ? (Map<String, Object>) answers : new HashMap<>();
+    }
+
+    // question_ids of a published exam_papers document; null when the paper does not exist
+    private static List<String> questionIdsOf(DocumentSnapshot paperDocument) {
+        Object ids = paperDocument.exists() ? paperDocument.get("question_ids") : null;
+        if (!(ids instanceof List)) return null;
+        List<String> paper = new ArrayList<>();
+        for (Object id : (List<?>) ids) {
+            paper.add(String.valueOf(id));
+        }
+        return paper;
+    }
+}
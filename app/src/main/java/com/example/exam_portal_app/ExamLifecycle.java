@@ -0,0 +1,57 @@
+package com.example.exam_portal_app;
+
+// Server-side status of an exam as stored in the "status" field of exams/{id}.
+// Transitions only move forward: scheduled -> open -> closed -> graded. The one way back is
+// graded -> closed when a late offline attempt arrives (ExamLifecycleEngine.reopenForGrading).
+public enum ExamLifecycle {
+    SCHEDULED("scheduled"),
+    OPEN("open"),
+    CLOSED("closed"),
+    GRADED("graded");
+
+    public static final String FIELD_STATUS = "status";
+
+    private final String value;
+
+    ExamLifecycle(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static ExamLifecycle fromValue(String value) {
+        for (ExamLifecycle state : values()) {
+            if (state.value.equals(value)) {
+                return state;
+            }
+        }
+        return SCHEDULED;
+    }
+
+    // State an exam should be in at the given time, ignoring grading which is not time driven
+    public static ExamLifecycle forTime(long startTime, long endTime, long now) {
+        if (now < startTime) {
+            return SCHEDULED;
+        } else if (now < endTime) {
+            return OPEN;
+        }
+        return CLOSED;
+    }
+
+    // Time-driven moves may skip open when no engine ran during the exam; graded is only
+    // reachable from closed, once the attempts have been marked
+    public boolean canMoveTo(ExamLifecycle next) {
+        switch (this) {
+            case SCHEDULED:
+                return next == OPEN || next == CLOSED;
+            case OPEN:
+                return next == CLOSED;
+            case CLOSED:
+                return next == GRADED;
+            default:
+                return false;
+        }
+    }
+}
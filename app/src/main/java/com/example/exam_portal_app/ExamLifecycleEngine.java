@@ -0,0 +1,261 @@
+package com.example.exam_portal_app;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Moves exams through scheduled -> open -> closed by writing exams/{id}.status at start_time
+// and end_time, so students can filter on the indexed status field instead of range-scanning
+// end_time. Pending transitions sit in a priority queue ordered by due time and a single
+// scheduler thread sleeps until the head is due. Once an exam is closed its attempts are
+// graded (ExamGrader) and the exam moves on to graded.
+//
+// There is no backend: the engine runs in the teacher and admin apps, started from their
+// dashboards, so transitions are written only while such a device has the app open. A device
+// opening later applies overdue transitions at once. Student screens decide Upcoming/Active/Expired
+// from start_time/end_time on server time and never wait on the stored status.
+public class ExamLifecycleEngine {
+
+    private static final String TAG = "ExamLifecycleEngine";
+
+    private static ExamLifecycleEngine instance;
+
+    private final PriorityQueue<Transition> queue = new PriorityQueue<>();
+    // Latest queued target per exam, so re-tracking an exam replaces its old transitions
+    private final Map<String, Long> trackedVersions = new HashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final StatusWriter statusWriter;
+    private final Grader grader;
+    private ScheduledFuture<?> wakeUp;
+    private long nextVersion = 0;
+
+    public interface StatusWriter {
+        // changed is false when the stored status did not allow the move, e.g. another device made it
+        void writeStatus(String examId, ExamLifecycle from, ExamLifecycle to, OnStatusWrittenListener listener);
+    }
+
+    public interface OnStatusWrittenListener {
+        void onStatusWritten(boolean changed);
+    }
+
+    public interface Grader {
+        // onGraded runs once every attempt of the exam carries a score
+        void grade(String examId, Runnable onGraded);
+    }
+
+    private static class Transition implements Comparable<Transition> {
+        final String examId;
+        final ExamLifecycle from;
+        final ExamLifecycle to;
+        final long dueAt;
+        final long version;
+
+        Transition(String examId, ExamLifecycle from, ExamLifecycle to, long dueAt, long version) {
+            this.examId = examId;
+            this.from = from;
+            this.to = to;
+            this.dueAt = dueAt;
+            this.version = version;
+        }
+
+        @Override
+        public int compareTo(Transition other) {
+            return Long.compare(dueAt, other.dueAt);
+        }
+    }
+
+    ExamLifecycleEngine(StatusWriter statusWriter, Grader grader) {
+        this.statusWriter = statusWriter;
+        this.grader = grader;
+    }
+
+    public static synchronized ExamLifecycleEngine getInstance() {
+        if (instance == null) {
+            instance = new ExamLifecycleEngine(new FirestoreStatusWriter(FirebaseProvider.getFirestore()),
+                    ExamGrader::grade);
+        }
+        return instance;
+    }
+
+    // Queue the remaining transitions for an exam, applying any that are already overdue
+    public synchronized void track(String examId, String currentStatus, long startTime, long endTime) {
+        if (examId == null) return;
+
+        long version = ++nextVersion;
+        trackedVersions.put(examId, version);
+
+        ExamLifecycle current = ExamLifecycle.fromValue(currentStatus);
+        long now = System.currentTimeMillis();
+        ExamLifecycle due = ExamLifecycle.forTime(startTime, endTime, now);
+        if (current.canMoveTo(due)) {
+            queue.add(new Transition(examId, current, due, now, version));
+            current = due;
+        }
+        if (current == ExamLifecycle.SCHEDULED) {
+            queue.add(new Transition(examId, ExamLifecycle.SCHEDULED, ExamLifecycle.OPEN, startTime, version));
+            current = ExamLifecycle.OPEN;
+        }
+        if (current == ExamLifecycle.OPEN) {
+            queue.add(new Transition(examId, ExamLifecycle.OPEN, ExamLifecycle.CLOSED, endTime, version));
+        }
+        reschedule();
+    }
+
+    // Track every exam returned by the query; callers pass one of the ExamQueries.unclosed* shapes
+    // and its name
+    public void trackAll(String op, Query examsQuery) {
+        FirestoreOps.read(op, examsQuery.get())
+                .addOnSuccessListener(snapshots -> {
+                    for (QueryDocumentSnapshot document : snapshots) {
+                        Long startTime = document.getLong("start_time");
+                        Long endTime = document.getLong("end_time");
+                        if (startTime != null && endTime != null) {
+                            track(document.getId(), document.getString(ExamLifecycle.FIELD_STATUS),
+                                    startTime, endTime);
+                        }
+                    }
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to load exams to track: " + e.getMessage()));
+    }
+
+    // Grade exams that were closed but never graded, e.g. the closing device went away mid-way;
+    // callers pass ExamQueries.closedExamsCreatedBy and its name
+    public void gradeAll(String op, Query closedExamsQuery) {
+        FirestoreOps.read(op, closedExamsQuery.get())
+                .addOnSuccessListener(snapshots -> {
+                    for (QueryDocumentSnapshot document : snapshots) {
+                        grade(document.getId());
+                    }
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to load closed exams: " + e.getMessage()));
+    }
+
+    // Grading is not time driven; called once all attempts for a closed exam have been marked
+    public void markGraded(String examId) {
+        statusWriter.writeStatus(examId, ExamLifecycle.CLOSED, ExamLifecycle.GRADED, changed -> {
+        });
+    }
+
+    // Grades a closed exam now, once it closes here or when gradeAll finds it still closed
+    public void grade(String examId) {
+        grader.grade(examId, () -> markGraded(examId));
+    }
+
+    // A late offline attempt (OfflineSubmitWorker) can land after the exam was graded. The student's
+    // device cannot grade it, since answer keys are staff-only, so the exam goes back to closed and
+    // the next gradeAll on a teacher's dashboard scores it. Resolves to true when the status was reset
+    public static Task<Boolean> reopenForGrading(FirebaseFirestore db, String examId) {
+        DocumentReference examRef = db.collection("exams").document(examId);
+        return FirestoreOps.track("reopenForGrading", db.runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(examRef);
+            if (!snapshot.exists() || ExamLifecycle.fromValue(snapshot.getString(ExamLifecycle.FIELD_STATUS))
+                    != ExamLifecycle.GRADED) {
+                // Not graded yet: closing the exam, or gradeAll, grades every attempt including this one
+                return false;
+            }
+            Long current = snapshot.getLong("version");
+            transaction.update(examRef, ExamLifecycle.FIELD_STATUS, ExamLifecycle.CLOSED.getValue(),
+                    "version", (current != null ? current : 0L) + 1);
+            return true;
+        }), 1, 1, FirestoreOps.sizeOf(ExamLifecycle.CLOSED.getValue()) + FirestoreOps.sizeOf(0L));
+    }
+
+    public synchronized void untrack(String examId) {
+        trackedVersions.remove(examId);
+    }
+
+    private synchronized void reschedule() {
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+        Transition head = queue.peek();
+        if (head != null) {
+            long delay = Math.max(0, head.dueAt - System.currentTimeMillis());
+            wakeUp = scheduler.schedule(this::fireDue, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void fireDue() {
+        long now = System.currentTimeMillis();
+        while (true) {
+            Transition transition;
+            synchronized (this) {
+                transition = queue.peek();
+                if (transition == null || transition.dueAt > now) {
+                    break;
+                }
+                queue.poll();
+                Long version = trackedVersions.get(transition.examId);
+                if (version == null || version != transition.version) {
+                    // Superseded by a later track() or untracked
+                    continue;
+                }
+                if (transition.to == ExamLifecycle.CLOSED) {
+                    trackedVersions.remove(transition.examId);
+                }
+            }
+            statusWriter.writeStatus(transition.examId, transition.from, transition.to, changed -> {
+                // The device that closed the exam grades it; gradeAll picks up any it missed
+                if (changed && transition.to == ExamLifecycle.CLOSED) {
+                    grade(transition.examId);
+                }
+            });
+        }
+        reschedule();
+    }
+
+    // Writes are conditional on the stored status so several teacher/admin devices running the
+    // engine for the same exam never move it backwards or apply a transition twice
+    static class FirestoreStatusWriter implements StatusWriter {
+        private final FirebaseFirestore db;
+
+        FirestoreStatusWriter(FirebaseFirestore db) {
+            this.db = db;
+        }
+
+        @Override
+        public void writeStatus(String examId, ExamLifecycle from, ExamLifecycle to,
+                                OnStatusWrittenListener listener) {
+            DocumentReference examRef = db.collection("exams").document(examId);
+            // Resolves to the exam's new version, or 0 when the move was not applied
+            FirestoreOps.track("writeExamStatus", db.runTransaction(transaction -> {
+                        DocumentSnapshot snapshot = transaction.get(examRef);
+                        if (!snapshot.exists()) return 0L;
+                        ExamLifecycle stored = ExamLifecycle.fromValue(snapshot.getString(ExamLifecycle.FIELD_STATUS));
+                        if (!stored.canMoveTo(to)) return 0L;
+                        Long current = snapshot.getLong("version");
+                        long version = (current != null ? current : 0L) + 1;
+                        transaction.update(examRef, ExamLifecycle.FIELD_STATUS, to.getValue(),
+                                "version", version);
+                        return version;
+                    }), 1, 1, FirestoreOps.sizeOf(to.getValue()) + FirestoreOps.sizeOf(0L))
+                    .addOnSuccessListener(version -> {
+                        boolean changed = version > 0;
+                        if (changed) {
+                            Log.d(TAG, "Exam " + examId + ": " + from.getValue() + " -> " + to.getValue());
+                            // Carries the status so students patch their copy instead of re-reading it
+                            CacheInvalidationHandler.broadcast(
+                                    CacheInvalidationHandler.buildStatusEvent(examId, version, to.getValue()));
+                            // Sectioned exams are listed from each student's my_exams copy
+                            ExamFanout.fanOut(examId);
+                        }
+                        listener.onStatusWritten(changed);
+                    })
+                    .addOnFailureListener(e -> Log.e(TAG, "Failed to update status of " + examId + ": " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.exam_portal_app;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Display-ready row for ExamAdapter. Strings are built once per data load so binding
+// a row only assigns text; status is recomputed only when ExamStatusTicker fires.
+public class ExamListItem {
+
+    private final Exam exam;
+    private final String title;
+    private final String teacherText;
+    private final String questionsText;
+    private final String durationText;
+    private final String startTimeText;
+    private final String endTimeText;
+    private ExamStatus status;
+
+    private ExamListItem(Exam exam, long now) {
+        this.exam = exam;
+        this.title = exam.getTitle() != null ? exam.getTitle() : "";
+
+        String teacherName = exam.getTeacher_name();
+        this.teacherText = "Created by: " + (teacherName != null ? teacherName : "Unknown");
+        this.questionsText = "Questions: " + exam.getQuestionCount();
+        this.durationText = "Duration: " + exam.getDuration() + " min";
+        this.startTimeText = "Starts: " + DateFormatCache.format(exam.getStartTime());
+        this.endTimeText = "Ends: " + DateFormatCache.format(exam.getEndTime());
+        this.status = ExamStatus.of(exam, now);
+    }
+
+    public static ExamListItem fromExam(Exam exam, long now) {
+        return new ExamListItem(exam, now);
+    }
+
+    public static List<ExamListItem> fromExams(List<Exam> exams, long now) {
+        List<ExamListItem> items = new ArrayList<>(exams.size());
+        for (Exam exam : exams) {
+            if (exam != null) {
+                items.add(new ExamListItem(exam, now));
+            }
+        }
+        return items;
+    }
+
+    // Returns true if the status changed and the row needs rebinding
+    public boolean refreshStatus(long now) {
+        ExamStatus newStatus = ExamStatus.of(exam, now);
+        if (newStatus != status) {
+            status = newStatus;
+            return true;
+        }
+        return false;
+    }
+
+    public long nextTransition(long now) {
+        return ExamStatus.nextTransition(exam, now);
+    }
+
+    public Exam getExam() {
+        return exam;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getTeacherText() {
+        return teacherText;
+    }
+
+    public String getQuestionsText() {
+        return questionsText;
+    }
+
+    public String getDurationText() {
+        return durationText;
+    }
+
+    public String getStartTimeText() {
+        return startTimeText;
+    }
+
+    public String getEndTimeText() {
+        return endTimeText;
+    }
+
+    public ExamStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Student side of live monitoring. ExamActivity reports every change (question in view, answered
+// count, foreground/background, submitted) here; only the latest state is kept and a token bucket
+// lets at most one write per heartbeat interval through, with a small burst so going to the
+// background shows up promptly. With nothing to report the state is still rewritten once per
+// interval, so a quiet student is not mistaken for a silent one; the submitted state and the last
+// state on stop() are written straight away. The write merges the state into
+//   exam_monitor/{examId}/shards/{n}   students.{uid} = {q, a, fg, done, ts}
+// where n is a hash of the uid, so the admin view reads a fixed number of shard documents however
+// many students sit the exam. Firestore sustains about one write per second on a document, so there
+// are enough shards for the expected audience to stay well under that (shardCount); a failed write
+// waits for the next heartbeat rather than retrying into a contended shard.
+public class ExamMonitor {
+
+    private static final String TAG = "ExamMonitor";
+    public static final String COLLECTION = "exam_monitor";
+    public static final String SHARDS = "shards";
+    public static final String FIELD_STUDENTS = "students";
+    // Target per shard, leaving headroom for uneven hashing and the forced writes on submit/stop
+    static final double MAX_SHARD_WRITES_PER_SECOND = 0.4;
+
+    private final DocumentReference shardRef;
+    private final String uid;
+    private final RateLimiter rateLimiter;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = () -> flush(false);
+    private final Runnable heartbeatRunnable = this::heartbeat;
+    private final long intervalMs;
+
+    private int questionIndex;
+    private int answeredCount;
+    private boolean foreground = true;
+    private boolean submitted;
+    private boolean dirty;
+    private boolean flushScheduled;
+    private boolean stopped;
+
+    public ExamMonitor(Context context, String examId, String uid) {
+        int intervalSeconds = context.getResources().getInteger(R.integer.monitor_heartbeat_seconds);
+        int shards = shardCount(context.getResources().getInteger(R.integer.monitor_expected_examinees),
+                intervalSeconds);
+        this.uid = uid;
+        this.shardRef = FirebaseProvider.getFirestore().collection(COLLECTION).document(examId)
+                .collection(SHARDS).document(String.valueOf(shardOf(uid, shards)));
+        this.rateLimiter = new RateLimiter(1d / intervalSeconds, 2);
+        this.intervalMs = intervalSeconds * 1000L;
+        handler.postDelayed(heartbeatRunnable, intervalMs);
+    }
+
+    // Each examinee writes about once per interval
+    static int shardCount(int expectedExaminees, int intervalSeconds) {
+        double writesPerSecond = (double) expectedExaminees / intervalSeconds;
+        return Math.max(1, (int) Math.ceil(writesPerSecond / MAX_SHARD_WRITES_PER_SECOND));
+    }
+
+    static int shardOf(String uid, int shards) {
+        return (uid.hashCode() & 0x7fffffff) % shards;
+    }
+
+    public void onProgress(int questionIndex, int answeredCount) {
+        if (this.questionIndex == questionIndex && this.answeredCount == answeredCount) return;
+        this.questionIndex = questionIndex;
+        this.answeredCount = answeredCount;
+        markDirty();
+    }
+
+    public void onForegroundChanged(boolean foreground) {
+        if (this.foreground == foreground) return;
+        this.foreground = foreground;
+        markDirty();
+    }
+
+    // The last state the admin sees for this student; not held back by the rate limit
+    public void onSubmitted() {
+        submitted = true;
+        dirty = true;
+        flush(true);
+    }
+
+    public void stop() {
+        stopped = true;
+        handler.removeCallbacks(heartbeatRunnable);
+        handler.removeCallbacks(flushRunnable);
+        flushScheduled = false;
+        flush(true);
+    }
+
+    private void heartbeat() {
+        if (submitted) return;
+        // Refreshes ts even when nothing else changed
+        markDirty();
+        handler.postDelayed(heartbeatRunnable, intervalMs);
+    }
+
+    private void markDirty() {
+        dirty = true;
+        if (flushScheduled || stopped) return;
+        flushScheduled = true;
+        handler.postDelayed(flushRunnable, rateLimiter.millisUntilPermit());
+    }
+
+    private void flush(boolean force) {
+        flushScheduled = false;
+        if (!dirty) return;
+        if (force) {
+            handler.removeCallbacks(flushRunnable);
+        } else if (!rateLimiter.tryAcquire()) {
+            flushScheduled = true;
+            handler.postDelayed(flushRunnable, rateLimiter.millisUntilPermit());
+            return;
+        }
+        dirty = false;
+
+        Map<String, Object> students = new HashMap<>();
+        students.put(uid, stateOf(questionIndex, answeredCount, foreground, submitted, ServerClock.now()));
+        Map<String, Object> data = new HashMap<>();
+        data.put(FIELD_STUDENTS, students);
+
+        FirestoreOps.write("monitorHeartbeat", shardRef.set(data, SetOptions.merge()), 1, FirestoreOps.sizeOf(data))
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Heartbeat failed: " + e.getMessage());
+                    // Picked up by the next heartbeat; a submitted student has none left, so retry once
+                    // an interval has passed
+                    dirty = true;
+                    if (submitted && !stopped && !flushScheduled) {
+                        flushScheduled = true;
+                        handler.postDelayed(flushRunnable, intervalMs);
+                    }
+                });
+    }
+
+    // One student's entry in a shard's students map, as ExamMonitorSnapshot reads it back
+    static Map<String, Object> stateOf(int questionIndex, int answeredCount, boolean foreground, boolean submitted,
+                                       long timestamp) {
+        Map<String, Object> state = new HashMap<>();
+        state.put("q", questionIndex);
+        state.put("a", answeredCount);
+        state.put("fg", foreground);
+        state.put("done", submitted);
+        state.put("ts", timestamp);
+        return state;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.exam_portal_app;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.Spinner;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Admin view of exams in progress. Listens to the fixed set of monitor shard documents of one
+// exam (see ExamMonitor) and folds them into counts plus a list of students needing attention.
+public class ExamMonitorActivity extends AppCompatActivity {
+
+    private static final String TAG = "ExamMonitorActivity";
+
+    private Spinner examSpinner;
+    private TextView summaryTextView, attentionTextView;
+    private FirebaseFirestore db;
+    private final List<Exam> exams = new ArrayList<>();
+    private ListenerRegistration shardsListener;
+    private long silentAfterMs;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_exam_monitor);
+
+        db = FirebaseProvider.getFirestore();
+        // Four missed heartbeats before a student counts as silent
+        silentAfterMs = 4000L * getResources().getInteger(R.integer.monitor_heartbeat_seconds);
+
+        examSpinner = findViewById(R.id.monitorExamSpinner);
+        summaryTextView = findViewById(R.id.monitorSummaryTextView);
+        attentionTextView = findViewById(R.id.monitorAttentionTextView);
+        examSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                watchExam(exams.get(position));
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                stopWatching();
+            }
+        });
+
+        loadExams();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        stopWatching();
+    }
+
+    private void loadExams() {
+        FirestoreOps.read("loadMonitoredExams", ExamQueries.unclosedExams(db).get())
+                .addOnSuccessListener(snapshots -> {
+                    exams.clear();
+                    List<String> titles = new ArrayList<>();
+                    for (DocumentSnapshot document : snapshots.getDocuments()) {
+                        Exam exam = Exam.fromSnapshot(document);
+                        exams.add(exam);
+                        titles.add(exam.getTitle());
+                    }
+                    ArrayAdapter<String> adapter = new ArrayAdapter<>(this,
+                            android.R.layout.simple_spinner_item, titles);
+                    adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+                    examSpinner.setAdapter(adapter);
+                    if (exams.isEmpty()) {
+                        summaryTextView.setText("No exams in progress");
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error loading exams", e);
+                    Toast.makeText(this, "Error loading exams: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    private void watchExam(Exam exam) {
+        stopWatching();
+        summaryTextView.setText("Waiting for heartbeats...");
+        attentionTextView.setText("");
+        shardsListener = db.collection(ExamMonitor.COLLECTION).document(exam.getId())
+                .collection(ExamMonitor.SHARDS)
+                .addSnapshotListener(FirestoreOps.listen("watchMonitorShards", (snapshots, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Monitor listener failed", e);
+                        return;
+                    }
+                    if (snapshots == null) return;
+
+                    List<Map<String, Object>> shardStudents = new ArrayList<>();
+                    for (DocumentSnapshot shard : snapshots.getDocuments()) {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> students = (Map<String, Object>) shard.get(ExamMonitor.FIELD_STUDENTS);
+                        shardStudents.add(students);
+                    }
+                    showSnapshot(ExamMonitorSnapshot.aggregate(shardStudents, ServerClock.now(), silentAfterMs));
+                }));
+    }
+
+    private void stopWatching() {
+        if (shardsListener != null) {
+            shardsListener.remove();
+            shardsListener = null;
+        }
+    }
+
+    private void showSnapshot(ExamMonitorSnapshot snapshot) {
+        summaryTextView.setText(String.format(Locale.US,
+                "%d examinees: %d active, %d in background, %d silent, %d submitted\nAverage answered: %.1f",
+                snapshot.total, snapshot.active, snapshot.background, snapshot.silent, snapshot.submitted,
+                snapshot.averageAnswered));
+
+        StringBuilder attention = new StringBuilder();
+        long now = ServerClock.now();
+        for (ExamMonitorSnapshot.Student student : snapshot.attention) {
+            attention.append(student.uid)
+                    .append(now - student.lastSeen > silentAfterMs ? " - silent" : " - in background")
+                    .append(" for ").append((now - student.lastSeen) / 1000).append("s, question ")
+                    .append(student.questionIndex + 1).append(", ")
+                    .append(student.answeredCount).append(" answered\n");
+        }
+        attentionTextView.setText(attention.toString());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.exam_portal_app;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Per-exam aggregate built from the monitor shard documents: how many examinees are working,
+// backgrounded, silent or done, and which ones need attention.
+public final class ExamMonitorSnapshot {
+
+    public static final class Student {
+        public final String uid;
+        public final int questionIndex;
+        public final int answeredCount;
+        public final boolean foreground;
+        public final boolean submitted;
+        public final long lastSeen;
+
+        Student(String uid, int questionIndex, int answeredCount, boolean foreground, boolean submitted,
+                long lastSeen) {
+            this.uid = uid;
+            this.questionIndex = questionIndex;
+            this.answeredCount = answeredCount;
+            this.foreground = foreground;
+            this.submitted = submitted;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    public int total;
+    public int active;
+    public int background;
+    public int silent;
+    public int submitted;
+    public double averageAnswered;
+    // Backgrounded or silent students, longest unseen first
+    public final List<Student> attention = new ArrayList<>();
+
+    private ExamMonitorSnapshot() {
+    }
+
+    // A student is silent once no heartbeat arrived for silentAfterMs
+    @SuppressWarnings("unchecked")
+    public static ExamMonitorSnapshot aggregate(List<Map<String, Object>> shardStudents, long now,
+                                                long silentAfterMs) {
+        ExamMonitorSnapshot snapshot = new ExamMonitorSnapshot();
+        long answered = 0;
+        for (Map<String, Object> students : shardStudents) {
+            if (students == null) continue;
+            for (Map.Entry<String, Object> entry : students.entrySet()) {
+                if (!(entry.getValue() instanceof Map)) continue;
+                Student student = parse(entry.getKey(), (Map<String, Object>) entry.getValue());
+                snapshot.total++;
+                answered += student.answeredCount;
+                if (student.submitted) {
+                    snapshot.submitted++;
+                } else if (now - student.lastSeen > silentAfterMs) {
+                    snapshot.silent++;
+                    snapshot.attention.add(student);
+                } else if (!student.foreground) {
+                    snapshot.background++;
+                    snapshot.attention.add(student);
+                } else {
+                    snapshot.active++;
+                }
+            }
+        }
+        snapshot.averageAnswered = snapshot.total > 0 ? (double) answered / snapshot.total : 0;
+        Collections.sort(snapshot.attention, (a, b) -> Long.compare(a.lastSeen, b.lastSeen));
+        return snapshot;
+    }
+
+    private static Student parse(String uid, Map<String, Object> state) {
+        return new Student(uid, intOf(state.get("q")), intOf(state.get("a")),
+                !Boolean.FALSE.equals(state.get("fg")), Boolean.TRUE.equals(state.get("done")),
+                state.get("ts") instanceof Number ? ((Number) state.get("ts")).longValue() : 0);
+    }
+
+    private static int intOf(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+}
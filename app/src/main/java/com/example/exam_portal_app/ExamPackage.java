@@ -0,0 +1,93 @@
+package com.example.exam_portal_app;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+// An exam paper sealed for early distribution: an ExamBundle encrypted with AES-256-GCM under a
+// per-exam random key. The blob can be downloaded long before the exam; only the 32-byte key
+// is published at start time. The package alone is not the whole story: the plaintext projections
+// in questions/{id} hold the same content, so they need their own start-time rule (firestore.rules).
+//
+// Blob layout: [4-byte magic "EXP2"][12-byte IV][ciphertext of ExamBundle + GCM tag]
+public final class ExamPackage {
+
+    private static final byte[] MAGIC = {'E', 'X', 'P', '2'};
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int KEY_BYTES = 32;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    public static class Sealed {
+        public final byte[] blob;
+        public final byte[] key;
+
+        Sealed(byte[] blob, byte[] key) {
+            this.blob = blob;
+            this.key = key;
+        }
+    }
+
+    private ExamPackage() {
+    }
+
+    public static byte[] newKey() {
+        byte[] key = new byte[KEY_BYTES];
+        RANDOM.nextBytes(key);
+        return key;
+    }
+
+    public static Sealed seal(List<Question> questions, long version) throws IOException, GeneralSecurityException {
+        return seal(questions, version, newKey());
+    }
+
+    // Pooled exams seal every student's paper under the one key of the exam
+    public static Sealed seal(List<Question> questions, long version, byte[] key)
+            throws IOException, GeneralSecurityException {
+        byte[] iv = new byte[IV_BYTES];
+        RANDOM.nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new GCMParameterSpec(TAG_BITS, iv));
+        byte[] ciphertext = cipher.doFinal(ExamBundle.encode(questions, version));
+
+        ByteArrayOutputStream blob = new ByteArrayOutputStream(MAGIC.length + IV_BYTES + ciphertext.length);
+        blob.write(MAGIC);
+        blob.write(iv);
+        blob.write(ciphertext);
+        return new Sealed(blob.toByteArray(), key);
+    }
+
+    // Decrypts and decompresses as a stream, handing each question to the listener as it is decoded,
+    // and returns the bundle version. GCM verifies the tag at the end of the stream, so decoded
+    // questions are only trustworthy once this returns without throwing.
+    public static long open(InputStream blob, byte[] key, QuestionCodec.OnQuestionDecodedListener listener)
+            throws IOException, GeneralSecurityException {
+        DataInputStream header = new DataInputStream(blob);
+        byte[] magic = new byte[MAGIC.length];
+        header.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not an exam package");
+        }
+        byte[] iv = new byte[IV_BYTES];
+        header.readFully(iv);
+
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"), new GCMParameterSpec(TAG_BITS, iv));
+        try (InputStream plain = new CipherInputStream(blob, cipher)) {
+            return ExamBundle.decode(plain, listener);
+        }
+    }
+}
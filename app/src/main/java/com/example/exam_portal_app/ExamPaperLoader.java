@@ -0,0 +1,200 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Loads an exam paper from the cheapest source available, in order:
+//   1. ExamCache (memory)
+//   2. prefetched question list in LocalExamStore
+//   3. prefetched sealed package + the released key (one tiny read)
+//   4. sealed package + the released key (two reads)
+//   5. one read per question document (legacy exams without a package)
+// Pooled exams skip 3-5: each student reads their own sealed paper from exam_papers plus the key.
+// Whatever the source, the paper is then kept in LocalExamStore for offline reopening.
+// Work runs on a background thread; the listener is called on the main thread.
+public class ExamPaperLoader {
+
+    private static final String TAG = "ExamPaperLoader";
+    private static final long READ_TIMEOUT_S = 30;
+
+    public static final String SOURCE_MEMORY = "memory";
+    public static final String SOURCE_DISK = "disk";
+    public static final String SOURCE_PREFETCHED_PACKAGE = "prefetched_package";
+    public static final String SOURCE_PACKAGE = "package";
+    public static final String SOURCE_QUERY = "query";
+    public static final String SOURCE_POOL = "pool";
+
+    private final Context context;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public interface Listener {
+        void onPaperLoaded(List<Question> questions, String source);
+
+        void onPaperFailed(Exception e);
+    }
+
+    public ExamPaperLoader(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public void load(Exam exam, Listener listener) {
+        List<Question> cached = ExamCache.getInstance().getQuestions(exam.getId());
+        if (cached != null) {
+            listener.onPaperLoaded(cached, SOURCE_MEMORY);
+            return;
+        }
+
+        executor.execute(() -> {
+            try {
+                String[] source = new String[1];
+                List<Question> questions = loadBlocking(exam, source);
+                ExamCache.getInstance().putQuestions(exam.getId(), questions, exam.getPaperVersion());
+                keepForOffline(exam, questions, source[0]);
+                mainHandler.post(() -> listener.onPaperLoaded(questions, source[0]));
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to load exam " + exam.getId() + ": " + e.getMessage());
+                mainHandler.post(() -> listener.onPaperFailed(e));
+            }
+        });
+    }
+
+    // A paper read from the network is kept on disk so the attempt can be reopened without
+    // connectivity (app killed or device rebooted mid-exam)
+    private void keepForOffline(Exam exam, List<Question> questions, String source) {
+        if (SOURCE_DISK.equals(source)) return;
+        try {
+            boolean encrypt = context.getResources().getBoolean(R.bool.prefetch_encrypt_at_rest);
+            LocalExamStore.save(context, exam.getId(), exam.getPaperVersion(), questions, encrypt);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not keep exam " + exam.getId() + " for offline use: " + e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private List<Question> loadBlocking(Exam exam, String[] source) throws Exception {
+        String examId = exam.getId();
+        long version = exam.getPaperVersion();
+
+        List<Question> stored = LocalExamStore.load(context, examId, version);
+        if (stored != null) {
+            source[0] = SOURCE_DISK;
+            return stored;
+        }
+
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+
+        if (exam.isPooled()) {
+            source[0] = SOURCE_POOL;
+            return loadPooledPaper(db, examId);
+        }
+
+        byte[] key = fetchKey(db, examId);
+        if (key != null) {
+            try (InputStream prefetched = LocalExamStore.openPackage(context, examId, version)) {
+                List<Question> questions = prefetched != null ? openPackage(prefetched, key) : null;
+                if (questions != null) {
+                    source[0] = SOURCE_PREFETCHED_PACKAGE;
+                    return questions;
+                }
+            }
+
+            DocumentSnapshot packageDocument = await(FirestoreOps.read("loadExamPackage",
+                    db.collection(ExamPublisher.PACKAGES).document(examId).get()));
+            Blob blob = packageDocument.exists() ? packageDocument.getBlob("blob") : null;
+            List<Question> questions = blob != null
+                    ? openPackage(new ByteArrayInputStream(blob.toBytes()), key) : null;
+            if (questions != null) {
+                source[0] = SOURCE_PACKAGE;
+                return questions;
+            }
+        }
+        if (key == null && version > 0) {
+            // Published exam whose key is not released yet; never fall back to the questions
+            throw new IllegalStateException("The exam has not started yet");
+        }
+
+        QuerySnapshot snapshots = await(FirestoreOps.read(ExamQueries.QUESTIONS_FOR_EXAM.getName(),
+                ExamQueries.questionsForExam(db, examId).get()));
+        List<Question> questions = new ArrayList<>();
+        for (QueryDocumentSnapshot document : snapshots) {
+            Question question = document.toObject(Question.class);
+            question.setId(document.getId());
+            questions.add(question);
+        }
+        source[0] = SOURCE_QUERY;
+        return questions;
+    }
+
+    private List<Question> loadPooledPaper(FirebaseFirestore db, String examId) throws Exception {
+        FirebaseUser user = FirebaseProvider.getAuth().getCurrentUser();
+        if (user == null) {
+            throw new IllegalStateException("User not authenticated");
+        }
+        DocumentSnapshot paperDocument = await(FirestoreOps.read("loadPooledPaper", db.collection(ExamPublisher.PAPERS)
+                .document(ExamPublisher.paperId(examId, user.getUid())).get()));
+        Blob blob = paperDocument.exists() ? paperDocument.getBlob("blob") : null;
+        if (blob == null) {
+            throw new IllegalStateException("No paper has been generated for you yet");
+        }
+        byte[] key = fetchKey(db, examId);
+        if (key == null) {
+            throw new IllegalStateException("The exam has not started yet");
+        }
+        List<Question> questions = new ArrayList<>();
+        ExamPackage.open(new ByteArrayInputStream(blob.toBytes()), key, questions::add);
+        return questions;
+    }
+
+    // The key document is unreadable until release_at, so a failure here usually means "too early"
+    private byte[] fetchKey(FirebaseFirestore db, String examId) {
+        try {
+            DocumentSnapshot keyDocument = await(FirestoreOps.read("loadExamKey",
+                    db.collection(ExamPublisher.KEYS).document(examId).get()));
+            Blob key = keyDocument.exists() ? keyDocument.getBlob("key") : null;
+            return key != null ? key.toBytes() : null;
+        } catch (Exception e) {
+            Log.w(TAG, "Key for exam " + examId + " not available: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private List<Question> openPackage(InputStream blob, byte[] key) {
+        List<Question> questions = new ArrayList<>();
+        try {
+            ExamPackage.open(blob, key, questions::add);
+            return questions;
+        } catch (Exception e) {
+            // Wrong key (package republished) or corrupt blob; fall through to the next source
+            Log.w(TAG, "Failed to open exam package: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static <T> T await(Task<T> task) throws Exception {
+        return Tasks.await(task, READ_TIMEOUT_S, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.exam_portal_app;
+
+import android.app.Application;
+
+public class ExamPortalApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // Startup markers first so everything after is measured
+        StartupTracer.getInstance().onApplicationCreate(this);
+        Telemetry.init(this);
+        ScreenCostTracker.getInstance().onApplicationCreate(this);
+
+        // Cache settings must be known before Firestore is built
+        FirestoreDataSettings.init(this);
+
+        // Build Auth/Firestore off the main thread while the launcher activity inflates
+        FirebaseProvider.warmUp();
+
+        // Channels are created once per process rather than on every message
+        NotificationPipeline.createChannels(this);
+        NotificationDispatcher.init(this);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Downloads one exam's sealed package (or, for exams without one, its questions) into
+// LocalExamStore. Scheduled by ExamPrefetcher.
+public class ExamPrefetchWorker extends Worker {
+
+    private static final String TAG = "ExamPrefetchWorker";
+    static final String KEY_EXAM_ID = "exam_id";
+    static final String KEY_VERSION = "version";
+    private static final long QUERY_TIMEOUT_S = 60;
+
+    public ExamPrefetchWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Data input = getInputData();
+        String examId = input.getString(KEY_EXAM_ID);
+        long version = input.getLong(KEY_VERSION, 0);
+        if (examId == null) {
+            return Result.failure();
+        }
+
+        try {
+            // A sealed package is a single read and stays encrypted until the key is released
+            DocumentSnapshot packageDocument = Tasks.await(FirestoreOps.read("prefetchPackage",
+                    FirebaseProvider.getFirestore().collection(ExamPublisher.PACKAGES).document(examId).get()),
+                    QUERY_TIMEOUT_S, TimeUnit.SECONDS);
+            Blob blob = packageDocument.exists() ? packageDocument.getBlob("blob") : null;
+            Long packageVersion = packageDocument.getLong("version");
+            if (blob != null) {
+                LocalExamStore.savePackage(getApplicationContext(), examId,
+                        packageVersion != null ? packageVersion : version, blob.toBytes());
+                Log.d(TAG, "Prefetched sealed package for exam " + examId);
+                return Result.success();
+            }
+
+            QuerySnapshot snapshots = Tasks.await(FirestoreOps.read(ExamQueries.QUESTIONS_FOR_EXAM.getName(),
+                    ExamQueries.questionsForExam(FirebaseProvider.getFirestore(), examId).get()),
+                    QUERY_TIMEOUT_S, TimeUnit.SECONDS);
+
+            List<Question> questions = new ArrayList<>();
+            for (QueryDocumentSnapshot document : snapshots) {
+                Question question = document.toObject(Question.class);
+                question.setId(document.getId());
+                questions.add(question);
+            }
+
+            boolean encrypt = getApplicationContext().getResources().getBoolean(R.bool.prefetch_encrypt_at_rest);
+            LocalExamStore.save(getApplicationContext(), examId, version, questions, encrypt);
+            Log.d(TAG, "Prefetched " + questions.size() + " questions for exam " + examId);
+            return Result.success();
+        } catch (Exception e) {
+            Log.w(TAG, "Prefetch of exam " + examId + " failed: " + e.getMessage());
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.content.res.Resources;
+
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Schedules ExamPrefetchWorker for upcoming exams so questions are on the device before start
+// time. Each device picks a random offset inside the jitter window, spreading the downloads
+// over [start - window - jitter, start - window] instead of every student reading at start.
+public final class ExamPrefetcher {
+
+    private static final String WORK_PREFIX = "prefetch_exam_";
+    private static final Random RANDOM = new Random();
+
+    private ExamPrefetcher() {
+    }
+
+    public static void schedule(Context context, List<Exam> exams) {
+        Resources resources = context.getResources();
+        long windowMs = TimeUnit.MINUTES.toMillis(resources.getInteger(R.integer.prefetch_window_minutes));
+        long jitterMs = TimeUnit.MINUTES.toMillis(resources.getInteger(R.integer.prefetch_jitter_minutes));
+
+        long now = ServerClock.now();
+        for (Exam exam : exams) {
+            // Pooled papers are per student and read in one go by ExamPaperLoader
+            if (exam.getStartTime() <= now || exam.isPooled() || LocalExamStore.contains(context, exam.getId())) {
+                continue;
+            }
+            long fetchAt = exam.getStartTime() - windowMs - (long) (RANDOM.nextDouble() * jitterMs);
+            enqueue(context, exam, Math.max(0, fetchAt - now));
+        }
+    }
+
+    private static void enqueue(Context context, Exam exam, long delayMs) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        Data input = new Data.Builder()
+                .putString(ExamPrefetchWorker.KEY_EXAM_ID, exam.getId())
+                .putLong(ExamPrefetchWorker.KEY_VERSION, exam.getPaperVersion())
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ExamPrefetchWorker.class)
+                .setInitialDelay(delayMs, TimeUnit.MILLISECONDS)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .setInputData(input)
+                .build();
+
+        // KEEP: a dashboard refresh must not push an already scheduled fetch to a new random slot
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK_PREFIX + exam.getId(), ExistingWorkPolicy.KEEP, request);
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.exam_portal_app;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Teacher side of exam distribution. Generates, from the exam's questions:
+//   exam_packages/{examId}  sealed ExamPackage blob, version, question_count - readable any time,
+//                           useless without the key; devices prefetch it, or read it at start
+//   exam_keys/{examId}      key, release_at (= start_time)
+// and records the paper's question_count on the exam, which the dashboards show.
+// Pooled exams (with a PaperBlueprint) instead get one paper per student, drawn from the bank and
+// sealed under the exam's key:
+//   exam_papers/{examId}_{uid}  sealed ExamPackage blob, question_ids, student_id, version
+// The packages themselves are sealed, but QuestionStore also keeps a plaintext projection of every
+// question in questions/{id} (which ExamPaperLoader falls back to for exams never published), so
+// before start the content is guarded by two rules in firestore.rules: students may read exam_keys
+// only once request.time >= release_at, and questions only once the exam's start_time has passed.
+// Published when an exam is created and again whenever one of its questions is attached, edited,
+// moved to another exam or deleted (ManageQuestionsActivity).
+public final class ExamPublisher {
+
+    private static final String TAG = "ExamPublisher";
+    public static final String PACKAGES = "exam_packages";
+    public static final String KEYS = "exam_keys";
+    public static final String PAPERS = "exam_papers";
+
+    // Per-student bundles are a few KB each; keep batches well under the 10 MB request limit
+    private static final int PAPER_BATCH = 100;
+    // paper_version, question_count and version on the exam document
+    private static final long VERSION_UPDATE_BYTES = 3 * (16 + 8);
+    private static final ExecutorService PAPER_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private ExamPublisher() {
+    }
+
+    public static void publish(String examId) {
+        if (examId == null || examId.isEmpty()) return;
+
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        FirestoreOps.read("loadExamForPublish", db.collection("exams").document(examId).get())
+                .addOnSuccessListener(examDocument -> {
+                    if (!examDocument.exists()) return;
+                    PaperBlueprint blueprint = PaperBlueprint.fromSnapshot(examDocument);
+                    if (blueprint != null) {
+                        publishPooled(db, examDocument, blueprint);
+                        return;
+                    }
+                    FirestoreOps.read(ExamQueries.QUESTIONS_FOR_EXAM.getName(),
+                                    ExamQueries.questionsForExam(db, examId).get())
+                            .addOnSuccessListener(snapshots -> {
+                                List<Question> questions = new ArrayList<>();
+                                for (QueryDocumentSnapshot document : snapshots) {
+                                    Question question = document.toObject(Question.class);
+                                    question.setId(document.getId());
+                                    questions.add(question);
+                                }
+                                writePackage(db, examDocument, questions);
+                            })
+                            .addOnFailureListener(e -> Log.e(TAG, "Failed to load questions: " + e.getMessage()));
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to load exam " + examId + ": " + e.getMessage()));
+    }
+
+    public static String paperId(String examId, String uid) {
+        return examId + "_" + uid;
+    }
+
+    // Seed of a student's pooled paper; distinct from the PaperShuffle seed for the same exam
+    public static long paperSeed(String examId, String uid) {
+        return PaperShuffle.seedFor(uid, "pool:" + examId);
+    }
+
+    private static void publishPooled(FirebaseFirestore db, DocumentSnapshot examDocument, PaperBlueprint blueprint) {
+        String examId = examDocument.getId();
+        if (ExamFanout.AUDIENCE_ALL.equals(ExamFanout.audienceOf(examDocument))) {
+            Log.e(TAG, "Pooled exam " + examId + " has no sections to generate papers for");
+            return;
+        }
+        QuestionBank.load(db, blueprint.topics(), new QuestionBank.OnBankLoadedListener() {
+            @Override
+            public void onBankLoaded(QuestionBank bank) {
+                String shortfall = PaperGenerator.validate(bank, blueprint);
+                if (shortfall != null) {
+                    Log.e(TAG, "Cannot generate papers for exam " + examId + ": " + shortfall);
+                    return;
+                }
+                ExamFanout.loadAudience(examDocument, uids -> PAPER_EXECUTOR.execute(() ->
+                        writePapers(db, examDocument, blueprint, bank, uids)));
+            }
+
+            @Override
+            public void onBankFailed(Exception e) {
+                Log.e(TAG, "Failed to load question bank for exam " + examId + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // Runs on PAPER_EXECUTOR; generation is O(paper size) per student, never a bank scan
+    private static void writePapers(FirebaseFirestore db, DocumentSnapshot examDocument, PaperBlueprint blueprint,
+                                    QuestionBank bank, List<String> uids) {
+        String examId = examDocument.getId();
+        Long startTime = examDocument.getLong("start_time");
+        Long currentVersion = examDocument.getLong("paper_version");
+        long version = (currentVersion != null ? currentVersion : 0L) + 1;
+        byte[] key = ExamPackage.newKey();
+
+        List<Task<Void>> commits = new ArrayList<>();
+        for (List<String> chunk : NotificationDispatcher.partition(uids, PAPER_BATCH)) {
+            WriteBatch batch = db.batch();
+            int papers = 0;
+            long bytes = 0;
+            for (String uid : chunk) {
+                List<Question> paper = PaperGenerator.generate(bank, blueprint, paperSeed(examId, uid));
+                List<String> questionIds = new ArrayList<>(paper.size());
+                for (Question question : paper) {
+                    questionIds.add(question.getId());
+                }
+                ExamPackage.Sealed sealed;
+                try {
+                    sealed = ExamPackage.seal(paper, version, key);
+                } catch (IOException | GeneralSecurityException e) {
+                    Log.e(TAG, "Failed to seal paper for " + uid + ": " + e.getMessage());
+                    continue;
+                }
+
+                Map<String, Object> paperData = new HashMap<>();
+                paperData.put("blob", Blob.fromBytes(sealed.blob));
+                paperData.put("question_ids", questionIds);
+                paperData.put("student_id", uid);
+                paperData.put("version", version);
+                batch.set(db.collection(PAPERS).document(paperId(examId, uid)), paperData);
+                papers++;
+                bytes += FirestoreOps.sizeOf(paperData);
+            }
+            commits.add(FirestoreOps.write("writePapers", batch.commit(), papers, bytes));
+        }
+
+        // Publish the key and bump the version only once every paper is in place, so no student
+        // sees the new version before their paper exists
+        Tasks.whenAll(commits)
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    WriteBatch batch = db.batch();
+                    Map<String, Object> keyData = keyData(key, startTime);
+                    batch.set(db.collection(KEYS).document(examId), keyData);
+                    batch.update(examDocument.getReference(), "paper_version", version,
+                            ExamFanout.FIELD_QUESTION_COUNT, blueprint.questionCount(),
+                            "version", FieldValue.increment(1));
+                    return FirestoreOps.write("publishPaperKey", batch.commit(), 2,
+                            FirestoreOps.sizeOf(keyData) + VERSION_UPDATE_BYTES);
+                })
+                .addOnSuccessListener(aVoid -> {
+                    Log.d(TAG, "Generated " + uids.size() + " papers for exam " + examId);
+                    ExamFanout.fanOut(examId);
+                    CacheInvalidationHandler.broadcast(CacheInvalidationHandler.TYPE_QUESTIONS_CHANGED, examId, version);
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to write papers for exam " + examId + ": " + e.getMessage()));
+    }
+
+    private static void writePackage(FirebaseFirestore db, DocumentSnapshot examDocument, List<Question> questions) {
+        String examId = examDocument.getId();
+        Long startTime = examDocument.getLong("start_time");
+        // A new package means a new key, so bump the paper version to invalidate prefetched copies
+        Long currentVersion = examDocument.getLong("paper_version");
+        long version = (currentVersion != null ? currentVersion : 0L) + 1;
+
+        ExamPackage.Sealed sealed;
+        try {
+            sealed = ExamPackage.seal(questions, version);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to seal exam " + examId + ": " + e.getMessage());
+            return;
+        }
+
+        Map<String, Object> packageData = new HashMap<>();
+        packageData.put("blob", Blob.fromBytes(sealed.blob));
+        packageData.put("version", version);
+        packageData.put("question_count", questions.size());
+        packageData.put("updated_at", FieldValue.serverTimestamp());
+
+        // Package and key must change together or students would get an undecryptable pair
+        WriteBatch batch = db.batch();
+        Map<String, Object> keyData = keyData(sealed.key, startTime);
+        batch.set(db.collection(PACKAGES).document(examId), packageData);
+        batch.set(db.collection(KEYS).document(examId), keyData);
+        batch.update(examDocument.getReference(), "paper_version", version,
+                ExamFanout.FIELD_QUESTION_COUNT, questions.size(),
+                "version", FieldValue.increment(1));
+        FirestoreOps.write("publishPackage", batch.commit(), 3,
+                        FirestoreOps.sizeOf(packageData) + FirestoreOps.sizeOf(keyData) + VERSION_UPDATE_BYTES)
+                .addOnSuccessListener(aVoid -> {
+                    Log.d(TAG, "Published package for exam " + examId
+                            + " (" + questions.size() + " questions, " + sealed.blob.length + " bytes sealed)");
+                    // Students' my_exams copies carry paper_version; refresh them
+                    ExamFanout.fanOut(examId);
+                    CacheInvalidationHandler.broadcast(CacheInvalidationHandler.TYPE_QUESTIONS_CHANGED, examId, version);
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to publish exam " + examId + ": " + e.getMessage()));
+    }
+
+    private static Map<String, Object> keyData(byte[] key, Long startTime) {
+        Map<String, Object> keyData = new HashMap<>();
+        keyData.put("key", Blob.fromBytes(key));
+        keyData.put("release_at", startTime != null ? startTime : 0L);
+        return keyData;
+    }
+}
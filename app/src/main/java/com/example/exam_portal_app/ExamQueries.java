@@ -0,0 +1,157 @@
+package com.example.exam_portal_app;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Every collection query the app issues, in one place. Screens call the builders below instead of
+// chaining whereX/orderBy themselves, so field names (start_time, not startTime) and clause order
+// stay consistent and every shape is covered by firestore.indexes.json (see IndexPlan).
+public final class ExamQueries {
+
+    private static final List<String> VISIBLE_STATUSES = Arrays.asList(
+            ExamLifecycle.SCHEDULED.getValue(), ExamLifecycle.OPEN.getValue());
+
+    // Users/{uid}/my_exams, the per-student fan-out written by ExamFanout. Exams drop out once
+    // end_time passes, so the result stays small however many exams the institution runs.
+    public static final QueryShape MY_EXAMS = new QueryShape("loadAvailableExams", ExamFanout.MY_EXAMS)
+            .whereGreaterThan("end_time")
+            .orderBy("end_time", false);
+
+    // Exams for every student (audience "all") are not fanned out; the dashboard reads them here
+    public static final QueryShape SHARED_EXAMS = new QueryShape("loadSharedExams", "exams")
+            .whereEqualTo(ExamFanout.FIELD_AUDIENCE)
+            .whereGreaterThan("end_time")
+            .orderBy("end_time", false);
+
+    public static final QueryShape UNENDED_EXAMS = new QueryShape("loadUnendedExams", "exams")
+            .whereGreaterThan("end_time");
+
+    public static final QueryShape UNCLOSED_EXAMS_FOR_SECTION = new QueryShape("backfillSectionExams", "exams")
+            .whereArrayContains(ExamFanout.FIELD_SECTION_IDS)
+            .whereIn(ExamLifecycle.FIELD_STATUS);
+
+    public static final QueryShape ALL_EXAMS_BY_START = new QueryShape("loadExams", "exams")
+            .orderBy("start_time", true);
+
+    public static final QueryShape UNCLOSED_EXAMS = new QueryShape("trackUnclosedExams", "exams")
+            .whereIn(ExamLifecycle.FIELD_STATUS);
+
+    public static final QueryShape UNCLOSED_EXAMS_BY_CREATOR = new QueryShape("trackTeacherExams", "exams")
+            .whereEqualTo("created_by")
+            .whereIn(ExamLifecycle.FIELD_STATUS);
+
+    public static final QueryShape CLOSED_EXAMS_BY_CREATOR = new QueryShape("loadUngradedExams", "exams")
+            .whereEqualTo("created_by")
+            .whereEqualTo(ExamLifecycle.FIELD_STATUS);
+
+    public static final QueryShape ATTEMPTS_FOR_EXAM = new QueryShape("loadExamAttempts", AttemptLimiter.ATTEMPTS)
+            .whereEqualTo("exam_id");
+
+    // question_answers by document id (FieldPath.documentId()), for grading pooled papers
+    public static final QueryShape ANSWER_KEYS = new QueryShape("loadAnswerKeys", QuestionStore.ANSWERS)
+            .whereIn("__name__");
+
+    public static final QueryShape QUESTIONS_FOR_EXAM = new QueryShape("loadExamQuestions", "questions")
+            .whereEqualTo("examId");
+
+    public static final QueryShape QUESTIONS_FOR_TOPICS = new QueryShape("loadQuestionBank", "questions")
+            .whereIn("topic");
+
+    public static final QueryShape ALL_QUESTIONS = new QueryShape("loadQuestions", "questions");
+
+    public static final QueryShape ENROLLMENTS_FOR_SECTIONS = new QueryShape("loadSectionStudents",
+            EnrollmentRegistry.COLLECTION)
+            .whereIn("section_id");
+
+    public static final QueryShape TOKENS_FOR_USERS = new QueryShape("loadTokens", DeviceTokenRegistry.COLLECTION)
+            .whereIn("uid");
+
+    public static final QueryShape TOKENS_FOR_DEVICE = new QueryShape("loadDeviceTokens", DeviceTokenRegistry.COLLECTION)
+            .whereEqualTo("device_id");
+
+    public static final QueryShape STALE_TOKENS = new QueryShape("pruneStaleTokens", DeviceTokenRegistry.COLLECTION)
+            .whereLessThan("last_seen")
+            .limit(500);
+
+    private ExamQueries() {
+    }
+
+    public static List<QueryShape> all() {
+        return Arrays.asList(MY_EXAMS, SHARED_EXAMS, UNENDED_EXAMS, UNCLOSED_EXAMS_FOR_SECTION, ALL_EXAMS_BY_START,
+                UNCLOSED_EXAMS, UNCLOSED_EXAMS_BY_CREATOR, CLOSED_EXAMS_BY_CREATOR, ATTEMPTS_FOR_EXAM, ANSWER_KEYS,
+                QUESTIONS_FOR_EXAM, QUESTIONS_FOR_TOPICS, ALL_QUESTIONS, ENROLLMENTS_FOR_SECTIONS, TOKENS_FOR_USERS,
+                TOKENS_FOR_DEVICE, STALE_TOKENS);
+    }
+
+    public static Query myExams(FirebaseFirestore db, String uid, long now) {
+        return MY_EXAMS.build(db.collection("Users").document(uid).collection(ExamFanout.MY_EXAMS), now);
+    }
+
+    public static Query sharedExams(FirebaseFirestore db, long now) {
+        return SHARED_EXAMS.build(db, ExamFanout.AUDIENCE_ALL, now);
+    }
+
+    public static Query unendedExams(FirebaseFirestore db, long now) {
+        return UNENDED_EXAMS.build(db, now);
+    }
+
+    public static Query unclosedExamsForSection(FirebaseFirestore db, String sectionId) {
+        return UNCLOSED_EXAMS_FOR_SECTION.build(db, sectionId, VISIBLE_STATUSES);
+    }
+
+    public static Query allExamsByStart(FirebaseFirestore db) {
+        return ALL_EXAMS_BY_START.build(db);
+    }
+
+    public static Query unclosedExams(FirebaseFirestore db) {
+        return UNCLOSED_EXAMS.build(db, VISIBLE_STATUSES);
+    }
+
+    public static Query unclosedExamsCreatedBy(FirebaseFirestore db, String creator) {
+        return UNCLOSED_EXAMS_BY_CREATOR.build(db, creator, VISIBLE_STATUSES);
+    }
+
+    public static Query closedExamsCreatedBy(FirebaseFirestore db, String creator) {
+        return CLOSED_EXAMS_BY_CREATOR.build(db, creator, ExamLifecycle.CLOSED.getValue());
+    }
+
+    public static Query attemptsForExam(FirebaseFirestore db, String examId) {
+        return ATTEMPTS_FOR_EXAM.build(db, examId);
+    }
+
+    // At most 30 ids per query
+    public static Query answerKeys(FirebaseFirestore db, List<String> questionIds) {
+        return ANSWER_KEYS.build(db, questionIds);
+    }
+
+    public static Query questionsForExam(FirebaseFirestore db, String examId) {
+        return QUESTIONS_FOR_EXAM.build(db, examId);
+    }
+
+    public static Query questionsForTopics(FirebaseFirestore db, List<String> topics) {
+        return QUESTIONS_FOR_TOPICS.build(db, topics);
+    }
+
+    public static Query allQuestions(FirebaseFirestore db) {
+        return ALL_QUESTIONS.build(db);
+    }
+
+    public static Query enrollmentsForSections(FirebaseFirestore db, List<String> sectionIds) {
+        return ENROLLMENTS_FOR_SECTIONS.build(db, sectionIds);
+    }
+
+    public static Query tokensForUsers(FirebaseFirestore db, List<String> uids) {
+        return TOKENS_FOR_USERS.build(db, uids);
+    }
+
+    public static Query tokensForDevice(FirebaseFirestore db, String deviceId) {
+        return TOKENS_FOR_DEVICE.build(db, deviceId);
+    }
+
+    public static Query staleTokens(FirebaseFirestore db, Object cutoff) {
+        return STALE_TOKENS.build(db, cutoff);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.exam_portal_app;
+
+// Availability of an exam relative to a point in time, as shown on the exam list
+public enum ExamStatus {
+    UPCOMING("Upcoming", false),
+    ACTIVE("Start", true),
+    EXPIRED("Expired", false);
+
+    private final String buttonLabel;
+    private final boolean startable;
+
+    ExamStatus(String buttonLabel, boolean startable) {
+        this.buttonLabel = buttonLabel;
+        this.startable = startable;
+    }
+
+    public String getButtonLabel() {
+        return buttonLabel;
+    }
+
+    public boolean isStartable() {
+        return startable;
+    }
+
+    public static ExamStatus of(Exam exam, long now) {
+        if (now < exam.getStartTime()) {
+            return UPCOMING;
+        } else if (now > exam.getEndTime()) {
+            return EXPIRED;
+        }
+        return ACTIVE;
+    }
+
+    // Next instant after which the status of this exam changes, or Long.MAX_VALUE if it never will
+    public static long nextTransition(Exam exam, long now) {
+        if (now < exam.getStartTime()) {
+            return exam.getStartTime();
+        } else if (now <= exam.getEndTime()) {
+            return exam.getEndTime() + 1;
+        }
+        return Long.MAX_VALUE;
+    }
+}
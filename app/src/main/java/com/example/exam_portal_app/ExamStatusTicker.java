@@ -0,0 +1,74 @@
+package com.example.exam_portal_app;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.List;
+
+// Wakes up only at the next start/end boundary of any listed exam (not every second)
+// and reports which rows actually flipped status.
+public class ExamStatusTicker {
+
+    public interface OnStatusChangedListener {
+        void onStatusChanged(int position);
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final OnStatusChangedListener listener;
+    private List<ExamListItem> items;
+    private boolean running = false;
+
+    private final Runnable tick = this::onTick;
+
+    public ExamStatusTicker(OnStatusChangedListener listener) {
+        this.listener = listener;
+    }
+
+    public void setItems(List<ExamListItem> items) {
+        this.items = items;
+        if (running) {
+            scheduleNext(ServerClock.now());
+        }
+    }
+
+    public void start() {
+        running = true;
+        // Catch up on anything that flipped while we were stopped
+        onTick();
+    }
+
+    // Re-evaluate now, e.g. after ServerClock has synced and "now" has shifted
+    public void refresh() {
+        onTick();
+    }
+
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(tick);
+    }
+
+    private void onTick() {
+        if (!running || items == null) return;
+
+        long now = ServerClock.now();
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).refreshStatus(now)) {
+                listener.onStatusChanged(i);
+            }
+        }
+        scheduleNext(now);
+    }
+
+    private void scheduleNext(long now) {
+        handler.removeCallbacks(tick);
+        if (items == null) return;
+
+        long next = Long.MAX_VALUE;
+        for (ExamListItem item : items) {
+            next = Math.min(next, item.nextTransition(now));
+        }
+        if (next != Long.MAX_VALUE) {
+            handler.postDelayed(tick, Math.max(0, next - now));
+        }
+    }
+}
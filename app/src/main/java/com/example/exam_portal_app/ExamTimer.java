@@ -0,0 +1,86 @@
+package com.example.exam_portal_app;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+// Countdown for an exam attempt measured against ServerClock. The deadline is the earlier of
+// start + duration and the exam's end time, so a late start cannot run past the window.
+public class ExamTimer implements TickSource.OnTickListener {
+
+    public interface Listener {
+        void onTimeRemaining(long remainingMs);
+
+        void onExpired();
+    }
+
+    private final Listener listener;
+    private LongSupplier clock = ServerClock::now;
+    private long deadline = 0;
+    private boolean running = false;
+    private boolean expired = false;
+
+    public ExamTimer(Listener listener) {
+        this.listener = listener;
+    }
+
+    public static long computeDeadline(Exam exam, long attemptStart) {
+        long byDuration = attemptStart + exam.getDuration() * 60_000L;
+        return exam.getEndTime() > 0 ? Math.min(byDuration, exam.getEndTime()) : byDuration;
+    }
+
+    // Offline attempts count down on their StartToken's clock
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public void start(long deadline) {
+        this.deadline = deadline;
+        resume();
+    }
+
+    public void resume() {
+        if (deadline == 0 || expired) return;
+        running = true;
+        TickSource.getInstance().subscribe(this);
+        onTick();
+    }
+
+    public void pause() {
+        running = false;
+        TickSource.getInstance().unsubscribe(this);
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public boolean isExpired() {
+        return expired;
+    }
+
+    @Override
+    public void onTick() {
+        if (!running) return;
+
+        long remaining = deadline - clock.getAsLong();
+        if (remaining <= 0) {
+            expired = true;
+            pause();
+            listener.onTimeRemaining(0);
+            listener.onExpired();
+        } else {
+            listener.onTimeRemaining(remaining);
+        }
+    }
+
+    public static String format(long remainingMs) {
+        long totalSeconds = (remainingMs + 999) / 1000;
+        long hours = totalSeconds / 3600;
+        long minutes = (totalSeconds % 3600) / 60;
+        long seconds = totalSeconds % 60;
+        if (hours > 0) {
+            return String.format(Locale.US, "%d:%02d:%02d", hours, minutes, seconds);
+        }
+        return String.format(Locale.US, "%02d:%02d", minutes, seconds);
+    }
+}
@@ -15,6 +15,7 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -40,7 +41,7 @@ public class ExamsFragment extends Fragment implements ExamAdapter.OnExamStartLi
         examsRecyclerView.setAdapter(examAdapter);
 
         // Initialize Firestore
-        db = FirebaseFirestore.getInstance();
+        db = FirebaseProvider.getFirestore();
 
         // Setup pull to refresh if swipeRefreshLayout exists
         if (swipeRefreshLayout != null) {
@@ -65,29 +66,42 @@ public class ExamsFragment extends Fragment implements ExamAdapter.OnExamStartLi
     private void loadExams() {
         if (getContext() == null) return;
 
-        List<Exam> exams = new ArrayList<>();
-        db.collection("exams")
-                .orderBy("startTime", com.google.firebase.firestore.Query.Direction.DESCENDING)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        Exam exam = document.toObject(Exam.class);
-                        exam.setId(document.getId()); // Ensure ID is set
-                        exams.add(exam);
+        // Exams are stored with snake_case fields; ordering by "startTime" silently matched nothing
+        FirestoreDataSettings.get(ExamQueries.ALL_EXAMS_BY_START.getName(), ExamQueries.allExamsByStart(db),
+                new FirestoreDataSettings.OnQueryResultListener() {
+                    @Override
+                    public void onResult(QuerySnapshot queryDocumentSnapshots, boolean fromCache) {
+                        // Called for the cached and then the server result, so a fresh list each time
+                        List<Exam> exams = new ArrayList<>();
+                        for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                            Exam exam = Exam.fromSnapshot(document);
+                            if (exam != null) {
+                                exams.add(exam);
+                            }
+                        }
+                        examAdapter.setExamList(exams);
+                        if (!fromCache && swipeRefreshLayout != null) {
+                            swipeRefreshLayout.setRefreshing(false);
+                        }
                     }
-                    examAdapter.setExamList(exams);
-                    if (swipeRefreshLayout != null) {
-                        swipeRefreshLayout.setRefreshing(false);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    if (getContext() != null) {
-                        Toast.makeText(getContext(),
-                                "Error loading exams: " + e.getMessage(),
-                                Toast.LENGTH_SHORT).show();
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        if (getContext() != null) {
+                            Toast.makeText(getContext(),
+                                    "Error loading exams: " + e.getMessage(),
+                                    Toast.LENGTH_SHORT).show();
+                        }
+                        if (swipeRefreshLayout != null) {
+                            swipeRefreshLayout.setRefreshing(false);
+                        }
                     }
-                    if (swipeRefreshLayout != null) {
-                        swipeRefreshLayout.setRefreshing(false);
+
+                    @Override
+                    public void onServerFailed(Exception e) {
+                        if (swipeRefreshLayout != null) {
+                            swipeRefreshLayout.setRefreshing(false);
+                        }
                     }
                 });
     }
@@ -0,0 +1,52 @@
+package com.example.exam_portal_app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Sends FCM messages: one per topic, or one request per batch of up to
+// NotificationDispatcher.MAX_TOKENS_PER_BATCH tokens. Kept behind an interface so the dispatcher can
+// run against the relay (HttpFcmTransport) or a local mock endpoint.
+public interface FcmTransport {
+
+    enum Outcome {
+        SENT,
+        // Throttled or server error; safe to retry after a delay
+        RETRY,
+        // FCM reported the token as no longer registered (404 / UNREGISTERED); the only outcome that
+        // removes a token from device_tokens
+        UNREGISTERED,
+        // Permanent failure such as a rejected message (400 / INVALID_ARGUMENT); logged, never retried
+        // and never pruned, since a bad payload would otherwise wipe every recipient's token
+        FAILED
+    }
+
+    class Result {
+        public final Outcome outcome;
+        public final long retryAfterMs;
+
+        public Result(Outcome outcome, long retryAfterMs) {
+            this.outcome = outcome;
+            this.retryAfterMs = retryAfterMs;
+        }
+    }
+
+    // outcome applies to the whole request; when it is SENT, tokenOutcomes holds one entry per
+    // token in request order
+    class BatchResult {
+        public final Result request;
+        public final List<Outcome> tokenOutcomes;
+
+        public BatchResult(Result request, List<Outcome> tokenOutcomes) {
+            this.request = request;
+            this.tokenOutcomes = tokenOutcomes != null ? tokenOutcomes : new ArrayList<>();
+        }
+    }
+
+    // collapseKey may be null; messages sharing one replace each other while queued at FCM and in
+    // the notification tray
+    Result sendToTopic(String topic, String title, String body, Map<String, String> data, String collapseKey);
+
+    BatchResult sendToTokens(List<String> tokens, String title, String body, Map<String, String> data,
+                             String collapseKey);
+}
@@ -0,0 +1,63 @@
+package com.example.exam_portal_app;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Appends batches as JSON lines to <dir>/current.jsonl. Once the file passes maxBytes it is
+// sealed into batch-<time>.jsonl, which TelemetryUploadWorker compresses and uploads.
+public class FileTelemetrySink implements TelemetrySink {
+
+    private static final String CURRENT = "current.jsonl";
+    private static final String SEALED_PREFIX = "batch-";
+
+    private final File dir;
+    private final long maxBytes;
+
+    public FileTelemetrySink(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public synchronized void write(List<TelemetryEvent> batch) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        File current = new File(dir, CURRENT);
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(current, true), StandardCharsets.UTF_8))) {
+            for (TelemetryEvent event : batch) {
+                writer.write(event.toJson());
+                writer.write('\n');
+            }
+        }
+        if (current.length() >= maxBytes) {
+            seal();
+        }
+    }
+
+    // Closes the current file so it can be uploaded; no-op when nothing was written
+    public synchronized void seal() throws IOException {
+        File current = new File(dir, CURRENT);
+        if (!current.exists() || current.length() == 0) return;
+        File sealed = new File(dir, SEALED_PREFIX + System.currentTimeMillis() + ".jsonl");
+        if (!current.renameTo(sealed)) {
+            throw new IOException("Cannot seal " + current);
+        }
+    }
+
+    // Sealed batch files, oldest first
+    public synchronized List<File> sealedBatches() {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(SEALED_PREFIX));
+        if (files == null) return new ArrayList<>();
+        Arrays.sort(files, (a, b) -> a.getName().compareTo(b.getName()));
+        return new ArrayList<>(Arrays.asList(files));
+    }
+}
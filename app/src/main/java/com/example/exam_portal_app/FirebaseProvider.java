@@ -0,0 +1,84 @@
+package com.example.exam_portal_app;
+
+import android.os.Trace;
+import android.util.Log;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Single access point for Firebase instances. Instances are created lazily on first use,
+// and warmUp() builds them on a background thread during Application start so the first
+// activity does not pay for Auth/Firestore initialization on the main thread.
+public final class FirebaseProvider {
+
+    private static final String TAG = "FirebaseProvider";
+
+    private static volatile FirebaseAuth auth;
+    private static volatile FirebaseFirestore firestore;
+    private static final AtomicBoolean warmUpStarted = new AtomicBoolean();
+
+    private FirebaseProvider() {
+    }
+
+    public static FirebaseAuth getAuth() {
+        FirebaseAuth result = auth;
+        if (result == null) {
+            synchronized (FirebaseProvider.class) {
+                result = auth;
+                if (result == null) {
+                    Trace.beginSection("FirebaseProvider.getAuth");
+                    try {
+                        result = FirebaseAuth.getInstance();
+                        auth = result;
+                    } finally {
+                        Trace.endSection();
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public static FirebaseFirestore getFirestore() {
+        FirebaseFirestore result = firestore;
+        if (result == null) {
+            synchronized (FirebaseProvider.class) {
+                result = firestore;
+                if (result == null) {
+                    Trace.beginSection("FirebaseProvider.getFirestore");
+                    try {
+                        result = FirebaseFirestore.getInstance();
+                        // Settings can only be applied before the instance is first used
+                        result.setFirestoreSettings(FirestoreDataSettings.build());
+                        firestore = result;
+                    } finally {
+                        Trace.endSection();
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Kick off initialization off the main thread; safe to call more than once
+    public static void warmUp() {
+        if (!warmUpStarted.compareAndSet(false, true)) return;
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                getAuth();
+                getFirestore();
+                Log.d(TAG, "Firebase warm-up took " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (Exception e) {
+                Log.e(TAG, "Firebase warm-up failed: " + e.getMessage());
+            }
+        });
+        executor.shutdown();
+    }
+}
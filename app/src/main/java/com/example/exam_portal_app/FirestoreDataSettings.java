@@ -0,0 +1,110 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.util.Log;
+
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.MemoryCacheSettings;
+import com.google.firebase.firestore.MemoryLruGcSettings;
+import com.google.firebase.firestore.PersistentCacheSettings;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+// App-level Firestore data settings, applied by FirebaseProvider before the instance is first used:
+//   - local cache on disk (offline persistence) or in memory, from config.xml
+//   - cache size with LRU eviction of documents not used by active queries; -1 turns eviction off
+// and the per-query source policy: queries listed in cache_first_queries show the cached result
+// at once and then the server result, everything else uses Firestore's default (server, cache
+// when offline). Cache hits and misses per query are in FirestoreMetrics.
+public final class FirestoreDataSettings {
+
+    private static final String TAG = "FirestoreDataSettings";
+    private static final long MB = 1024 * 1024;
+
+    private static volatile boolean persistent = true;
+    private static volatile long cacheSizeBytes = 100 * MB;
+    private static volatile Set<String> cacheFirstQueries = Collections.emptySet();
+
+    public interface OnQueryResultListener {
+        // Called once with the cached result (fromCache) when there is one, then with the server result
+        void onResult(QuerySnapshot snapshot, boolean fromCache);
+
+        // Nothing could be delivered
+        void onFailure(Exception e);
+
+        // The server read failed after the cached result was delivered; that result stands
+        default void onServerFailed(Exception e) {
+        }
+    }
+
+    private FirestoreDataSettings() {
+    }
+
+    // Called from ExamPortalApplication before FirebaseProvider.warmUp()
+    static void init(Context context) {
+        Resources resources = context.getResources();
+        persistent = resources.getBoolean(R.bool.firestore_offline_persistence);
+        int sizeMb = resources.getInteger(R.integer.firestore_cache_size_mb);
+        // Firestore rejects cache sizes below 1 MB
+        cacheSizeBytes = sizeMb < 0 ? FirebaseFirestoreSettings.CACHE_SIZE_UNLIMITED : Math.max(1, sizeMb) * MB;
+        cacheFirstQueries = new HashSet<>(Arrays.asList(resources.getStringArray(R.array.cache_first_queries)));
+    }
+
+    static FirebaseFirestoreSettings build() {
+        FirebaseFirestoreSettings.Builder builder = new FirebaseFirestoreSettings.Builder();
+        if (persistent) {
+            builder.setLocalCacheSettings(PersistentCacheSettings.newBuilder()
+                    .setSizeBytes(cacheSizeBytes)
+                    .build());
+        } else {
+            builder.setLocalCacheSettings(MemoryCacheSettings.newBuilder()
+                    .setGcSettings(MemoryLruGcSettings.newBuilder().setSizeBytes(cacheSizeBytes).build())
+                    .build());
+        }
+        Log.d(TAG, (persistent ? "Persistent" : "Memory") + " cache, "
+                + (cacheSizeBytes == FirebaseFirestoreSettings.CACHE_SIZE_UNLIMITED
+                ? "no eviction" : "LRU eviction above " + cacheSizeBytes / MB + " MB"));
+        return builder.build();
+    }
+
+    public static boolean isCacheFirst(String op) {
+        return cacheFirstQueries.contains(op);
+    }
+
+    // Runs a named query with the source policy configured for it
+    public static void get(String op, Query query, OnQueryResultListener listener) {
+        if (!isCacheFirst(op)) {
+            FirestoreOps.read(op, query.get())
+                    .addOnSuccessListener(snapshot -> listener.onResult(snapshot, snapshot.getMetadata().isFromCache()))
+                    .addOnFailureListener(listener::onFailure);
+            return;
+        }
+
+        boolean[] deliveredFromCache = new boolean[1];
+        FirestoreOps.readCached(op, query.get(Source.CACHE))
+                .addOnSuccessListener(cached -> {
+                    // An empty cache result is a miss, not "no exams"; wait for the server
+                    if (!cached.isEmpty()) {
+                        deliveredFromCache[0] = true;
+                        listener.onResult(cached, true);
+                    }
+                })
+                .continueWithTask(task -> FirestoreOps.read(op, query.get(Source.SERVER)))
+                .addOnSuccessListener(snapshot -> listener.onResult(snapshot, false))
+                .addOnFailureListener(e -> {
+                    if (deliveredFromCache[0]) {
+                        Log.w(TAG, op + " served from cache only: " + e.getMessage());
+                        listener.onServerFailed(e);
+                    } else {
+                        listener.onFailure(e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.exam_portal_app;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-operation Firestore statistics filled in by FirestoreOps: latency histogram, call and
+// failure counts, documents read/written, estimated payload bytes and local cache hits/misses.
+// Shown by FirestoreMetricsActivity and exportable as JSON.
+public final class FirestoreMetrics {
+
+    private static final ConcurrentHashMap<String, OpStats> OPS = new ConcurrentHashMap<>();
+
+    private FirestoreMetrics() {
+    }
+
+    public static final class OpStats {
+        public final String name;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong reads = new AtomicLong();
+        final AtomicLong writes = new AtomicLong();
+        final AtomicLong bytesRead = new AtomicLong();
+        final AtomicLong bytesWritten = new AtomicLong();
+        final AtomicLong cacheHits = new AtomicLong();
+        final AtomicLong cacheMisses = new AtomicLong();
+
+        OpStats(String name) {
+            this.name = name;
+        }
+
+        public long calls() {
+            return calls.get();
+        }
+
+        public long failures() {
+            return failures.get();
+        }
+
+        public long reads() {
+            return reads.get();
+        }
+
+        public long writes() {
+            return writes.get();
+        }
+
+        public long bytesRead() {
+            return bytesRead.get();
+        }
+
+        public long bytesWritten() {
+            return bytesWritten.get();
+        }
+
+        public long cacheHits() {
+            return cacheHits.get();
+        }
+
+        public long cacheMisses() {
+            return cacheMisses.get();
+        }
+
+        // Latency in ms at the given percentile
+        public double latencyMs(double percentile) {
+            return latency.valueAtPercentile(percentile) / 1000d;
+        }
+
+        public double maxLatencyMs() {
+            return latency.max() / 1000d;
+        }
+
+        public double meanLatencyMs() {
+            return latency.mean() / 1000d;
+        }
+
+        String toJson() {
+            return String.format(Locale.US,
+                    "{\"calls\":%d,\"failures\":%d,\"reads\":%d,\"writes\":%d,\"bytes_read\":%d,\"bytes_written\":%d,"
+                            + "\"cache_hits\":%d,\"cache_misses\":%d,"
+                            + "\"latency_ms\":{\"p50\":%.3f,\"p90\":%.3f,\"p99\":%.3f,\"max\":%.3f,\"mean\":%.3f}}",
+                    calls(), failures(), reads(), writes(), bytesRead(), bytesWritten(),
+                    cacheHits(), cacheMisses(), latencyMs(50), latencyMs(90), latencyMs(99), maxLatencyMs(), meanLatencyMs());
+        }
+    }
+
+    static OpStats stats(String op) {
+        OpStats stats = OPS.get(op);
+        if (stats == null) {
+            OpStats created = new OpStats(op);
+            stats = OPS.putIfAbsent(op, created);
+            if (stats == null) stats = created;
+        }
+        return stats;
+    }
+
+    static void record(String op, long latencyMicros, boolean success, long reads, long writes,
+                       long bytesRead, long bytesWritten) {
+        OpStats stats = stats(op);
+        stats.latency.record(latencyMicros);
+        stats.calls.incrementAndGet();
+        if (!success) stats.failures.incrementAndGet();
+        stats.reads.addAndGet(reads);
+        stats.writes.addAndGet(writes);
+        stats.bytesRead.addAndGet(bytesRead);
+        stats.bytesWritten.addAndGet(bytesWritten);
+    }
+
+    // A snapshot listener update: billed reads without a latency sample
+    static void recordDelivery(String op, long reads, long bytesRead) {
+        OpStats stats = stats(op);
+        stats.calls.incrementAndGet();
+        stats.reads.addAndGet(reads);
+        stats.bytesRead.addAndGet(bytesRead);
+    }
+
+    // A read answered by the local cache; found is false when the cache had nothing for it
+    static void recordCache(String op, boolean found) {
+        OpStats stats = stats(op);
+        if (found) {
+            stats.cacheHits.incrementAndGet();
+        } else {
+            stats.cacheMisses.incrementAndGet();
+        }
+    }
+
+    // Sorted by name
+    public static List<OpStats> snapshot() {
+        List<OpStats> stats = new ArrayList<>(OPS.values());
+        Collections.sort(stats, (a, b) -> a.name.compareTo(b.name));
+        return stats;
+    }
+
+    public static void reset() {
+        OPS.clear();
+    }
+
+    public static String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"generated_at\":").append(System.currentTimeMillis()).append(",\"ops\":{");
+        List<OpStats> stats = snapshot();
+        for (int i = 0; i < stats.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append('"').append(stats.get(i).name).append("\":").append(stats.get(i).toJson());
+        }
+        return json.append("}}").toString();
+    }
+}
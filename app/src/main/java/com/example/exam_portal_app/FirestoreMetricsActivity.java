@@ -0,0 +1,91 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ApplicationInfo;
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.util.List;
+import java.util.Locale;
+
+// Debug screen listing FirestoreMetrics per operation and the screens/operations reading the most
+// documents (ScreenCostTracker). Opened by long-pressing a dashboard title
+// in debuggable builds; "Export JSON" hands the raw numbers to any app that accepts text.
+public class FirestoreMetricsActivity extends AppCompatActivity {
+
+    private static final int TOP_OFFENDERS = 10;
+
+    private TextView metricsTextView;
+
+    public static boolean isAvailable(Context context) {
+        return (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    // Wires the long-press entry point; does nothing in release builds
+    public static void attachTo(TextView title) {
+        if (!isAvailable(title.getContext())) return;
+        title.setOnLongClickListener(v -> {
+            v.getContext().startActivity(new Intent(v.getContext(), FirestoreMetricsActivity.class));
+            return true;
+        });
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_firestore_metrics);
+
+        metricsTextView = findViewById(R.id.metricsTextView);
+        Button exportButton = findViewById(R.id.exportMetricsButton);
+        Button resetButton = findViewById(R.id.resetMetricsButton);
+
+        exportButton.setOnClickListener(v -> {
+            Intent intent = new Intent(Intent.ACTION_SEND);
+            intent.setType("application/json");
+            intent.putExtra(Intent.EXTRA_SUBJECT, "Firestore metrics");
+            intent.putExtra(Intent.EXTRA_TEXT, "{\"metrics\":" + FirestoreMetrics.toJson()
+                    + ",\"top_offenders\":" + ScreenCostTracker.getInstance().topOffendersJson(TOP_OFFENDERS) + "}");
+            startActivity(Intent.createChooser(intent, "Export metrics"));
+        });
+        resetButton.setOnClickListener(v -> {
+            FirestoreMetrics.reset();
+            ScreenCostTracker.getInstance().reset();
+            showMetrics();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showMetrics();
+    }
+
+    private void showMetrics() {
+        List<FirestoreMetrics.OpStats> stats = FirestoreMetrics.snapshot();
+        if (stats.isEmpty()) {
+            metricsTextView.setText("No Firestore operations recorded yet");
+            return;
+        }
+        StringBuilder text = new StringBuilder("Top readers (screen / operation)\n");
+        for (CostLedger.Cost cost : ScreenCostTracker.getInstance().topOffenders(TOP_OFFENDERS)) {
+            text.append(String.format(Locale.US, "  %s / %s: %d reads in %d queries (max %d), %d writes%n",
+                    cost.screen, cost.op, cost.reads.get(), cost.queries.get(), cost.maxReadsPerQuery.get(),
+                    cost.writes.get()));
+        }
+        text.append('\n');
+        for (FirestoreMetrics.OpStats op : stats) {
+            text.append(op.name).append('\n')
+                    .append(String.format(Locale.US, "  calls %d (failed %d)  reads %d  writes %d%n",
+                            op.calls(), op.failures(), op.reads(), op.writes()))
+                    .append(String.format(Locale.US, "  bytes in %d  out %d  cache hit %d  miss %d%n",
+                            op.bytesRead(), op.bytesWritten(), op.cacheHits(), op.cacheMisses()))
+                    .append(String.format(Locale.US, "  ms p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n%n",
+                            op.latencyMs(50), op.latencyMs(90), op.latencyMs(99), op.maxLatencyMs()));
+        }
+        metricsTextView.setText(text.toString());
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.exam_portal_app;
+
+import android.os.SystemClock;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// Instruments Firestore Tasks under a named operation (the ExamQueries shape name where there is
+// one). Wrap the task where it is created and keep chaining listeners as before:
+//   FirestoreOps.read("loadAvailableExams", query.get()).addOnSuccessListener(...)
+// Latency, document counts and payload sizes go to FirestoreMetrics, and latency also to Telemetry:
+// as a write for anything that commits documents, as a query otherwise.
+// Counting and sizing run on a background thread, never on the caller's listener thread.
+// Document counts are also charged to the current screen by ScreenCostTracker. Results served
+// from the local cache count as cache hits (misses when empty or not cached) instead of billed reads.
+// Snapshot listeners are wrapped the same way: query.addSnapshotListener(FirestoreOps.listen(op, listener)).
+public final class FirestoreOps {
+
+    private static final Executor METRICS_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "firestore-metrics");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private FirestoreOps() {
+    }
+
+    // Reads: document count and bytes come from the result (QuerySnapshot or DocumentSnapshot)
+    public static <T> Task<T> read(String op, Task<T> task) {
+        return read(op, task, false);
+    }
+
+    // Reads from Source.CACHE. A document that is not cached fails the get; that is counted as a
+    // cache miss rather than a failed operation (the caller still sees the failure)
+    public static <T> Task<T> readCached(String op, Task<T> task) {
+        return read(op, task, true);
+    }
+
+    private static <T> Task<T> read(String op, Task<T> task, boolean cacheOnly) {
+        String screen = ScreenCostTracker.getInstance().currentScreen();
+        long start = SystemClock.elapsedRealtimeNanos();
+        task.addOnCompleteListener(METRICS_EXECUTOR, completed -> {
+            long micros = (SystemClock.elapsedRealtimeNanos() - start) / 1000;
+            long reads = 0;
+            long bytes = 0;
+            boolean fromCache = false;
+            boolean found = false;
+            boolean success = completed.isSuccessful();
+            if (!success && cacheOnly && isNotCached(completed.getException())) {
+                fromCache = true;
+                success = true;
+            } else if (success) {
+                Object result = completed.getResult();
+                if (result instanceof QuerySnapshot) {
+                    QuerySnapshot snapshot = (QuerySnapshot) result;
+                    for (DocumentSnapshot document : snapshot.getDocuments()) {
+                        bytes += sizeOf(document);
+                    }
+                    reads = snapshot.size();
+                    fromCache = snapshot.getMetadata().isFromCache();
+                    found = !snapshot.isEmpty();
+                } else if (result instanceof DocumentSnapshot) {
+                    DocumentSnapshot snapshot = (DocumentSnapshot) result;
+                    reads = 1;
+                    bytes = sizeOf(snapshot);
+                    fromCache = snapshot.getMetadata().isFromCache();
+                    found = snapshot.exists();
+                }
+            }
+            if (fromCache) {
+                // Served by the local cache: not billed, and an empty result counts as a miss
+                FirestoreMetrics.recordCache(op, found);
+                reads = 0;
+            }
+            finish(screen, op, micros, success, reads, 0, bytes, 0);
+        });
+        return task;
+    }
+
+    private static boolean isNotCached(Exception e) {
+        return e instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.UNAVAILABLE;
+    }
+
+    // Snapshot listeners: every delivery from the server is billed for the documents it changed,
+    // which on the first one is the whole result. Only the first delivery has a latency.
+    public static EventListener<QuerySnapshot> listen(String op, EventListener<QuerySnapshot> listener) {
+        String screen = ScreenCostTracker.getInstance().currentScreen();
+        long start = SystemClock.elapsedRealtimeNanos();
+        boolean[] first = {true};
+        return (snapshot, e) -> {
+            boolean initial = first[0];
+            first[0] = false;
+            long micros = (SystemClock.elapsedRealtimeNanos() - start) / 1000;
+            if (e != null || snapshot == null) {
+                METRICS_EXECUTOR.execute(() -> finish(screen, op, micros, false, 0, 0, 0, 0));
+            } else {
+                METRICS_EXECUTOR.execute(() -> chargeDelivery(screen, op, initial, micros, snapshot));
+            }
+            listener.onEvent(snapshot, e);
+        };
+    }
+
+    private static void chargeDelivery(String screen, String op, boolean initial, long micros, QuerySnapshot snapshot) {
+        if (snapshot.getMetadata().isFromCache()) {
+            // Replayed from the local cache (offline, or before the server answered): not billed
+            FirestoreMetrics.recordCache(op, !snapshot.isEmpty());
+            return;
+        }
+        long reads = 0;
+        long bytes = 0;
+        for (DocumentChange change : snapshot.getDocumentChanges()) {
+            reads++;
+            bytes += sizeOf(change.getDocument());
+        }
+        if (initial) {
+            finish(screen, op, micros, true, reads, 0, bytes, 0);
+        } else {
+            // Later deliveries are pushed, so they add reads but no latency sample
+            FirestoreMetrics.recordDelivery(op, reads, bytes);
+            ScreenCostTracker.getInstance().record(screen, op, reads, 0);
+        }
+    }
+
+    // Writes (set/update/batch commit): the caller knows how many documents and what it sent
+    public static <T> Task<T> write(String op, Task<T> task, int documents, long payloadBytes) {
+        return track(op, task, 0, documents, payloadBytes);
+    }
+
+    // Transactions and other mixed operations
+    public static <T> Task<T> track(String op, Task<T> task, int reads, int writes, long payloadBytes) {
+        String screen = ScreenCostTracker.getInstance().currentScreen();
+        long start = SystemClock.elapsedRealtimeNanos();
+        task.addOnCompleteListener(METRICS_EXECUTOR, completed -> finish(screen, op,
+                (SystemClock.elapsedRealtimeNanos() - start) / 1000, completed.isSuccessful(),
+                reads, writes, 0, completed.isSuccessful() ? payloadBytes : 0));
+        return task;
+    }
+
+    private static void finish(String screen, String op, long micros, boolean success, long reads, long writes,
+                               long bytesRead, long bytesWritten) {
+        FirestoreMetrics.record(op, micros, success, reads, writes, bytesRead, bytesWritten);
+        ScreenCostTracker.getInstance().record(screen, op, reads, success ? writes : 0);
+        if (writes > 0) {
+            Telemetry.writeLatency(op, micros / 1000);
+        } else {
+            Telemetry.queryLatency(op, micros / 1000);
+        }
+    }
+
+    // Firestore storage size rules: document name + 32 bytes + field data
+    public static long sizeOf(DocumentSnapshot document) {
+        if (!document.exists()) return 0;
+        return document.getReference().getPath().length() + 1 + 32 + sizeOf(document.getData());
+    }
+
+    public static long sizeOf(Object value) {
+        if (value == null || value instanceof Boolean) return 1;
+        if (value instanceof Number || value instanceof Timestamp || value instanceof java.util.Date) return 8;
+        if (value instanceof String) return ((String) value).getBytes(StandardCharsets.UTF_8).length + 1;
+        if (value instanceof Blob) return ((Blob) value).toBytes().length;
+        if (value instanceof GeoPoint) return 16;
+        if (value instanceof DocumentReference) return ((DocumentReference) value).getPath().length() + 1;
+        if (value instanceof Map) {
+            long size = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += String.valueOf(entry.getKey()).length() + 1 + sizeOf(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            long size = 0;
+            for (Object item : (Collection<?>) value) {
+                size += sizeOf(item);
+            }
+            return size;
+        }
+        // Sentinels like FieldValue.serverTimestamp() and unknown types
+        return 8;
+    }
+}
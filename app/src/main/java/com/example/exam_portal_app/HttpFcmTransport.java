@@ -0,0 +1,209 @@
+package com.example.exam_portal_app;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Client for the notification relay. The app holds no FCM credential: it authenticates with the
+// signed-in user's Firebase ID token and the relay, which owns the service account, checks the
+// caller is a teacher or admin before forwarding to FCM HTTP v1. Relay contract:
+//   POST {endpoint}  Authorization: Bearer <Firebase ID token>
+//   {"message": {"topic": ..., "notification": {...}, "data": {...}}}           one topic
+//   {"message": {"notification": {...}, "data": {...}}, "tokens": [<= 500]}     one token batch
+// A token batch answers {"responses": [{"success": true} | {"success": false, "error": "<FCM code>"}]}
+// in token order, like the Admin SDK's sendEachForMulticast. The endpoint is configurable so the
+// same code can be pointed at a local mock relay.
+public class HttpFcmTransport implements FcmTransport {
+
+    private static final String TAG = "HttpFcmTransport";
+    private static final int TIMEOUT_MS = 10_000;
+    private static final long DEFAULT_RETRY_AFTER_MS = 1000L;
+
+    private final String endpoint;
+    private final AccessTokenProvider accessTokenProvider;
+
+    public interface AccessTokenProvider {
+        // Firebase ID token of the sender, or null when nobody is signed in
+        String getAccessToken();
+    }
+
+    public HttpFcmTransport(String endpoint, AccessTokenProvider accessTokenProvider) {
+        this.endpoint = endpoint;
+        this.accessTokenProvider = accessTokenProvider;
+    }
+
+    @Override
+    public Result sendToTopic(String topic, String title, String body, Map<String, String> data,
+                              String collapseKey) {
+        try {
+            JSONObject message = buildMessage(title, body, data, collapseKey).put("topic", topic);
+            return post(new JSONObject().put("message", message), null).request;
+        } catch (JSONException e) {
+            Log.e(TAG, "Could not build message: " + e.getMessage());
+            return new Result(Outcome.FAILED, 0);
+        }
+    }
+
+    @Override
+    public BatchResult sendToTokens(List<String> tokens, String title, String body, Map<String, String> data,
+                                    String collapseKey) {
+        try {
+            JSONObject request = new JSONObject()
+                    .put("message", buildMessage(title, body, data, collapseKey))
+                    .put("tokens", new JSONArray(tokens));
+            return post(request, tokens);
+        } catch (JSONException e) {
+            Log.e(TAG, "Could not build message: " + e.getMessage());
+            return new BatchResult(new Result(Outcome.FAILED, 0), null);
+        }
+    }
+
+    private BatchResult post(JSONObject request, List<String> tokens) {
+        String idToken = accessTokenProvider.getAccessToken();
+        if (idToken == null) {
+            return new BatchResult(new Result(Outcome.FAILED, 0), null);
+        }
+
+        HttpURLConnection connection = null;
+        try {
+            byte[] payload = request.toString().getBytes(StandardCharsets.UTF_8);
+
+            connection = (HttpURLConnection) new URL(endpoint).openConnection();
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(TIMEOUT_MS);
+            connection.setReadTimeout(TIMEOUT_MS);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(payload.length);
+            connection.setRequestProperty("Authorization", "Bearer " + idToken);
+            connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(payload);
+            }
+
+            int code = connection.getResponseCode();
+            String response = read(code >= 400 ? connection.getErrorStream() : connection.getInputStream());
+            Result result = toResult(code, connection.getHeaderField("Retry-After"));
+            if (tokens == null || result.outcome != Outcome.SENT) {
+                return new BatchResult(result, null);
+            }
+            return new BatchResult(result, tokenOutcomes(response, tokens.size()));
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Send to relay failed: " + e.getMessage());
+            // Only drop the socket on errors; a drained response leaves it in the keep-alive pool
+            if (connection != null) {
+                connection.disconnect();
+            }
+            return new BatchResult(new Result(Outcome.RETRY, DEFAULT_RETRY_AFTER_MS), null);
+        }
+    }
+
+    // The collapse key goes on the Android config rather than in data: FCM keeps only the newest
+    // queued message per collapse_key for an offline device, and the tray replaces notifications
+    // with the same tag while the app is in the background, where NotificationPipeline never runs.
+    // A null title makes a data-only message, which MyFirebaseMessagingService always receives and
+    // which never shows up in the tray.
+    static JSONObject buildMessage(String title, String body, Map<String, String> data,
+                                   String collapseKey) throws JSONException {
+        JSONObject message = new JSONObject();
+        if (title != null) {
+            JSONObject notification = new JSONObject();
+            notification.put("title", title);
+            notification.put("body", body);
+            message.put("notification", notification);
+        }
+        if (data != null && !data.isEmpty()) {
+            message.put("data", new JSONObject(data));
+        }
+        if (collapseKey != null && !collapseKey.isEmpty()) {
+            JSONObject androidNotification = new JSONObject()
+                    .put("tag", collapseKey)
+                    .put("channel_id", NotificationPipeline.CHANNEL_ID);
+            message.put("android", new JSONObject()
+                    .put("collapse_key", collapseKey)
+                    .put("notification", androidNotification));
+        }
+        return message;
+    }
+
+    static List<Outcome> tokenOutcomes(String response, int tokenCount) throws JSONException {
+        JSONArray responses = new JSONObject(response).getJSONArray("responses");
+        List<Outcome> outcomes = new ArrayList<>(tokenCount);
+        for (int i = 0; i < tokenCount; i++) {
+            JSONObject entry = responses.optJSONObject(i);
+            if (entry == null) {
+                // A short answer leaves the rest unknown; send them again
+                outcomes.add(Outcome.RETRY);
+            } else if (entry.optBoolean("success")) {
+                outcomes.add(Outcome.SENT);
+            } else {
+                outcomes.add(outcomeOf(entry.optString("error")));
+            }
+        }
+        return outcomes;
+    }
+
+    // FCM HTTP v1 error codes reported per token
+    static Outcome outcomeOf(String errorCode) {
+        switch (errorCode) {
+            case "UNREGISTERED":
+                return Outcome.UNREGISTERED;
+            case "UNAVAILABLE":
+            case "INTERNAL":
+            case "QUOTA_EXCEEDED":
+                return Outcome.RETRY;
+            default:
+                // INVALID_ARGUMENT and friends describe the message as much as the token; keep it
+                Log.w(TAG, "Token send failed permanently: " + errorCode);
+                return Outcome.FAILED;
+        }
+    }
+
+    static Result toResult(int code, String retryAfterHeader) {
+        if (code >= 200 && code < 300) {
+            return new Result(Outcome.SENT, 0);
+        }
+        if (code == 429 || code >= 500) {
+            long retryAfter = DEFAULT_RETRY_AFTER_MS;
+            if (retryAfterHeader != null) {
+                try {
+                    retryAfter = Long.parseLong(retryAfterHeader.trim()) * 1000L;
+                } catch (NumberFormatException ignored) {
+                    // Keep the default back-off
+                }
+            }
+            return new Result(Outcome.RETRY, retryAfter);
+        }
+        if (code == 404) {
+            return new Result(Outcome.UNREGISTERED, 0);
+        }
+        // 400 INVALID_ARGUMENT usually means a malformed message, not a dead token
+        Log.e(TAG, "Relay refused the request with HTTP " + code);
+        return new Result(Outcome.FAILED, 0);
+    }
+
+    private static String read(InputStream stream) throws IOException {
+        if (stream == null) return "";
+        try (InputStream in = stream) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
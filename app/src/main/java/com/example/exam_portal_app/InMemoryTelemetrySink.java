@@ -0,0 +1,27 @@
+package com.example.exam_portal_app;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps flushed batches in memory so tests can assert on what the pipeline produced
+public class InMemoryTelemetrySink implements TelemetrySink {
+
+    private final List<List<TelemetryEvent>> batches = new ArrayList<>();
+
+    @Override
+    public synchronized void write(List<TelemetryEvent> batch) {
+        batches.add(new ArrayList<>(batch));
+    }
+
+    public synchronized List<List<TelemetryEvent>> batches() {
+        return new ArrayList<>(batches);
+    }
+
+    public synchronized List<TelemetryEvent> events() {
+        List<TelemetryEvent> events = new ArrayList<>();
+        for (List<TelemetryEvent> batch : batches) {
+            events.addAll(batch);
+        }
+        return events;
+    }
+}
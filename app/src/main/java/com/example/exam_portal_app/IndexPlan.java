@@ -0,0 +1,59 @@
+package com.example.exam_portal_app;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Generates firestore.indexes.json from ExamQueries so every composite index the app needs is
+// declared, and nothing else. IndexPlanTest fails when the checked-in file is out of date;
+// regenerate it with IndexPlan.toIndexesJson() and deploy with `firebase deploy --only firestore:indexes`.
+public final class IndexPlan {
+
+    private IndexPlan() {
+    }
+
+    public static String toIndexesJson() {
+        return toIndexesJson(ExamQueries.all());
+    }
+
+    static String toIndexesJson(List<QueryShape> shapes) {
+        Set<String> indexes = new LinkedHashSet<>();
+        for (QueryShape shape : shapes) {
+            if (shape.needsCompositeIndex()) {
+                indexes.add(indexJson(shape));
+            }
+        }
+
+        StringBuilder json = new StringBuilder("{\n  \"indexes\": [");
+        List<String> entries = new ArrayList<>(indexes);
+        for (int i = 0; i < entries.size(); i++) {
+            json.append(i == 0 ? "\n" : ",\n").append(entries.get(i));
+        }
+        json.append(entries.isEmpty() ? "],\n" : "\n  ],\n");
+        json.append("  \"fieldOverrides\": []\n}\n");
+        return json.toString();
+    }
+
+    static String indexJson(QueryShape shape) {
+        StringBuilder json = new StringBuilder();
+        json.append("    {\n");
+        json.append("      \"collectionGroup\": \"").append(shape.getCollection()).append("\",\n");
+        json.append("      \"queryScope\": \"COLLECTION\",\n");
+        json.append("      \"fields\": [\n");
+        List<QueryShape.Clause> fields = shape.compositeIndexFields();
+        for (int i = 0; i < fields.size(); i++) {
+            QueryShape.Clause field = fields.get(i);
+            json.append("        { \"fieldPath\": \"").append(field.field).append("\", ");
+            if (field.kind == QueryShape.Kind.ARRAY_CONTAINS) {
+                json.append("\"arrayConfig\": \"CONTAINS\" }");
+            } else {
+                json.append("\"order\": \"").append(field.descending ? "DESCENDING" : "ASCENDING").append("\" }");
+            }
+            json.append(i < fields.size() - 1 ? ",\n" : "\n");
+        }
+        json.append("      ]\n");
+        json.append("    }");
+        return json.toString();
+    }
+}
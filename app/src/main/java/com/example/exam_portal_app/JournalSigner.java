@@ -0,0 +1,77 @@
+package com.example.exam_portal_app;
+
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+// HMAC-SHA256 used to sign offline start tokens and chain the answer journal. The production key
+// lives in the Android Keystore and cannot be exported, so a student cannot edit the journal or
+// move the start time without the change being detected. Tests use withKey().
+public abstract class JournalSigner {
+
+    static final int MAC_LENGTH = 32;
+    private static final String KEY_ALIAS = "exam_journal_key";
+    private static final String KEYSTORE = "AndroidKeyStore";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static JournalSigner keystoreSigner;
+
+    public abstract byte[] sign(byte[] data) throws GeneralSecurityException;
+
+    public boolean verify(byte[] data, byte[] mac) throws GeneralSecurityException {
+        return java.security.MessageDigest.isEqual(sign(data), mac);
+    }
+
+    public static synchronized JournalSigner keystore() {
+        if (keystoreSigner == null) {
+            keystoreSigner = new JournalSigner() {
+                private SecretKey key;
+
+                @Override
+                public synchronized byte[] sign(byte[] data) throws GeneralSecurityException {
+                    if (key == null) {
+                        key = getOrCreateKey();
+                    }
+                    Mac mac = Mac.getInstance(ALGORITHM);
+                    mac.init(key);
+                    return mac.doFinal(data);
+                }
+            };
+        }
+        return keystoreSigner;
+    }
+
+    static JournalSigner withKey(byte[] keyBytes) {
+        SecretKeySpec key = new SecretKeySpec(keyBytes, ALGORITHM);
+        return new JournalSigner() {
+            @Override
+            public byte[] sign(byte[] data) throws GeneralSecurityException {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac.doFinal(data);
+            }
+        };
+    }
+
+    private static SecretKey getOrCreateKey() throws GeneralSecurityException {
+        try {
+            KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+            keyStore.load(null);
+            if (keyStore.containsAlias(KEY_ALIAS)) {
+                return ((KeyStore.SecretKeyEntry) keyStore.getEntry(KEY_ALIAS, null)).getSecretKey();
+            }
+        } catch (java.io.IOException e) {
+            throw new GeneralSecurityException("Keystore unavailable", e);
+        }
+        KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_HMAC_SHA256, KEYSTORE);
+        generator.init(new KeyGenParameterSpec.Builder(KEY_ALIAS, KeyProperties.PURPOSE_SIGN).build());
+        return generator.generateKey();
+    }
+}
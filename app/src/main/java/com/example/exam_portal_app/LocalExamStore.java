@@ -0,0 +1,213 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+// On-disk copy of exam papers, written by ExamPrefetchWorker so the exam can open without any
+// network read:
+//   <examId>.bin  question list; when encryption is enabled it is sealed with AES-GCM under a
+//                 non-exportable Android Keystore key.
+//                 Layout: [int version][byte encrypted][if encrypted: 12-byte IV][payload]
+//   <examId>.pkg  sealed ExamPackage blob as downloaded, already encrypted with the exam key.
+//                 Layout: [int version][blob]
+public final class LocalExamStore {
+
+    private static final String TAG = "LocalExamStore";
+    private static final String DIR = "exams";
+    private static final String KEY_ALIAS = "exam_store_key";
+    private static final String KEYSTORE = "AndroidKeyStore";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private LocalExamStore() {
+    }
+
+    public static void save(Context context, String examId, long version, List<Question> questions,
+                            boolean encrypt) throws IOException {
+        byte[] payload = serialize(questions);
+
+        File file = fileFor(context, examId);
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp))) {
+            out.writeInt((int) version);
+            out.writeBoolean(encrypt);
+            if (encrypt) {
+                Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+                cipher.init(Cipher.ENCRYPT_MODE, getOrCreateKey());
+                byte[] iv = cipher.getIV();
+                out.write(iv, 0, IV_LENGTH);
+                out.write(cipher.doFinal(payload));
+            } else {
+                out.write(payload);
+            }
+        } catch (GeneralSecurityException e) {
+            tmp.delete();
+            throw new IOException("Failed to encrypt exam " + examId, e);
+        }
+        // Atomic replace so a reader never sees a half-written paper
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Failed to store exam " + examId);
+        }
+    }
+
+    // Questions stored for the exam, or null if none are stored or the copy is older than minVersion
+    public static List<Question> load(Context context, String examId, long minVersion) {
+        File file = fileFor(context, examId);
+        if (!file.exists()) return null;
+
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            long version = in.readInt();
+            if (version < minVersion) {
+                return null;
+            }
+            boolean encrypted = in.readBoolean();
+            byte[] rest = readAll(in);
+            byte[] payload;
+            if (encrypted) {
+                Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+                cipher.init(Cipher.DECRYPT_MODE, getOrCreateKey(),
+                        new GCMParameterSpec(TAG_BITS, rest, 0, IV_LENGTH));
+                payload = cipher.doFinal(rest, IV_LENGTH, rest.length - IV_LENGTH);
+            } else {
+                payload = rest;
+            }
+            return deserialize(payload);
+        } catch (IOException | GeneralSecurityException | ClassNotFoundException e) {
+            Log.w(TAG, "Discarding unreadable copy of exam " + examId + ": " + e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    public static void savePackage(Context context, String examId, long version, byte[] blob) throws IOException {
+        File file = packageFileFor(context, examId);
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp))) {
+            out.writeInt((int) version);
+            out.write(blob);
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Failed to store package for exam " + examId);
+        }
+    }
+
+    // Stream positioned at the start of the stored package blob, or null if missing or outdated.
+    // The caller closes it.
+    public static InputStream openPackage(Context context, String examId, long minVersion) {
+        File file = packageFileFor(context, examId);
+        if (!file.exists()) return null;
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new FileInputStream(file));
+            if (in.readInt() < minVersion) {
+                in.close();
+                return null;
+            }
+            return in;
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding unreadable package of exam " + examId + ": " + e.getMessage());
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                    // Already failing
+                }
+            }
+            file.delete();
+            return null;
+        }
+    }
+
+    public static boolean contains(Context context, String examId) {
+        return fileFor(context, examId).exists() || packageFileFor(context, examId).exists();
+    }
+
+    public static void delete(Context context, String examId) {
+        fileFor(context, examId).delete();
+        packageFileFor(context, examId).delete();
+    }
+
+    private static File fileFor(Context context, String examId) {
+        return new File(directory(context), examId + ".bin");
+    }
+
+    private static File packageFileFor(Context context, String examId) {
+        return new File(directory(context), examId + ".pkg");
+    }
+
+    private static File directory(Context context) {
+        File dir = new File(context.getFilesDir(), DIR);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        return dir;
+    }
+
+    private static byte[] serialize(List<Question> questions) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new ArrayList<>(questions));
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Question> deserialize(byte[] payload) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return (List<Question>) in.readObject();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static synchronized SecretKey getOrCreateKey() throws GeneralSecurityException, IOException {
+        KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+        keyStore.load(null);
+        if (keyStore.containsAlias(KEY_ALIAS)) {
+            return ((KeyStore.SecretKeyEntry) keyStore.getEntry(KEY_ALIAS, null)).getSecretKey();
+        }
+        KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEYSTORE);
+        generator.init(new KeyGenParameterSpec.Builder(KEY_ALIAS,
+                KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                .setKeySize(256)
+                .build());
+        return generator.generateKey();
+    }
+}
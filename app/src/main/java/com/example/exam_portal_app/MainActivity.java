@@ -11,23 +11,20 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 public class MainActivity extends AppCompatActivity {
     private EditText emailEditText, passwordEditText;
     private RadioGroup roleRadioGroup;
     private Button loginButton, registerButton;
     private FirebaseAuth mAuth;
-    private FirebaseFirestore db;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        // Initialize Firebase instances
-        mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        // Auth is needed right away; Firestore is only touched if the role claim is missing
+        mAuth = FirebaseProvider.getAuth();
 
         // Initialize UI elements
         initializeViews();
@@ -100,13 +97,24 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void fetchUserRole(String userId) {
-        db.collection("Users")
-                .document(userId)
-                .get()
+        // Prefer the role custom claim on the ID token; only read Users when it is missing
+        RoleResolver.getInstance().resolveRole(userId, role -> {
+            if (role != null) {
+                navigateToDashboard(role);
+            } else {
+                fetchUserRoleFromFirestore(userId);
+            }
+        });
+    }
+
+    private void fetchUserRoleFromFirestore(String userId) {
+        FirestoreOps.read("loadUserRole", FirebaseProvider.getFirestore().collection("Users").document(userId).get())
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
                         String role = documentSnapshot.getString("role");
                         if (role != null) {
+                            // Users.role is chosen by the user at registration, so it only picks the
+                            // dashboard; each dashboard checks its Teacher/Admin collection before caching
                             navigateToDashboard(role);
                         } else {
                             Toast.makeText(MainActivity.this, "Invalid user role", Toast.LENGTH_SHORT).show();
@@ -137,6 +145,10 @@ public class MainActivity extends AppCompatActivity {
                 Toast.makeText(this, "Invalid role: " + role, Toast.LENGTH_SHORT).show();
                 return;
         }
+        FirebaseUser user = mAuth.getCurrentUser();
+        if (user != null) {
+            DeviceTokenRegistry.registerCurrentDevice(this, user.getUid(), role);
+        }
         startActivity(intent);
         finish();
     }
@@ -11,12 +11,9 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class ManageQuestionsActivity extends AppCompatActivity {
 
@@ -25,6 +22,8 @@ public class ManageQuestionsActivity extends AppCompatActivity {
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
     private boolean isTeacherVerified = false;
+    // The teacher's exams that are not closed yet; questions can be attached to these
+    private final List<Exam> exams = new ArrayList<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -32,8 +31,8 @@ public class ManageQuestionsActivity extends AppCompatActivity {
         setContentView(R.layout.activity_manage_questions);
 
         // Initialize Firebase
-        mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        mAuth = FirebaseProvider.getAuth();
+        db = FirebaseProvider.getFirestore();
 
         // Verify user is a teacher before proceeding
         FirebaseUser user = mAuth.getCurrentUser();
@@ -69,15 +68,30 @@ public class ManageQuestionsActivity extends AppCompatActivity {
     }
 
     private void verifyTeacherRole(FirebaseUser user) {
+        RoleResolver.getInstance().resolveRole(user.getUid(), role -> {
+            if (role == null) {
+                verifyTeacherRoleFromFirestore(user);
+            } else if ("teacher".equals(role)) {
+                isTeacherVerified = true;
+                loadQuestions();
+            } else {
+                Toast.makeText(ManageQuestionsActivity.this, "Access denied. You are not a teacher.", Toast.LENGTH_SHORT).show();
+                finish();
+            }
+        });
+    }
+
+    private void verifyTeacherRoleFromFirestore(FirebaseUser user) {
         String email = user.getEmail();
         String normalizedName = (user.getDisplayName() != null ? user.getDisplayName().trim() : "unknown").toLowerCase().replace(" ", "-") + "-" + email.replace("@", "-").replace(".", "-");
 
-        db.collection("Teacher").document(normalizedName).get()
+        FirestoreOps.read("checkTeacherRole", db.collection("Teacher").document(normalizedName).get())
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
                         com.google.firebase.firestore.DocumentSnapshot document = task.getResult();
                         if (document.exists() && document.getString("uid") != null && document.getString("uid").equals(user.getUid())) {
                             isTeacherVerified = true;
+                            RoleResolver.getInstance().cacheVerifiedRole(user.getUid(), "teacher");
                             // Reload questions after verification
                             loadQuestions();
                             Toast.makeText(ManageQuestionsActivity.this, "Teacher role verified", Toast.LENGTH_SHORT).show();
@@ -92,61 +106,75 @@ public class ManageQuestionsActivity extends AppCompatActivity {
                 });
     }
 
-    private void loadQuestions() {
-        db.collection("questions")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<Question> questions = new ArrayList<>();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        questions.add(document.toObject(Question.class));
+    private void loadExams() {
+        FirebaseUser user = mAuth.getCurrentUser();
+        if (user == null) return;
+        FirestoreOps.read(ExamQueries.UNCLOSED_EXAMS_BY_CREATOR.getName(),
+                        ExamQueries.unclosedExamsCreatedBy(db, user.getUid()).get())
+                .addOnSuccessListener(snapshots -> {
+                    exams.clear();
+                    for (com.google.firebase.firestore.QueryDocumentSnapshot document : snapshots) {
+                        Exam exam = Exam.fromSnapshot(document);
+                        if (exam != null) {
+                            exams.add(exam);
+                        }
                     }
-                    questionAdapter.setQuestions(questions);
                 })
-                .addOnFailureListener(e -> Toast.makeText(this, "Error loading questions: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+                .addOnFailureListener(e -> Toast.makeText(this, "Error loading exams: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+    }
+
+    private void loadQuestions() {
+        loadExams();
+        // Teachers need answers and templates too; students only ever read the projections
+        QuestionStore.loadWithSecureParts(db, new QuestionStore.OnQuestionsLoadedListener() {
+            @Override
+            public void onQuestionsLoaded(List<Question> questions) {
+                questionAdapter.setQuestions(questions);
+            }
+
+            @Override
+            public void onQuestionsFailed(Exception e) {
+                Toast.makeText(ManageQuestionsActivity.this, "Error loading questions: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void showQuestionDialog(Question question) {
-        QuestionDialog dialog = new QuestionDialog(this, question, new QuestionDialog.OnQuestionSavedListener() {
+        QuestionDialog dialog = new QuestionDialog(this, question, exams, new QuestionDialog.OnQuestionSavedListener() {
             @Override
             public void onQuestionSaved(Question newQuestion) {
-                if (newQuestion.getId() == null) {
-                    Map<String, Object> questionData = new HashMap<>();
-                    questionData.put("questionText", newQuestion.getQuestionText());
-                    questionData.put("options", newQuestion.getOptions());
-                    questionData.put("correctAnswer", newQuestion.getCorrectAnswer());
-                    questionData.put("examId", ""); // Will be linked later to an exam
-
-                    db.collection("questions").add(questionData)
-                            .addOnSuccessListener(documentReference -> {
-                                newQuestion.setId(documentReference.getId());
+                boolean isNew = newQuestion.getId() == null;
+                String previousExamId = question != null ? question.getExamId() : null;
+
+                QuestionStore.save(newQuestion)
+                        .addOnSuccessListener(aVoid -> {
+                            // Re-seal the paper so students prefetch the edited version; this also
+                            // sends questions_changed so cached copies are dropped
+                            ExamPublisher.publish(newQuestion.getExamId());
+                            if (previousExamId != null && !previousExamId.equals(newQuestion.getExamId())) {
+                                // Moved to another exam; the old paper must lose it
+                                ExamPublisher.publish(previousExamId);
+                            }
+                            if (isNew) {
                                 questionAdapter.addQuestion(newQuestion);
                                 Toast.makeText(ManageQuestionsActivity.this, "Question added!", Toast.LENGTH_SHORT).show();
-                            })
-                            .addOnFailureListener(e -> Toast.makeText(ManageQuestionsActivity.this, "Error adding question: " + e.getMessage(), Toast.LENGTH_SHORT).show());
-                } else {
-                    Map<String, Object> questionData = new HashMap<>();
-                    questionData.put("questionText", newQuestion.getQuestionText());
-                    questionData.put("options", newQuestion.getOptions());
-                    questionData.put("correctAnswer", newQuestion.getCorrectAnswer());
-                    questionData.put("examId", newQuestion.getExamId());
-
-                    db.collection("questions").document(newQuestion.getId())
-                            .update(questionData)
-                            .addOnSuccessListener(aVoid -> {
+                            } else {
                                 questionAdapter.updateQuestion(newQuestion);
                                 Toast.makeText(ManageQuestionsActivity.this, "Question updated!", Toast.LENGTH_SHORT).show();
-                            })
-                            .addOnFailureListener(e -> Toast.makeText(ManageQuestionsActivity.this, "Error updating question: " + e.getMessage(), Toast.LENGTH_SHORT).show());
-                }
+                            }
+                        })
+                        .addOnFailureListener(e -> Toast.makeText(ManageQuestionsActivity.this,
+                                (isNew ? "Error adding question: " : "Error updating question: ") + e.getMessage(),
+                                Toast.LENGTH_SHORT).show());
             }
 
             @Override
             public void onQuestionDeleted(Question question) {
                 if (question.getId() != null) {
-                    db.collection("questions").document(question.getId())
-                            .delete()
+                    QuestionStore.delete(question)
                             .addOnSuccessListener(aVoid -> {
                                 questionAdapter.removeQuestion(question);
+                                ExamPublisher.publish(question.getExamId());
                                 Toast.makeText(ManageQuestionsActivity.this, "Question deleted!", Toast.LENGTH_SHORT).show();
                             })
                             .addOnFailureListener(e -> Toast.makeText(ManageQuestionsActivity.this, "Error deleting question: " + e.getMessage(), Toast.LENGTH_SHORT).show());
@@ -0,0 +1,62 @@
+package com.example.exam_portal_app;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// One-off data migrations. A migration that completes is recorded in migrations/{name}, so later
+// runs cost a single document read instead of repeating the scan; one that fails is retried the
+// next time it is run. Each migration is checked at most once per process.
+public final class Migrations {
+
+    private static final String TAG = "Migrations";
+    public static final String COLLECTION = "migrations";
+
+    private static final Set<String> checked = Collections.synchronizedSet(new HashSet<>());
+
+    public interface Migration {
+        Task<?> run(FirebaseFirestore db);
+    }
+
+    private Migrations() {
+    }
+
+    public static void runOnce(String name, Migration migration) {
+        if (!checked.add(name)) return;
+
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        DocumentReference marker = db.collection(COLLECTION).document(name);
+        FirestoreOps.read("loadMigration", marker.get())
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    if (task.getResult().exists()) return Tasks.forResult(false);
+                    return migration.run(db).continueWithTask(run -> {
+                        if (!run.isSuccessful()) throw run.getException();
+                        Map<String, Object> markerData = new HashMap<>();
+                        markerData.put("completed_at", FieldValue.serverTimestamp());
+                        return FirestoreOps.write("recordMigration", marker.set(markerData), 1,
+                                FirestoreOps.sizeOf(markerData));
+                    }).continueWith(done -> {
+                        if (!done.isSuccessful()) throw done.getException();
+                        return true;
+                    });
+                })
+                .addOnSuccessListener(ran -> {
+                    if (ran) Log.d(TAG, "Completed migration " + name);
+                })
+                .addOnFailureListener(e -> {
+                    checked.remove(name);
+                    Log.e(TAG, "Migration " + name + " failed: " + e.getMessage());
+                });
+    }
+}
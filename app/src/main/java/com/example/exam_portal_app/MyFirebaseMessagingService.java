@@ -1,15 +1,8 @@
 package com.example.exam_portal_app;
 
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
-import android.app.PendingIntent;
-import android.content.Context;
-import android.content.Intent;
-import android.os.Build;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
-import androidx.core.app.NotificationCompat;
 
 import com.google.firebase.messaging.FirebaseMessagingService;
 import com.google.firebase.messaging.RemoteMessage;
@@ -17,8 +10,6 @@ import com.google.firebase.messaging.RemoteMessage;
 public class MyFirebaseMessagingService extends FirebaseMessagingService {
 
     private static final String TAG = "MyFirebaseMsgService";
-    private static final String CHANNEL_ID = "exam_notifications";
-    private static final int NOTIFICATION_ID = 1;
 
     @Override
     public void onMessageReceived(@NonNull RemoteMessage remoteMessage) {
@@ -27,53 +18,23 @@ public class MyFirebaseMessagingService extends FirebaseMessagingService {
         if (remoteMessage.getNotification() != null) {
             String title = remoteMessage.getNotification().getTitle();
             String body = remoteMessage.getNotification().getBody();
-            showNotification(title, body);
+            String examId = remoteMessage.getData().get("exam_id");
+            // Same key as android.notification.tag, so a tray notification posted while the app
+            // was in the background is replaced rather than duplicated
+            String collapseKey = remoteMessage.getNotification().getTag();
+            NotificationPipeline.getInstance(this).enqueue(examId, collapseKey, title, body);
         }
 
         if (remoteMessage.getData().size() > 0) {
             Log.d(TAG, "Message data payload: " + remoteMessage.getData());
+            // Change events patch the local cache so dashboards never poll for updates
+            CacheInvalidationHandler.handle(remoteMessage.getData());
         }
     }
 
-    private void showNotification(String title, String body) {
-        NotificationManager notificationManager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
-
-        // Create notification channel for Android O and above
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel channel = new NotificationChannel(
-                    CHANNEL_ID,
-                    "Exam Updates",
-                    NotificationManager.IMPORTANCE_DEFAULT
-            );
-            channel.setDescription("Channel for exam related notifications");
-            notificationManager.createNotificationChannel(channel);
-        }
-
-        // Create intent for notification click
-        Intent intent = new Intent(this, StudentDashboardActivity.class);
-        intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
-        PendingIntent pendingIntent = PendingIntent.getActivity(
-                this,
-                0,
-                intent,
-                PendingIntent.FLAG_ONE_SHOT | PendingIntent.FLAG_IMMUTABLE
-        );
-
-        // Build notification
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
-                .setSmallIcon(R.drawable.ic_launcher_foreground)
-                .setContentTitle(title)
-                .setContentText(body)
-                .setAutoCancel(true)
-                .setPriority(NotificationCompat.PRIORITY_DEFAULT)
-                .setContentIntent(pendingIntent);
-
-        notificationManager.notify(NOTIFICATION_ID, builder.build());
-    }
-
     @Override
     public void onNewToken(@NonNull String token) {
         Log.d(TAG, "Refreshed token: " + token);
-        // TODO: Implement token storage in Firestore if needed
+        DeviceTokenRegistry.saveToken(this, token);
     }
 }
\ No newline at end of file
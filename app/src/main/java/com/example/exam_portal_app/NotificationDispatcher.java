@@ -0,0 +1,232 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Fans an announcement out through FCM via the notification relay (see HttpFcmTransport), so no
+// FCM credential ships in the app. Whole audiences go to the sharded student topics
+// (NotificationTopics); explicit recipient lists are sent as one request per batch of at most
+// MAX_TOKENS_PER_BATCH tokens. Every request goes through a shared rate limiter and is retried
+// with exponential back-off when FCM throttles or fails transiently; within a batch only the
+// tokens that failed transiently are sent again.
+public class NotificationDispatcher {
+
+    private static final String TAG = "NotificationDispatcher";
+
+    public static final int MAX_TOKENS_PER_BATCH = 500;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MS = 500L;
+    private static final long MAX_BACKOFF_MS = 30_000L;
+    private static final int WORKER_THREADS = 4;
+    // 20k tokens inside a minute is 40 batch requests; topics are a handful more
+    private static final double DEFAULT_REQUESTS_PER_SECOND = 20;
+
+    private static NotificationDispatcher defaultInstance;
+    private static String relayEndpoint = "";
+
+    private final FcmTransport transport;
+    private final RateLimiter rateLimiter;
+    private final ExecutorService executor = Executors.newFixedThreadPool(WORKER_THREADS);
+    private final Random random = new Random();
+    private final InvalidTokenListener invalidTokenListener;
+
+    public interface InvalidTokenListener {
+        void onInvalidTokens(List<String> tokens);
+    }
+
+    public NotificationDispatcher(FcmTransport transport, double requestsPerSecond,
+                                  InvalidTokenListener invalidTokenListener) {
+        this.transport = transport;
+        this.rateLimiter = new RateLimiter(requestsPerSecond, (int) Math.ceil(requestsPerSecond));
+        this.invalidTokenListener = invalidTokenListener;
+    }
+
+    // Called once from ExamPortalApplication with the fcm_relay_endpoint resource (point it at a
+    // mock relay for local testing)
+    public static synchronized void init(Context context) {
+        relayEndpoint = context.getString(R.string.fcm_relay_endpoint);
+    }
+
+    // Returns null when no relay is configured on this build, in which case the
+    // notifications/{id} document stays pending for a backend to deliver.
+    public static synchronized NotificationDispatcher getDefault() {
+        if (defaultInstance == null) {
+            if (relayEndpoint.isEmpty()) {
+                return null;
+            }
+            FcmTransport transport = new HttpFcmTransport(relayEndpoint, NotificationDispatcher::currentIdToken);
+            defaultInstance = new NotificationDispatcher(transport, DEFAULT_REQUESTS_PER_SECOND,
+                    DeviceTokenRegistry::removeTokens);
+        }
+        return defaultInstance;
+    }
+
+    // Runs on a dispatcher thread, so waiting for a token refresh is fine
+    private static String currentIdToken() {
+        FirebaseUser user = FirebaseProvider.getAuth().getCurrentUser();
+        if (user == null) return null;
+        try {
+            return Tasks.await(user.getIdToken(false), 30, TimeUnit.SECONDS).getToken();
+        } catch (Exception e) {
+            Log.w(TAG, "No ID token for the relay: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void dispatchToAllStudents(String title, String body, Map<String, String> data, String collapseKey) {
+        for (String topic : NotificationTopics.allStudentTopics()) {
+            executor.execute(() -> {
+                FcmTransport.Result result = sendWithRetry(
+                        () -> transport.sendToTopic(topic, title, body, data, collapseKey));
+                if (result.outcome != FcmTransport.Outcome.SENT) {
+                    Log.e(TAG, "Giving up on topic " + topic + ": " + result.outcome);
+                }
+            });
+        }
+    }
+
+    // Data-only message to every student, for events the app handles itself without a
+    // notification (see CacheInvalidationHandler)
+    public void dispatchDataToAllStudents(Map<String, String> data) {
+        dispatchToAllStudents(null, null, data, null);
+    }
+
+    // Students enrolled in any of the sections, by device token. Unlike topic sends this reports
+    // per-token errors, so tokens of uninstalled apps are pruned as they fail
+    public void dispatchToSections(List<String> sectionIds, String title, String body, Map<String, String> data,
+                                   String collapseKey) {
+        EnrollmentRegistry.loadStudents(sectionIds, uids -> DeviceTokenRegistry.loadTokens(uids, tokens -> {
+            Log.d(TAG, "Sending to " + tokens.size() + " devices of " + uids.size() + " students");
+            dispatchToTokens(tokens, title, body, data, collapseKey);
+        }));
+    }
+
+    public void dispatchToTokens(List<String> tokens, String title, String body, Map<String, String> data,
+                                 String collapseKey) {
+        for (List<String> batch : partition(tokens, MAX_TOKENS_PER_BATCH)) {
+            executor.execute(() -> sendBatch(batch, title, body, data, collapseKey));
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Waits for queued sends after shutdown(); for tests and one-shot senders
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    private void sendBatch(List<String> batch, String title, String body, Map<String, String> data,
+                           String collapseKey) {
+        List<String> invalidTokens = new ArrayList<>();
+        List<String> pending = batch;
+        int sent = 0;
+        int failed = 0;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            List<String> request = pending;
+            FcmTransport.BatchResult result;
+            try {
+                rateLimiter.acquire();
+                result = transport.sendToTokens(request, title, body, data, collapseKey);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            List<String> retry = new ArrayList<>();
+            FcmTransport.Outcome outcome = result.request.outcome;
+            if (outcome == FcmTransport.Outcome.RETRY) {
+                retry = request;
+            } else if (outcome == FcmTransport.Outcome.SENT) {
+                for (int i = 0; i < request.size(); i++) {
+                    FcmTransport.Outcome tokenOutcome = i < result.tokenOutcomes.size()
+                            ? result.tokenOutcomes.get(i) : FcmTransport.Outcome.RETRY;
+                    if (tokenOutcome == FcmTransport.Outcome.SENT) {
+                        sent++;
+                    } else if (tokenOutcome == FcmTransport.Outcome.UNREGISTERED) {
+                        invalidTokens.add(request.get(i));
+                    } else if (tokenOutcome == FcmTransport.Outcome.RETRY) {
+                        retry.add(request.get(i));
+                    } else {
+                        failed++;
+                    }
+                }
+            } else {
+                // The whole request was refused, which says nothing about the tokens themselves
+                Log.e(TAG, "Batch of " + request.size() + " rejected: " + outcome);
+            }
+
+            pending = retry;
+            if (!pending.isEmpty() && attempt + 1 < MAX_ATTEMPTS) {
+                try {
+                    Thread.sleep(backoff(attempt, result.request.retryAfterMs));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        Log.d(TAG, "Batch done: " + sent + "/" + batch.size() + " sent, " + invalidTokens.size()
+                + " unregistered, " + failed + " failed");
+        if (failed > 0) {
+            Log.e(TAG, failed + " tokens failed permanently; kept in device_tokens");
+        }
+        if (!invalidTokens.isEmpty() && invalidTokenListener != null) {
+            invalidTokenListener.onInvalidTokens(invalidTokens);
+        }
+    }
+
+    private interface Send {
+        FcmTransport.Result send();
+    }
+
+    private FcmTransport.Result sendWithRetry(Send send) {
+        FcmTransport.Result result = new FcmTransport.Result(FcmTransport.Outcome.FAILED, 0);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try {
+                rateLimiter.acquire();
+                result = send.send();
+                if (result.outcome != FcmTransport.Outcome.RETRY) {
+                    return result;
+                }
+                Thread.sleep(backoff(attempt, result.retryAfterMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return result;
+            }
+        }
+        return result;
+    }
+
+    // Exponential back-off with full jitter, never shorter than the server's Retry-After
+    private long backoff(int attempt, long retryAfterMs) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << attempt);
+        long jittered;
+        synchronized (random) {
+            jittered = (long) (random.nextDouble() * ceiling);
+        }
+        return Math.max(retryAfterMs, jittered);
+    }
+
+    static <T> List<List<T>> partition(List<T> items, int size) {
+        if (items == null || items.isEmpty()) return Collections.emptyList();
+        List<List<T>> batches = new ArrayList<>((items.size() + size - 1) / size);
+        for (int i = 0; i < items.size(); i += size) {
+            batches.add(new ArrayList<>(items.subList(i, Math.min(items.size(), i + size))));
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.exam_portal_app;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Posts exam notifications off the main thread. Messages arriving within COALESCE_WINDOW_MS are
+// flushed together; messages with the same collapse key replace each other instead of stacking,
+// and messages for the same exam are grouped under one summary notification. Lines are posted
+// under the collapse key as tag with id 0, which is how FCM posts a tagged message while the app
+// is in the background, so foreground and background deliveries replace each other too.
+// At most MAX_GROUPS groups are remembered and a group is forgotten GROUP_TTL_MS after its last
+// message; its notifications stay in the tray.
+public final class NotificationPipeline {
+
+    public static final String CHANNEL_ID = "exam_notifications";
+    private static final String GENERAL_GROUP = "exam_general";
+    private static final long COALESCE_WINDOW_MS = 750L;
+    private static final int MAX_LINES_PER_GROUP = 20;
+    private static final int MAX_GROUPS = 16;
+    private static final long GROUP_TTL_MS = 24 * 60 * 60 * 1000L;
+    // FCM posts background notifications as notify(tag, 0, ...)
+    private static final int LINE_ID = 0;
+    private static final int SUMMARY_ID = 1;
+
+    private static NotificationPipeline instance;
+
+    private final Context context;
+    private final NotificationManagerCompat notificationManager;
+    private final Handler handler;
+    private final PendingIntent contentIntent;
+    // groupKey -> (collapseKey -> entry), insertion ordered so the oldest lines drop first; groups
+    // are in access order so the least recently updated one is evicted past MAX_GROUPS
+    private final LinkedHashMap<String, LinkedHashMap<String, Entry>> groups =
+            new LinkedHashMap<String, LinkedHashMap<String, Entry>>(MAX_GROUPS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, LinkedHashMap<String, Entry>> eldest) {
+                    return size() > MAX_GROUPS;
+                }
+            };
+    private final Map<String, Long> groupUpdatedAt = new HashMap<>();
+    private final List<String> dirtyGroups = new ArrayList<>();
+    private final Runnable flush = this::flush;
+
+    private static class Entry {
+        final String title;
+        final String body;
+        boolean posted;
+
+        Entry(String title, String body) {
+            this.title = title;
+            this.body = body;
+        }
+    }
+
+    private NotificationPipeline(Context context) {
+        this.context = context.getApplicationContext();
+        this.notificationManager = NotificationManagerCompat.from(this.context);
+
+        HandlerThread thread = new HandlerThread("NotificationPipeline");
+        thread.start();
+        this.handler = new Handler(thread.getLooper());
+
+        Intent intent = new Intent(this.context, StudentDashboardActivity.class);
+        intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        this.contentIntent = PendingIntent.getActivity(this.context, 0, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    public static synchronized NotificationPipeline getInstance(Context context) {
+        if (instance == null) {
+            instance = new NotificationPipeline(context);
+        }
+        return instance;
+    }
+
+    // Called once from ExamPortalApplication; creating an existing channel is a no-op anyway
+    public static void createChannels(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(
+                    CHANNEL_ID,
+                    "Exam Updates",
+                    NotificationManager.IMPORTANCE_DEFAULT
+            );
+            channel.setDescription("Channel for exam related notifications");
+            context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+        }
+    }
+
+    public void enqueue(String examId, String collapseKey, String title, String body) {
+        String groupKey = examId != null && !examId.isEmpty() ? "exam_" + examId : GENERAL_GROUP;
+        String key = collapseKey != null && !collapseKey.isEmpty()
+                ? collapseKey
+                : groupKey + "|" + title + "|" + body;
+
+        handler.post(() -> {
+            expireGroups(SystemClock.elapsedRealtime());
+            groupUpdatedAt.put(groupKey, SystemClock.elapsedRealtime());
+            LinkedHashMap<String, Entry> entries = groups.get(groupKey);
+            if (entries == null) {
+                entries = new LinkedHashMap<>();
+                groups.put(groupKey, entries);
+            }
+            // Re-inserting moves a collapsed duplicate to the newest position
+            entries.remove(key);
+            entries.put(key, new Entry(title, body));
+            if (entries.size() > MAX_LINES_PER_GROUP) {
+                Iterator<Map.Entry<String, Entry>> oldest = entries.entrySet().iterator();
+                notificationManager.cancel(oldest.next().getKey(), LINE_ID);
+                oldest.remove();
+            }
+            if (!dirtyGroups.contains(groupKey)) {
+                dirtyGroups.add(groupKey);
+            }
+            handler.removeCallbacks(flush);
+            handler.postDelayed(flush, COALESCE_WINDOW_MS);
+        });
+    }
+
+    private void expireGroups(long now) {
+        groupUpdatedAt.keySet().retainAll(groups.keySet());
+        Iterator<Map.Entry<String, Long>> it = groupUpdatedAt.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> group = it.next();
+            if (now - group.getValue() > GROUP_TTL_MS) {
+                groups.remove(group.getKey());
+                it.remove();
+            }
+        }
+    }
+
+    private void flush() {
+        if (!notificationManager.areNotificationsEnabled()) {
+            dirtyGroups.clear();
+            return;
+        }
+        for (String groupKey : dirtyGroups) {
+            LinkedHashMap<String, Entry> entries = groups.get(groupKey);
+            if (entries == null || entries.isEmpty()) continue;
+
+            for (Map.Entry<String, Entry> item : entries.entrySet()) {
+                Entry entry = item.getValue();
+                if (entry.posted) continue;
+                notify(item.getKey(), LINE_ID, baseBuilder(entry.title, entry.body)
+                        .setGroup(groupKey)
+                        .setOnlyAlertOnce(true));
+                entry.posted = true;
+            }
+
+            if (entries.size() > 1) {
+                notify(groupKey, SUMMARY_ID, buildSummary(groupKey, entries));
+            }
+        }
+        dirtyGroups.clear();
+    }
+
+    private NotificationCompat.Builder buildSummary(String groupKey, LinkedHashMap<String, Entry> entries) {
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle();
+        Entry latest = null;
+        for (Entry entry : entries.values()) {
+            style.addLine(entry.title + ": " + entry.body);
+            latest = entry;
+        }
+        String summaryText = entries.size() + " exam updates";
+        style.setSummaryText(summaryText);
+
+        return baseBuilder(latest.title, summaryText)
+                .setStyle(style)
+                .setGroup(groupKey)
+                .setGroupSummary(true)
+                .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_SUMMARY);
+    }
+
+    private NotificationCompat.Builder baseBuilder(String title, String body) {
+        return new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_launcher_foreground)
+                .setContentTitle(title)
+                .setContentText(body)
+                .setAutoCancel(true)
+                .setPriority(NotificationCompat.PRIORITY_DEFAULT)
+                .setContentIntent(contentIntent);
+    }
+
+    @SuppressWarnings("MissingPermission")
+    private void notify(String tag, int id, NotificationCompat.Builder builder) {
+        try {
+            notificationManager.notify(tag, id, builder.build());
+        } catch (SecurityException e) {
+            // POST_NOTIFICATIONS revoked between the check and the post
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.exam_portal_app;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Students are spread over a fixed set of FCM topics by uid hash. One exam announcement becomes
+// SHARD_COUNT topic sends, each fanned out by FCM, and a failed shard can be retried on its own.
+public final class NotificationTopics {
+
+    public static final int SHARD_COUNT = 16;
+    private static final String STUDENT_TOPIC_PREFIX = "students_";
+
+    private NotificationTopics() {
+    }
+
+    public static String studentTopicFor(String uid) {
+        return STUDENT_TOPIC_PREFIX + Math.floorMod(uid.hashCode(), SHARD_COUNT);
+    }
+
+    public static List<String> allStudentTopics() {
+        List<String> topics = new ArrayList<>(SHARD_COUNT);
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            topics.add(STUDENT_TOPIC_PREFIX + i);
+        }
+        return topics;
+    }
+}
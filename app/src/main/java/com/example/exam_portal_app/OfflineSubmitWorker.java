@@ -0,0 +1,203 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Uploads a submission that was made without connectivity once the device is back online.
+// The attempt is rebuilt from the AnswerJournal and stored under the StartToken id, so a retry
+// after a lost reply cannot create a second attempt. Conflicts found on the way are recorded on
+// the attempt for the teacher rather than silently resolved:
+//   journal_tampered  the journal or start token failed MAC verification
+//   clock_unsynced    the attempt started without any server clock sync
+//   late              submitted after the token deadline plus the grace period
+//   paper_changed     the exam paper was republished while the student was offline
+// If the attempt limit was used up meanwhile (e.g. from another device) the attempt goes to
+// attempt_conflicts instead of student_attempts. An attempt uploaded after the exam was graded
+// sends the exam back to closed so a teacher's dashboard grades it (ExamLifecycleEngine.reopenForGrading).
+public class OfflineSubmitWorker extends Worker {
+
+    private static final String TAG = "OfflineSubmitWorker";
+    static final String KEY_JOURNAL = "journal";
+    static final String CONFLICTS = "attempt_conflicts";
+    private static final String WORK_PREFIX = "offline_submit_";
+    static final String ORPHANED_SUFFIX = ".orphaned";
+    private static final long QUERY_TIMEOUT_S = 60;
+
+    public OfflineSubmitWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void schedule(Context context, AnswerJournal journal) {
+        schedule(context, journal.getFile());
+    }
+
+    private static void schedule(Context context, File journalFile) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(OfflineSubmitWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .setInputData(new Data.Builder().putString(KEY_JOURNAL, journalFile.getPath()).build())
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK_PREFIX + journalFile.getName(), ExistingWorkPolicy.KEEP, request);
+    }
+
+    // Re-queues journals whose upload was never scheduled, e.g. the app died right after journaling
+    public static void schedulePending(Context context) {
+        Context appContext = context.getApplicationContext();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.execute(() -> {
+            for (File journal : AnswerJournal.pendingJournals(appContext)) {
+                schedule(appContext, journal);
+            }
+        });
+        executor.shutdown();
+    }
+
+    static List<String> conflictsOf(AnswerJournal.State state, Exam exam, long graceMs) {
+        List<String> conflicts = new ArrayList<>();
+        if (!state.intact) conflicts.add("journal_tampered");
+        if (!state.token.clockSynced) conflicts.add("clock_unsynced");
+        if (state.pending.submittedAt > state.token.deadline + graceMs) conflicts.add("late");
+        if (exam.getPaperVersion() != state.token.paperVersion) conflicts.add("paper_changed");
+        return conflicts;
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String path = getInputData().getString(KEY_JOURNAL);
+        if (path == null) return Result.failure();
+        File file = new File(path);
+        AnswerJournal journal = new AnswerJournal(file, JournalSigner.keystore());
+        AnswerJournal.State state = journal.readState();
+        if (state.token == null || state.pending == null) {
+            return Result.success();
+        }
+
+        FirebaseUser user = FirebaseProvider.getAuth().getCurrentUser();
+        if (user == null || !user.getUid().equals(state.token.uid)) {
+            // Only the student who sat the exam can submit it; wait for them to sign in again
+            Log.w(TAG, "Waiting for " + state.token.uid + " to sign in to submit " + file.getName());
+            return Result.retry();
+        }
+
+        try {
+            DocumentSnapshot examDocument = Tasks.await(FirestoreOps.read("loadExamForOfflineSubmit",
+                    FirebaseProvider.getFirestore().collection("exams").document(state.token.examId).get()),
+                    QUERY_TIMEOUT_S, TimeUnit.SECONDS);
+            Exam exam = Exam.fromSnapshot(examDocument);
+            if (exam == null && examDocument.getMetadata().isFromCache()) {
+                return Result.retry();
+            }
+            if (exam == null) {
+                // Nothing to submit to; set the journal aside so schedulePending stops requeuing it
+                quarantine(file);
+                Log.w(TAG, "Exam " + state.token.examId + " no longer exists; quarantined " + file.getName());
+                return Result.failure();
+            }
+
+            long graceMs = getApplicationContext().getResources().getInteger(R.integer.offline_submit_grace_seconds) * 1000L;
+            List<String> conflicts = conflictsOf(state, exam, graceMs);
+            Map<String, Object> attemptData = attemptData(state, conflicts);
+            try {
+                int attemptNumber = Tasks.await(AttemptLimiter.submitTask(exam, state.token.uid,
+                        AttemptLimiter.attemptRef(state.token.id), attemptData), QUERY_TIMEOUT_S, TimeUnit.SECONDS);
+                Log.d(TAG, "Submitted offline attempt " + state.token.id + " as attempt " + attemptNumber
+                        + (conflicts.isEmpty() ? "" : " with conflicts " + conflicts));
+                Telemetry.submitOutcome("offline_submitted", ServerClock.now() - state.pending.submittedAt);
+                reopenIfGraded(state.token.examId);
+            } catch (java.util.concurrent.ExecutionException e) {
+                if (!(e.getCause() instanceof Exception) || !AttemptLimiter.isLimitReached((Exception) e.getCause())) {
+                    throw e;
+                }
+                conflicts.add("attempt_limit");
+                attemptData.put("conflicts", conflicts);
+                Tasks.await(FirestoreOps.write("recordAttemptConflict", FirebaseProvider.getFirestore()
+                        .collection(CONFLICTS).document(state.token.id).set(attemptData), 1,
+                        FirestoreOps.sizeOf(attemptData)), QUERY_TIMEOUT_S, TimeUnit.SECONDS);
+                Log.w(TAG, "Attempt limit reached while offline; stored " + state.token.id + " as a conflict");
+                Telemetry.submitOutcome("offline_conflict", ServerClock.now() - state.pending.submittedAt);
+            }
+            if (!file.delete()) {
+                Log.w(TAG, "Could not delete journal " + file.getName());
+            }
+            // The answers are in the attempt now; autosaved code drafts are no longer needed
+            CodeAutosave.deleteDrafts(state.token.examId, state.token.uid);
+            return Result.success();
+        } catch (Exception e) {
+            Log.w(TAG, "Offline submission of " + file.getName() + " failed: " + e.getMessage());
+            return Result.retry();
+        }
+    }
+
+    // Renamed out of the *.log pattern pendingJournals() scans, but kept on the device
+    private static void quarantine(File journal) {
+        File orphaned = new File(journal.getPath() + ORPHANED_SUFFIX);
+        if (!journal.renameTo(orphaned) && !journal.delete()) {
+            Log.w(TAG, "Could not quarantine journal " + journal.getName());
+        }
+    }
+
+    // The attempt is stored either way; a failure here only leaves it for a teacher to regrade by hand
+    private static void reopenIfGraded(String examId) {
+        try {
+            if (Tasks.await(ExamLifecycleEngine.reopenForGrading(FirebaseProvider.getFirestore(), examId),
+                    QUERY_TIMEOUT_S, TimeUnit.SECONDS)) {
+                Log.d(TAG, "Exam " + examId + " was already graded; reopened it for grading");
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Could not reopen exam " + examId + " for grading: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> attemptData(AnswerJournal.State state, List<String> conflicts) {
+        AnswerJournal.Pending pending = state.pending;
+        Map<String, Object> attemptData = new HashMap<>();
+        attemptData.put("student_id", state.token.uid);
+        attemptData.put("exam_id", state.token.examId);
+        attemptData.put("answers", new HashMap<>(state.answers));
+        attemptData.put("timestamp", pending.submittedAt);
+        attemptData.put("submitted_at", FieldValue.serverTimestamp());
+        attemptData.put("auto_submitted", pending.autoSubmit);
+        attemptData.put("offline", true);
+        attemptData.put("start_token", state.token.toAttemptField());
+        attemptData.put("conflicts", conflicts);
+        if (pending.questionOrder.length > 0) {
+            attemptData.put(PaperShuffle.FIELD_SEED, pending.shuffleSeed);
+            attemptData.put(PaperShuffle.FIELD_QUESTION_ORDER, Blob.fromBytes(pending.questionOrder));
+            attemptData.put(PaperShuffle.FIELD_OPTION_ORDER, Blob.fromBytes(pending.optionOrder));
+        }
+        return attemptData;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.exam_portal_app;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// How a pooled exam's paper is drawn from the question bank: N questions per topic/difficulty.
+// Stored on the exam document as
+//   blueprint: [{topic: "algebra", difficulty: "easy", count: 5}, ...]
+// A null or "*" difficulty means any difficulty within the topic.
+public final class PaperBlueprint implements Serializable {
+
+    public static final String FIELD = "blueprint";
+    public static final String ANY_DIFFICULTY = "*";
+
+    public static final class Rule implements Serializable {
+        public final String topic;
+        public final String difficulty;
+        public final int count;
+
+        public Rule(String topic, String difficulty, int count) {
+            this.topic = topic.trim().toLowerCase();
+            this.difficulty = difficulty == null || difficulty.trim().isEmpty()
+                    ? ANY_DIFFICULTY : difficulty.trim().toLowerCase();
+            this.count = count;
+        }
+    }
+
+    private final List<Rule> rules;
+
+    public PaperBlueprint(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public int questionCount() {
+        int total = 0;
+        for (Rule rule : rules) {
+            total += rule.count;
+        }
+        return total;
+    }
+
+    public List<String> topics() {
+        Set<String> topics = new LinkedHashSet<>();
+        for (Rule rule : rules) {
+            topics.add(rule.topic);
+        }
+        return new ArrayList<>(topics);
+    }
+
+    // Teacher input: "algebra:easy:5, geometry:*:3"; null when the input is blank
+    @Nullable
+    public static PaperBlueprint parse(String input) {
+        List<Rule> rules = new ArrayList<>();
+        if (input != null) {
+            for (String part : input.split(",")) {
+                String[] fields = part.trim().split(":");
+                if (fields.length != 3) {
+                    if (!part.trim().isEmpty()) {
+                        throw new IllegalArgumentException("Expected topic:difficulty:count, got \"" + part.trim() + "\"");
+                    }
+                    continue;
+                }
+                int count = Integer.parseInt(fields[2].trim());
+                if (count <= 0) {
+                    throw new IllegalArgumentException("Count must be positive for " + fields[0].trim());
+                }
+                rules.add(new Rule(fields[0], fields[1], count));
+            }
+        }
+        return rules.isEmpty() ? null : new PaperBlueprint(rules);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static PaperBlueprint fromSnapshot(DocumentSnapshot examDocument) {
+        Object value = examDocument.get(FIELD);
+        if (!(value instanceof List)) return null;
+
+        List<Rule> rules = new ArrayList<>();
+        for (Object item : (List<Object>) value) {
+            if (!(item instanceof Map)) continue;
+            Map<String, Object> map = (Map<String, Object>) item;
+            Object topic = map.get("topic");
+            Object count = map.get("count");
+            if (topic instanceof String && count instanceof Number && ((Number) count).intValue() > 0) {
+                rules.add(new Rule((String) topic, (String) map.get("difficulty"), ((Number) count).intValue()));
+            }
+        }
+        return rules.isEmpty() ? null : new PaperBlueprint(rules);
+    }
+
+    public List<Map<String, Object>> toValue() {
+        List<Map<String, Object>> value = new ArrayList<>();
+        for (Rule rule : rules) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("topic", rule.topic);
+            map.put("difficulty", rule.difficulty);
+            map.put("count", rule.count);
+            value.add(map);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.exam_portal_app;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Draws a paper from a QuestionBank according to a PaperBlueprint. Each rule picks k distinct
+// questions from its stratum of m with Floyd's algorithm: k random draws and a k-sized set, so
+// the cost is O(k) whatever m is (a reservoir pass would be O(m) per paper). The same seed always
+// yields the same paper from the same bank, which is how grading and re-opens find a student's
+// questions again; QuestionBank keeps its questions in id order so the load order cannot matter.
+public final class PaperGenerator {
+
+    private PaperGenerator() {
+    }
+
+    // Null when the bank can serve the blueprint, otherwise a description of the first shortfall.
+    // Rules for one topic overlap: its "any difficulty" stratum also holds every easy/medium/hard
+    // question, and a difficulty may be named twice. Each stratum must cover every rule drawing on
+    // it, or generate() would hand out short papers.
+    public static String validate(QuestionBank bank, PaperBlueprint blueprint) {
+        Map<String, PaperBlueprint.Rule> needs = new LinkedHashMap<>();
+        Map<String, Integer> ruleCounts = new HashMap<>();
+        for (PaperBlueprint.Rule rule : blueprint.getRules()) {
+            addNeed(needs, ruleCounts, rule.topic, rule.difficulty, rule.count);
+            if (!PaperBlueprint.ANY_DIFFICULTY.equals(rule.difficulty)) {
+                addNeed(needs, ruleCounts, rule.topic, PaperBlueprint.ANY_DIFFICULTY, rule.count);
+            }
+        }
+        for (Map.Entry<String, PaperBlueprint.Rule> entry : needs.entrySet()) {
+            PaperBlueprint.Rule need = entry.getValue();
+            int available = bank.stratumSize(need);
+            if (available < need.count) {
+                return "Only " + available + " questions for " + need.topic + "/" + need.difficulty
+                        + (ruleCounts.get(entry.getKey()) > 1 ? ", overlapping blueprint rules need " : ", blueprint needs ")
+                        + need.count;
+            }
+        }
+        return null;
+    }
+
+    private static void addNeed(Map<String, PaperBlueprint.Rule> needs, Map<String, Integer> ruleCounts,
+                                String topic, String difficulty, int count) {
+        String key = topic + "|" + difficulty;
+        PaperBlueprint.Rule need = needs.get(key);
+        needs.put(key, new PaperBlueprint.Rule(topic, difficulty, (need != null ? need.count : 0) + count));
+        ruleCounts.put(key, ruleCounts.containsKey(key) ? ruleCounts.get(key) + 1 : 1);
+    }
+
+    public static List<Question> generate(QuestionBank bank, PaperBlueprint blueprint, long seed) {
+        List<PaperBlueprint.Rule> rules = blueprint.getRules();
+        List<List<Question>> drawn = new ArrayList<>(rules.size());
+        for (int r = 0; r < rules.size(); r++) {
+            drawn.add(null);
+        }
+        // A question matching two rules (e.g. algebra/easy and algebra/*) must not appear twice.
+        // Specific difficulties draw first so an "any difficulty" rule cannot take the questions
+        // they need; the paper still lists the rules in blueprint order
+        Set<Integer> used = new HashSet<>();
+        long state = seed;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int r = 0; r < rules.size(); r++) {
+                PaperBlueprint.Rule rule = rules.get(r);
+                if (PaperBlueprint.ANY_DIFFICULTY.equals(rule.difficulty) != (pass == 1)) continue;
+
+                int[] stratum = bank.stratum(rule);
+                int m = stratum.length;
+                int k = Math.min(rule.count, m);
+                // Draw extra positions to make up for questions earlier rules already took
+                int n = Math.min(m, k + used.size());
+
+                Set<Integer> chosen = new LinkedHashSet<>();
+                for (int j = m - n; j < m; j++) {
+                    state += 0x9e3779b97f4a7c15L;
+                    int t = (int) ((PaperShuffle.mix(state) >>> 1) % (j + 1));
+                    int pick = chosen.contains(t) ? j : t;
+                    chosen.add(pick);
+                }
+                List<Question> picks = new ArrayList<>(k);
+                for (int position : chosen) {
+                    if (picks.size() == k) break;
+                    if (used.add(stratum[position])) {
+                        picks.add(bank.get(stratum[position]));
+                    }
+                }
+                drawn.set(r, picks);
+            }
+        }
+
+        List<Question> paper = new ArrayList<>(blueprint.questionCount());
+        for (List<Question> picks : drawn) {
+            paper.addAll(picks);
+        }
+        return paper;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.exam_portal_app;
+
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-student question and MCQ option order. The seed comes from student id + exam id, so the same
+// student always sees the same paper (a restart does not reshuffle) while neighbours in a hall see
+// different ones. Permutations live in two flat int arrays:
+//   questionOrder[display] = original question index
+//   optionOrder[optionOffsets[q] + display] = original option index of question q
+// They are stored on the attempt as 16-bit packed blobs next to the seed. Answers stay keyed by
+// question id with the chosen option text, so grading is exactly as for an unshuffled paper; the
+// arrays map a displayed position back to the original in O(1) when reviewing an attempt.
+public final class PaperShuffle {
+
+    public static final String FIELD_SEED = "shuffle_seed";
+    public static final String FIELD_QUESTION_ORDER = "question_order";
+    public static final String FIELD_OPTION_ORDER = "option_order";
+
+    private static final Comparator<Question> BY_ID = (a, b) -> {
+        String left = a.getId() != null ? a.getId() : "";
+        String right = b.getId() != null ? b.getId() : "";
+        return left.compareTo(right);
+    };
+
+    private final long seed;
+    private final int[] questionOrder;
+    private final int[] optionOffsets;
+    private final int[] optionOrder;
+
+    private PaperShuffle(long seed, int[] questionOrder, int[] optionOffsets, int[] optionOrder) {
+        this.seed = seed;
+        this.questionOrder = questionOrder;
+        this.optionOffsets = optionOffsets;
+        this.optionOrder = optionOrder;
+    }
+
+    // Puts the paper in canonical (id) order so every load path - cache, package, bundle, query -
+    // produces the same permutation for the same student
+    public static void canonicalize(List<Question> questions) {
+        Collections.sort(questions, BY_ID);
+    }
+
+    // questions must already be canonical
+    public static PaperShuffle create(String studentId, String examId, List<Question> questions) {
+        long seed = seedFor(studentId, examId);
+        int count = questions.size();
+
+        int[] optionOffsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            optionOffsets[i + 1] = optionOffsets[i] + optionCount(questions.get(i));
+        }
+
+        int[] questionOrder = identity(count);
+        long state = permute(questionOrder, 0, count, seed);
+        int[] optionOrder = new int[optionOffsets[count]];
+        for (int i = 0; i < count; i++) {
+            // Option indices are relative to their question
+            int offset = optionOffsets[i];
+            int length = optionOffsets[i + 1] - offset;
+            for (int j = 0; j < length; j++) {
+                optionOrder[offset + j] = j;
+            }
+            state = permute(optionOrder, offset, length, state);
+        }
+        return new PaperShuffle(seed, questionOrder, optionOffsets, optionOrder);
+    }
+
+    // Rebuilds the shuffle recorded on an attempt; null for attempts made before shuffling
+    public static PaperShuffle fromAttempt(DocumentSnapshot attempt) {
+        Long seed = attempt.getLong(FIELD_SEED);
+        Blob questionBlob = attempt.getBlob(FIELD_QUESTION_ORDER);
+        Blob optionBlob = attempt.getBlob(FIELD_OPTION_ORDER);
+        if (seed == null || questionBlob == null || optionBlob == null) return null;
+        return fromPacked(seed, questionBlob.toBytes(), optionBlob.toBytes());
+    }
+
+    static PaperShuffle fromPacked(long seed, byte[] packedQuestions, byte[] packedOptions) {
+        int[] questionOrder = unpack(packedQuestions);
+        int[] optionLengthsAndOrder = unpack(packedOptions);
+        // Option blob: one length per question, then the concatenated option permutations
+        int count = questionOrder.length;
+        int[] optionOffsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            optionOffsets[i + 1] = optionOffsets[i] + optionLengthsAndOrder[i];
+        }
+        int[] optionOrder = new int[optionOffsets[count]];
+        System.arraycopy(optionLengthsAndOrder, count, optionOrder, 0, optionOrder.length);
+        return new PaperShuffle(seed, questionOrder, optionOffsets, optionOrder);
+    }
+
+    public int size() {
+        return questionOrder.length;
+    }
+
+    public int originalQuestion(int displayIndex) {
+        return questionOrder[displayIndex];
+    }
+
+    public int originalOption(int originalQuestion, int displayOption) {
+        return optionOrder[optionOffsets[originalQuestion] + displayOption];
+    }
+
+    // Options of an original question in the order this student sees them
+    public List<String> displayedOptions(int originalQuestion, List<String> options) {
+        int length = optionOffsets[originalQuestion + 1] - optionOffsets[originalQuestion];
+        List<String> displayed = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            displayed.add(options.get(originalOption(originalQuestion, i)));
+        }
+        return displayed;
+    }
+
+    public Map<String, Object> toAttemptFields() {
+        int count = questionOrder.length;
+        int[] optionLengthsAndOrder = new int[count + optionOrder.length];
+        for (int i = 0; i < count; i++) {
+            optionLengthsAndOrder[i] = optionOffsets[i + 1] - optionOffsets[i];
+        }
+        System.arraycopy(optionOrder, 0, optionLengthsAndOrder, count, optionOrder.length);
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(FIELD_SEED, seed);
+        fields.put(FIELD_QUESTION_ORDER, Blob.fromBytes(pack(questionOrder)));
+        fields.put(FIELD_OPTION_ORDER, Blob.fromBytes(pack(optionLengthsAndOrder)));
+        return fields;
+    }
+
+    // FNV-1a over both ids, then one splitmix64 round so similar ids give unrelated seeds
+    static long seedFor(String studentId, String examId) {
+        long hash = 0xcbf29ce484222325L;
+        String key = studentId + "\u0000" + examId;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // In-place Fisher-Yates over array[offset, offset + length); returns the advanced state so
+    // consecutive calls draw from one stream without allocating a Random per question
+    static long permute(int[] array, int offset, int length, long state) {
+        for (int i = length - 1; i > 0; i--) {
+            state += 0x9e3779b97f4a7c15L;
+            int j = (int) ((mix(state) >>> 1) % (i + 1));
+            int tmp = array[offset + i];
+            array[offset + i] = array[offset + j];
+            array[offset + j] = tmp;
+        }
+        return state;
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int optionCount(Question question) {
+        return "MCQ".equals(question.getType()) && question.getOptions() != null
+                ? question.getOptions().size() : 0;
+    }
+
+    private static int[] identity(int length) {
+        int[] array = new int[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = i;
+        }
+        return array;
+    }
+
+    private static byte[] pack(int[] values) {
+        byte[] packed = new byte[values.length * 2];
+        for (int i = 0; i < values.length; i++) {
+            packed[2 * i] = (byte) (values[i] >>> 8);
+            packed[2 * i + 1] = (byte) values[i];
+        }
+        return packed;
+    }
+
+    private static int[] unpack(byte[] packed) {
+        int[] values = new int[packed.length / 2];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ((packed[2 * i] & 0xff) << 8) | (packed[2 * i + 1] & 0xff);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.exam_portal_app;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Declarative description of a Firestore query the app issues. The same shape both builds the
+// Query at runtime and tells IndexPlan which composite index (if any) serves it, so the two
+// cannot drift apart.
+public final class QueryShape {
+
+    enum Kind {EQUAL, IN, ARRAY_CONTAINS, LESS_THAN, GREATER_THAN, ORDER_BY, LIMIT}
+
+    static final class Clause {
+        final Kind kind;
+        final String field;
+        final boolean descending;
+        final long limit;
+
+        Clause(Kind kind, String field, boolean descending, long limit) {
+            this.kind = kind;
+            this.field = field;
+            this.descending = descending;
+            this.limit = limit;
+        }
+
+        boolean isEquality() {
+            return kind == Kind.EQUAL || kind == Kind.IN || kind == Kind.ARRAY_CONTAINS;
+        }
+
+        boolean isRange() {
+            return kind == Kind.LESS_THAN || kind == Kind.GREATER_THAN;
+        }
+    }
+
+    private final String name;
+    private final String collection;
+    private final List<Clause> clauses = new ArrayList<>();
+
+    public QueryShape(String name, String collection) {
+        this.name = name;
+        this.collection = collection;
+    }
+
+    public QueryShape whereEqualTo(String field) {
+        clauses.add(new Clause(Kind.EQUAL, field, false, 0));
+        return this;
+    }
+
+    public QueryShape whereIn(String field) {
+        clauses.add(new Clause(Kind.IN, field, false, 0));
+        return this;
+    }
+
+    public QueryShape whereArrayContains(String field) {
+        clauses.add(new Clause(Kind.ARRAY_CONTAINS, field, false, 0));
+        return this;
+    }
+
+    public QueryShape whereLessThan(String field) {
+        clauses.add(new Clause(Kind.LESS_THAN, field, false, 0));
+        return this;
+    }
+
+    public QueryShape whereGreaterThan(String field) {
+        clauses.add(new Clause(Kind.GREATER_THAN, field, false, 0));
+        return this;
+    }
+
+    public QueryShape orderBy(String field, boolean descending) {
+        clauses.add(new Clause(Kind.ORDER_BY, field, descending, 0));
+        return this;
+    }
+
+    public QueryShape limit(long limit) {
+        clauses.add(new Clause(Kind.LIMIT, null, false, limit));
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    List<Clause> getClauses() {
+        return Collections.unmodifiableList(clauses);
+    }
+
+    // Builds the query; values fill the where-clauses in declaration order (a List for whereIn)
+    public Query build(FirebaseFirestore db, Object... values) {
+        return build(db.collection(collection), values);
+    }
+
+    // For subcollections such as Users/{uid}/my_exams, whose last path segment is the collection
+    public Query build(Query base, Object... values) {
+        Query query = base;
+        int next = 0;
+        for (Clause clause : clauses) {
+            switch (clause.kind) {
+                case EQUAL:
+                    query = query.whereEqualTo(clause.field, values[next++]);
+                    break;
+                case IN:
+                    query = query.whereIn(clause.field, (List<?>) values[next++]);
+                    break;
+                case ARRAY_CONTAINS:
+                    query = query.whereArrayContains(clause.field, values[next++]);
+                    break;
+                case LESS_THAN:
+                    query = query.whereLessThan(clause.field, values[next++]);
+                    break;
+                case GREATER_THAN:
+                    query = query.whereGreaterThan(clause.field, values[next++]);
+                    break;
+                case ORDER_BY:
+                    query = query.orderBy(clause.field,
+                            clause.descending ? Query.Direction.DESCENDING : Query.Direction.ASCENDING);
+                    break;
+                case LIMIT:
+                    query = query.limit(clause.limit);
+                    break;
+            }
+        }
+        if (next != values.length) {
+            throw new IllegalArgumentException(name + " expects " + next + " values, got " + values.length);
+        }
+        return query;
+    }
+
+    // Single-field indexes serve equality-only queries (by merging) and queries touching one field.
+    // Equality on one field combined with a range/order on another needs a composite index.
+    public boolean needsCompositeIndex() {
+        return compositeIndexFields().size() > 1;
+    }
+
+    // Fields of the serving composite index: equality fields first, then range/order fields
+    List<Clause> compositeIndexFields() {
+        List<Clause> equality = new ArrayList<>();
+        List<Clause> ordering = new ArrayList<>();
+        for (Clause clause : clauses) {
+            if (clause.isEquality()) {
+                equality.add(clause);
+            } else if (clause.isRange() || clause.kind == Kind.ORDER_BY) {
+                boolean seen = false;
+                for (Clause existing : ordering) {
+                    seen |= existing.field.equals(clause.field);
+                }
+                if (!seen) {
+                    ordering.add(clause);
+                }
+            }
+        }
+        if (ordering.isEmpty() && !hasArrayContains(equality)) {
+            return Collections.emptyList();
+        }
+        List<Clause> fields = new ArrayList<>(equality);
+        fields.addAll(ordering);
+        return fields;
+    }
+
+    // array-contains cannot be merged with other equality filters, it always needs a composite
+    private static boolean hasArrayContains(List<Clause> equality) {
+        if (equality.size() < 2) return false;
+        for (Clause clause : equality) {
+            if (clause.kind == Kind.ARRAY_CONTAINS) return true;
+        }
+        return false;
+    }
+}
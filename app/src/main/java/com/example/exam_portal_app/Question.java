@@ -11,6 +11,8 @@ public class Question implements Serializable {
     private String correctAnswer; // For MCQ/subjective questions
     private String codeTemplate; // For coding questions
     private String examId;
+    private String topic; // Pool tagging for blueprint exams
+    private String difficulty; // "easy", "medium", "hard"
 
     public Question() {
     }
@@ -83,6 +85,22 @@ public class Question implements Serializable {
         this.examId = examId;
     }
 
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
     // Method to check if an answer is correct (for MCQ/subjective)
     public boolean isCorrect(String userAnswer) {
         if (userAnswer == null || correctAnswer == null) return false;
@@ -0,0 +1,132 @@
+package com.example.exam_portal_app;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// In-memory question pool indexed by topic and difficulty. Each stratum is a packed int[] of
+// positions into the question list, so PaperGenerator can pick the k-th question of a stratum in
+// O(1) and never walks the bank. Every question is indexed twice: under its difficulty and under
+// "any difficulty" for the topic.
+public final class QuestionBank {
+
+    private static final String TAG = "QuestionBank";
+    private static final int WHERE_IN_LIMIT = 30;
+    private static final int[] EMPTY = new int[0];
+    // Positions must not depend on the order the questions arrived in (load() merges
+    // its chunks as they complete), or the same seed would draw a different paper
+    private static final Comparator<Question> BY_ID =
+            Comparator.comparing(Question::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final List<Question> questions;
+    private final Map<String, int[]> strata;
+
+    public interface OnBankLoadedListener {
+        void onBankLoaded(QuestionBank bank);
+
+        void onBankFailed(Exception e);
+    }
+
+    public QuestionBank(List<Question> questions) {
+        this.questions = new ArrayList<>(questions);
+        Collections.sort(this.questions, BY_ID);
+
+        Map<String, int[]> counts = new HashMap<>();
+        for (Question question : this.questions) {
+            for (String key : keysOf(question)) {
+                int[] count = counts.get(key);
+                if (count == null) {
+                    counts.put(key, new int[]{1});
+                } else {
+                    count[0]++;
+                }
+            }
+        }
+
+        strata = new HashMap<>();
+        Map<String, int[]> fill = new HashMap<>();
+        for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+            strata.put(entry.getKey(), new int[entry.getValue()[0]]);
+            fill.put(entry.getKey(), new int[1]);
+        }
+        for (int i = 0; i < this.questions.size(); i++) {
+            for (String key : keysOf(this.questions.get(i))) {
+                strata.get(key)[fill.get(key)[0]++] = i;
+            }
+        }
+    }
+
+    public int size() {
+        return questions.size();
+    }
+
+    public Question get(int index) {
+        return questions.get(index);
+    }
+
+    int[] stratum(PaperBlueprint.Rule rule) {
+        int[] stratum = strata.get(key(rule.topic, rule.difficulty));
+        return stratum != null ? stratum : EMPTY;
+    }
+
+    public int stratumSize(PaperBlueprint.Rule rule) {
+        return stratum(rule).length;
+    }
+
+    // Loads every question tagged with one of the topics; one query per 30 topics
+    public static void load(FirebaseFirestore db, List<String> topics, OnBankLoadedListener listener) {
+        List<List<String>> chunks = NotificationDispatcher.partition(topics, WHERE_IN_LIMIT);
+        if (chunks.isEmpty()) {
+            listener.onBankLoaded(new QuestionBank(new ArrayList<>()));
+            return;
+        }
+
+        List<Question> questions = new ArrayList<>();
+        int[] remaining = {chunks.size()};
+        boolean[] failed = {false};
+        for (List<String> chunk : chunks) {
+            FirestoreOps.read(ExamQueries.QUESTIONS_FOR_TOPICS.getName(), ExamQueries.questionsForTopics(db, chunk).get())
+                    .addOnSuccessListener(snapshots -> {
+                        for (QueryDocumentSnapshot document : snapshots) {
+                            Question question = document.toObject(Question.class);
+                            question.setId(document.getId());
+                            questions.add(question);
+                        }
+                        if (--remaining[0] == 0 && !failed[0]) {
+                            Log.d(TAG, "Loaded " + questions.size() + " bank questions for " + topics.size() + " topics");
+                            listener.onBankLoaded(new QuestionBank(questions));
+                        }
+                    })
+                    .addOnFailureListener(e -> {
+                        if (!failed[0]) {
+                            failed[0] = true;
+                            listener.onBankFailed(e);
+                        }
+                    });
+        }
+    }
+
+    private static String[] keysOf(Question question) {
+        String topic = question.getTopic() != null ? question.getTopic().trim().toLowerCase() : "";
+        String difficulty = question.getDifficulty() != null ? question.getDifficulty().trim().toLowerCase() : "";
+        if (topic.isEmpty()) {
+            return new String[0];
+        }
+        if (difficulty.isEmpty()) {
+            return new String[]{key(topic, PaperBlueprint.ANY_DIFFICULTY)};
+        }
+        return new String[]{key(topic, difficulty), key(topic, PaperBlueprint.ANY_DIFFICULTY)};
+    }
+
+    private static String key(String topic, String difficulty) {
+        return topic + "|" + difficulty;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.exam_portal_app;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compact binary form of a question list, written and read as a stream so a packed paper can be
+// decoded straight into Question objects without an intermediate copy. Only the student-facing
+// fields are written; correct answers never leave the teacher side.
+//
+// [int count] then per question: id, questionText, type, examId, codeTemplate,
+// [int optionCount] options... where each string is [int byteLength or -1 for null][UTF-8 bytes]
+public final class QuestionCodec {
+
+    private static final int MAX_STRING_BYTES = 1 << 20;
+    private static final int MAX_COUNT = 100_000;
+
+    public interface OnQuestionDecodedListener {
+        void onQuestionDecoded(Question question);
+    }
+
+    private QuestionCodec() {
+    }
+
+    public static void write(DataOutputStream out, List<Question> questions) throws IOException {
+        out.writeInt(questions.size());
+        for (Question question : questions) {
+            writeString(out, question.getId());
+            writeString(out, question.getQuestionText());
+            writeString(out, question.getType());
+            writeString(out, question.getExamId());
+            writeString(out, question.getCodeTemplate());
+            List<String> options = question.getOptions();
+            if (options == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(options.size());
+                for (String option : options) {
+                    writeString(out, option);
+                }
+            }
+        }
+    }
+
+    public static void read(DataInputStream in, OnQuestionDecodedListener listener) throws IOException {
+        int count = in.readInt();
+        checkCount(count);
+        for (int i = 0; i < count; i++) {
+            Question question = new Question();
+            question.setId(readString(in));
+            question.setQuestionText(readString(in));
+            question.setType(readString(in));
+            question.setExamId(readString(in));
+            question.setCodeTemplate(readString(in));
+            int optionCount = in.readInt();
+            if (optionCount >= 0) {
+                checkCount(optionCount);
+                List<String> options = new ArrayList<>(optionCount);
+                for (int j = 0; j < optionCount; j++) {
+                    options.add(readString(in));
+                }
+                question.setOptions(options);
+            }
+            listener.onQuestionDecoded(question);
+        }
+    }
+
+    public static List<Question> readAll(DataInputStream in) throws IOException {
+        List<Question> questions = new ArrayList<>();
+        read(in, questions::add);
+        return questions;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        if (length > MAX_STRING_BYTES) {
+            throw new IOException("String too long: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void checkCount(int count) throws IOException {
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IOException("Corrupt count: " + count);
+        }
+    }
+}
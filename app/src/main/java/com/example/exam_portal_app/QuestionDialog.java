@@ -22,16 +22,20 @@ public class QuestionDialog extends Dialog {
     private final Context context;
     private final Question question;
     private final OnQuestionSavedListener listener;
-    private EditText questionTextEditText, answerEditText, codeTemplateEditText;
-    private Spinner typeSpinner;
+    // Exams the question can be attached to; position 0 of examSpinner is "no exam"
+    private final List<Exam> exams;
+    private EditText questionTextEditText, answerEditText, codeTemplateEditText, topicEditText;
+    private Spinner examSpinner, typeSpinner, difficultySpinner;
     private List<EditText> optionEditTexts;
     private Button saveButton, deleteButton, addOptionButton;
     private LinearLayout optionsContainer;
 
-    public QuestionDialog(@NonNull Context context, Question question, OnQuestionSavedListener listener) {
+    public QuestionDialog(@NonNull Context context, Question question, List<Exam> exams,
+                          OnQuestionSavedListener listener) {
         super(context);
         this.context = context;
         this.question = question;
+        this.exams = exams != null ? exams : new ArrayList<>();
         this.listener = listener;
         this.optionEditTexts = new ArrayList<>();
     }
@@ -43,15 +47,19 @@ public class QuestionDialog extends Dialog {
 
         initializeViews();
         setupTypeSpinner();
+        setupExamSpinner();
         populateExistingQuestion();
         setupListeners();
     }
 
     private void initializeViews() {
         questionTextEditText = findViewById(R.id.questionTextEditText);
+        examSpinner = findViewById(R.id.examSpinner);
         typeSpinner = findViewById(R.id.typeSpinner);
         answerEditText = findViewById(R.id.answerEditText);
         codeTemplateEditText = findViewById(R.id.codeTemplateEditText);
+        topicEditText = findViewById(R.id.topicEditText);
+        difficultySpinner = findViewById(R.id.difficultySpinner);
         saveButton = findViewById(R.id.saveButton);
         deleteButton = findViewById(R.id.deleteButton);
         addOptionButton = findViewById(R.id.addOptionButton);
@@ -70,16 +78,55 @@ public class QuestionDialog extends Dialog {
                     R.array.question_types, android.R.layout.simple_spinner_item);
             adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
             typeSpinner.setAdapter(adapter);
+
+            ArrayAdapter<CharSequence> difficultyAdapter = ArrayAdapter.createFromResource(context,
+                    R.array.difficulty_levels, android.R.layout.simple_spinner_item);
+            difficultyAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+            difficultySpinner.setAdapter(difficultyAdapter);
         } catch (Exception e) {
             Toast.makeText(context, "Error setting up question types", Toast.LENGTH_SHORT).show();
         }
     }
 
+    private void setupExamSpinner() {
+        List<String> titles = new ArrayList<>();
+        titles.add("Not in an exam");
+        int selected = 0;
+        for (int i = 0; i < exams.size(); i++) {
+            Exam exam = exams.get(i);
+            titles.add(exam.getTitle());
+            if (question != null && exam.getId().equals(question.getExamId())) {
+                selected = i + 1;
+            }
+        }
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(context, android.R.layout.simple_spinner_item, titles);
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        examSpinner.setAdapter(adapter);
+        examSpinner.setSelection(selected);
+    }
+
+    // Keeps the current exam when it is not in the list (e.g. already closed)
+    private String selectedExamId() {
+        int position = examSpinner.getSelectedItemPosition();
+        if (position > 0) {
+            return exams.get(position - 1).getId();
+        }
+        boolean listed = false;
+        if (question != null) {
+            for (Exam exam : exams) {
+                listed |= exam.getId().equals(question.getExamId());
+            }
+        }
+        return question != null && !listed ? question.getExamId() : "";
+    }
+
     private void populateExistingQuestion() {
         if (question != null) {
             questionTextEditText.setText(question.getQuestionText());
             int typeIndex = getIndex(typeSpinner, question.getType());
             typeSpinner.setSelection(typeIndex);
+            topicEditText.setText(question.getTopic());
+            difficultySpinner.setSelection(getIndex(difficultySpinner, question.getDifficulty()));
 
             updateViewsForType(question.getType());
 
@@ -226,9 +273,15 @@ public class QuestionDialog extends Dialog {
                     type.equals("MCQ") ? options : null,
                     type.equals("MCQ") || type.equals("subjective") ? answer : null,
                     type.equals("coding") ? codeTemplate : null,
-                    question != null ? question.getExamId() : null
+                    selectedExamId()
             );
 
+            String topic = topicEditText.getText().toString().trim();
+            if (!topic.isEmpty()) {
+                newQuestion.setTopic(topic.toLowerCase());
+                newQuestion.setDifficulty(difficultySpinner.getSelectedItem().toString());
+            }
+
             if (listener != null) {
                 listener.onQuestionSaved(newQuestion);
             }
@@ -0,0 +1,166 @@
+package com.example.exam_portal_app;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Questions are stored in three parts so students only download what they need:
+//   questions/{id}           light projection: questionText, type, options, examId, topic, difficulty
+//   question_answers/{id}    correctAnswer - teachers/admins only, never read on a student device
+//   question_templates/{id}  codeTemplate - loaded lazily when a coding question scrolls into view
+// firestore.rules denies students read access to question_answers.
+public final class QuestionStore {
+
+    private static final String TAG = "QuestionStore";
+    public static final String PROJECTIONS = "questions";
+    public static final String ANSWERS = "question_answers";
+    public static final String TEMPLATES = "question_templates";
+
+    // migrations/{name} marker of splitLegacyQuestions
+    public static final String SPLIT_MIGRATION = "split_questions_v1";
+
+    private static final int BATCH_LIMIT = 500;
+
+    public interface OnQuestionsLoadedListener {
+        void onQuestionsLoaded(List<Question> questions);
+
+        void onQuestionsFailed(Exception e);
+    }
+
+    private QuestionStore() {
+    }
+
+    // Assigns an id to new questions; all three parts are written atomically
+    public static Task<Void> save(Question question) {
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        if (question.getId() == null) {
+            question.setId(db.collection(PROJECTIONS).document().getId());
+        }
+        WriteBatch batch = db.batch();
+        writeParts(db, batch, question);
+        return FirestoreOps.write("saveQuestion", batch.commit(), 3, FirestoreOps.sizeOf(projectionOf(question)));
+    }
+
+    public static Task<Void> delete(Question question) {
+        FirebaseFirestore db = FirebaseProvider.getFirestore();
+        WriteBatch batch = db.batch();
+        batch.delete(db.collection(PROJECTIONS).document(question.getId()));
+        batch.delete(db.collection(ANSWERS).document(question.getId()));
+        batch.delete(db.collection(TEMPLATES).document(question.getId()));
+        return FirestoreOps.write("deleteQuestion", batch.commit(), 3, 0);
+    }
+
+    // Teacher view: projections joined with their answers and templates (three queries in total)
+    public static void loadWithSecureParts(FirebaseFirestore db, OnQuestionsLoadedListener listener) {
+        Task<QuerySnapshot> projections = FirestoreOps.read(ExamQueries.ALL_QUESTIONS.getName(),
+                ExamQueries.allQuestions(db).get());
+        Task<QuerySnapshot> answers = FirestoreOps.read("loadQuestionAnswers", db.collection(ANSWERS).get());
+        Task<QuerySnapshot> templates = FirestoreOps.read("loadQuestionTemplates", db.collection(TEMPLATES).get());
+        Tasks.whenAllSuccess(projections, answers, templates)
+                .addOnSuccessListener(results -> {
+                    Map<String, String> answerById = fieldById(answers.getResult(), "correctAnswer");
+                    Map<String, String> templateById = fieldById(templates.getResult(), "codeTemplate");
+                    List<Question> questions = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : projections.getResult()) {
+                        Question question = document.toObject(Question.class);
+                        question.setId(document.getId());
+                        // Legacy documents still carry both fields inline until splitLegacyQuestions runs
+                        if (answerById.containsKey(document.getId())) {
+                            question.setCorrectAnswer(answerById.get(document.getId()));
+                        }
+                        if (templateById.containsKey(document.getId())) {
+                            question.setCodeTemplate(templateById.get(document.getId()));
+                        }
+                        questions.add(question);
+                    }
+                    listener.onQuestionsLoaded(questions);
+                })
+                .addOnFailureListener(listener::onQuestionsFailed);
+    }
+
+    // One-off migration (run through Migrations under SPLIT_MIGRATION) for questions written before
+    // the split: moves correctAnswer and codeTemplate out of the student-readable projection
+    public static Task<Void> splitLegacyQuestions(FirebaseFirestore db) {
+        return FirestoreOps.read(ExamQueries.ALL_QUESTIONS.getName(), ExamQueries.allQuestions(db).get())
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    List<DocumentSnapshot> legacy = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : task.getResult()) {
+                        if (document.contains("correctAnswer") || document.contains("codeTemplate")) {
+                            legacy.add(document);
+                        }
+                    }
+                    // Each question takes up to three writes
+                    List<Task<Void>> commits = new ArrayList<>();
+                    for (List<DocumentSnapshot> chunk : NotificationDispatcher.partition(legacy, BATCH_LIMIT / 3)) {
+                        WriteBatch batch = db.batch();
+                        long bytes = 0;
+                        for (DocumentSnapshot document : chunk) {
+                            Question question = document.toObject(Question.class);
+                            question.setId(document.getId());
+                            writeParts(db, batch, question);
+                            bytes += FirestoreOps.sizeOf(document);
+                        }
+                        commits.add(FirestoreOps.write("splitLegacyQuestions", batch.commit(), chunk.size() * 3, bytes));
+                    }
+                    return Tasks.whenAll(commits)
+                            .addOnSuccessListener(aVoid -> Log.d(TAG, "Split " + legacy.size() + " legacy questions"));
+                });
+    }
+
+    static Map<String, Object> projectionOf(Question question) {
+        Map<String, Object> projection = new HashMap<>();
+        projection.put("questionText", question.getQuestionText());
+        projection.put("type", question.getType());
+        projection.put("options", question.getOptions());
+        projection.put("examId", question.getExamId() != null ? question.getExamId() : "");
+        projection.put("topic", question.getTopic());
+        projection.put("difficulty", question.getDifficulty());
+        // Set explicitly so an update also strips fields left by the pre-split format
+        projection.put("correctAnswer", FieldValue.delete());
+        projection.put("codeTemplate", FieldValue.delete());
+        return projection;
+    }
+
+    private static void writeParts(FirebaseFirestore db, WriteBatch batch, Question question) {
+        String id = question.getId();
+        DocumentReference projectionRef = db.collection(PROJECTIONS).document(id);
+        batch.set(projectionRef, projectionOf(question), SetOptions.merge());
+
+        Map<String, Object> answer = new HashMap<>();
+        answer.put("correctAnswer", question.getCorrectAnswer());
+        answer.put("examId", question.getExamId());
+        batch.set(db.collection(ANSWERS).document(id), answer);
+
+        if (question.getCodeTemplate() != null && !question.getCodeTemplate().isEmpty()) {
+            Map<String, Object> template = new HashMap<>();
+            template.put("codeTemplate", question.getCodeTemplate());
+            template.put("examId", question.getExamId());
+            batch.set(db.collection(TEMPLATES).document(id), template);
+        } else {
+            batch.delete(db.collection(TEMPLATES).document(id));
+        }
+    }
+
+    private static Map<String, String> fieldById(QuerySnapshot snapshots, String field) {
+        Map<String, String> values = new HashMap<>();
+        for (QueryDocumentSnapshot document : snapshots) {
+            values.put(document.getId(), document.getString(field));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.exam_portal_app;
+
+// Token bucket shared by all dispatcher threads. acquire() blocks until a permit is available,
+// allowing short bursts up to the bucket size while holding the long-run rate. Main-thread users
+// call tryAcquire() and reschedule after millisUntilPermit() instead of blocking.
+public class RateLimiter {
+
+    private final double permitsPerNano;
+    private final double maxPermits;
+    private double availablePermits;
+    private long lastRefillNanos;
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.maxPermits = Math.max(1, burst);
+        this.availablePermits = maxPermits;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (availablePermits >= 1) {
+                    availablePermits -= 1;
+                    return;
+                }
+                waitNanos = (long) ((1 - availablePermits) / permitsPerNano);
+            }
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (availablePermits >= 1) {
+            availablePermits -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized long millisUntilPermit() {
+        refill();
+        if (availablePermits >= 1) return 0;
+        return (long) Math.ceil((1 - availablePermits) / permitsPerNano / 1_000_000d);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        availablePermits = Math.min(maxPermits, availablePermits + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+    }
+}
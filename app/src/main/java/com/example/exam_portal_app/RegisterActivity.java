@@ -20,7 +20,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class RegisterActivity extends AppCompatActivity {
-    private EditText nameEditText, emailEditText, passwordEditText;
+    private EditText nameEditText, emailEditText, passwordEditText, sectionsEditText;
     private Spinner roleSpinner;
     private Button submitRegisterButton;
     private FirebaseAuth mAuth;
@@ -35,10 +35,11 @@ public class RegisterActivity extends AppCompatActivity {
         emailEditText = findViewById(R.id.emailEditText);
         passwordEditText = findViewById(R.id.passwordEditText);
         roleSpinner = findViewById(R.id.roleSpinner);
+        sectionsEditText = findViewById(R.id.sectionsEditText);
         submitRegisterButton = findViewById(R.id.submitRegisterButton);
 
-        mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        mAuth = FirebaseProvider.getAuth();
+        db = FirebaseProvider.getFirestore();
 
         ArrayAdapter<CharSequence> adapter = ArrayAdapter.createFromResource(this,
                 R.array.role_options, android.R.layout.simple_spinner_item);
@@ -89,7 +90,13 @@ public class RegisterActivity extends AppCompatActivity {
         userData.put("email", user.getEmail());
         userData.put("role", role);
 
-        db.collection("Users").document(user.getUid()).set(userData).addOnSuccessListener(aVoid -> {
+        FirestoreOps.write("registerUser", db.collection("Users").document(user.getUid()).set(userData), 1,
+                FirestoreOps.sizeOf(userData)).addOnSuccessListener(aVoid -> {
+            if ("student".equalsIgnoreCase(role)) {
+                for (String sectionId : EnrollmentRegistry.parseSections(sectionsEditText.getText().toString())) {
+                    EnrollmentRegistry.enroll(user.getUid(), sectionId);
+                }
+            }
             Toast.makeText(RegisterActivity.this, "Registration Successful", Toast.LENGTH_SHORT).show();
             startActivity(new Intent(RegisterActivity.this, MainActivity.class));
             finish();
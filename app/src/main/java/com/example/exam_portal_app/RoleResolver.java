@@ -0,0 +1,138 @@
+package com.example.exam_portal_app;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Resolves a user's role from Firebase Auth ID-token custom claims ("role": "student" | "teacher" | "admin").
+// Callers fall back to their Firestore role reads only when the token carries no role claim, and
+// only a role confirmed by the Teacher/Admin collections is cached, never the self-chosen Users.role.
+public class RoleResolver {
+
+    private static final String TAG = "RoleResolver";
+    public static final String CLAIM_ROLE = "role";
+
+    private static RoleResolver instance;
+
+    private ClaimsSource claimsSource;
+    private final Map<String, String> roleCache = new HashMap<>();
+
+    public interface ClaimsSource {
+        void loadClaims(String uid, OnClaimsLoadedListener listener);
+    }
+
+    public interface OnClaimsLoadedListener {
+        void onClaimsLoaded(@Nullable Map<String, Object> claims);
+    }
+
+    public interface OnRoleResolvedListener {
+        // role is lower-case, or null when the token has no role claim
+        void onRoleResolved(@Nullable String role);
+    }
+
+    private RoleResolver(ClaimsSource claimsSource) {
+        this.claimsSource = claimsSource;
+    }
+
+    public static synchronized RoleResolver getInstance() {
+        if (instance == null) {
+            instance = new RoleResolver(new FirebaseClaimsSource());
+        }
+        return instance;
+    }
+
+    // Lets tests swap in a LocalClaimsSource instead of real ID tokens
+    public synchronized void setClaimsSource(ClaimsSource claimsSource) {
+        this.claimsSource = claimsSource;
+        roleCache.clear();
+    }
+
+    public void resolveRole(String uid, OnRoleResolvedListener listener) {
+        String cachedRole = getCachedRole(uid);
+        if (cachedRole != null) {
+            listener.onRoleResolved(cachedRole);
+            return;
+        }
+
+        ClaimsSource source;
+        synchronized (this) {
+            source = claimsSource;
+        }
+        source.loadClaims(uid, claims -> {
+            String role = roleFromClaims(claims);
+            if (role != null) {
+                cacheVerifiedRole(uid, role);
+            }
+            listener.onRoleResolved(role);
+        });
+    }
+
+    // Remember a role confirmed by the authoritative Teacher/Admin collection check so it is read at
+    // most once per session. Never call this with the user-writable Users.role field.
+    public synchronized void cacheVerifiedRole(String uid, String role) {
+        if (uid != null && role != null) {
+            roleCache.put(uid, role.toLowerCase());
+        }
+    }
+
+    public synchronized void clear() {
+        roleCache.clear();
+    }
+
+    private synchronized String getCachedRole(String uid) {
+        return uid != null ? roleCache.get(uid) : null;
+    }
+
+    static String roleFromClaims(@Nullable Map<String, Object> claims) {
+        if (claims == null) return null;
+        Object role = claims.get(CLAIM_ROLE);
+        if (role instanceof String && !((String) role).trim().isEmpty()) {
+            return ((String) role).trim().toLowerCase();
+        }
+        return null;
+    }
+
+    // Reads claims from the cached ID token; no network round trip unless the token has expired
+    static class FirebaseClaimsSource implements ClaimsSource {
+        @Override
+        public void loadClaims(String uid, OnClaimsLoadedListener listener) {
+            FirebaseUser user = FirebaseProvider.getAuth().getCurrentUser();
+            if (user == null || !user.getUid().equals(uid)) {
+                listener.onClaimsLoaded(null);
+                return;
+            }
+            user.getIdToken(false)
+                    .addOnSuccessListener(result -> listener.onClaimsLoaded(result.getClaims()))
+                    .addOnFailureListener(e -> {
+                        Log.w(TAG, "Failed to read ID token claims: " + e.getMessage());
+                        listener.onClaimsLoaded(null);
+                    });
+        }
+    }
+
+    // In-memory stand-in for tests and the emulator, where custom claims cannot be minted locally
+    public static class LocalClaimsSource implements ClaimsSource {
+        private final Map<String, Map<String, Object>> claimsByUid = new HashMap<>();
+
+        public synchronized LocalClaimsSource putRole(String uid, String role) {
+            Map<String, Object> claims = new HashMap<>();
+            claims.put(CLAIM_ROLE, role);
+            claimsByUid.put(uid, claims);
+            return this;
+        }
+
+        @Override
+        public void loadClaims(String uid, OnClaimsLoadedListener listener) {
+            Map<String, Object> claims;
+            synchronized (this) {
+                claims = claimsByUid.get(uid);
+            }
+            listener.onClaimsLoaded(claims);
+        }
+    }
+}
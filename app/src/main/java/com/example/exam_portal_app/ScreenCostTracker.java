@@ -0,0 +1,123 @@
+package com.example.exam_portal_app;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.content.res.Resources;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+// Attributes every FirestoreOps read/write to the screen in the foreground when the operation
+// started and checks the soft read budgets in config.xml. Over-budget reads are logged in every
+// build and additionally toasted in debuggable builds so regressions are noticed during testing.
+public final class ScreenCostTracker implements Application.ActivityLifecycleCallbacks {
+
+    private static final String TAG = "ScreenCostTracker";
+    static final String NO_SCREEN = "background";
+
+    private static final ScreenCostTracker INSTANCE = new ScreenCostTracker();
+
+    private volatile CostLedger ledger = new CostLedger(Long.MAX_VALUE, Long.MAX_VALUE, Collections.emptyMap());
+    private volatile String currentScreen = NO_SCREEN;
+    private Application application;
+    private boolean debuggable;
+    private Handler mainHandler;
+
+    private ScreenCostTracker() {
+    }
+
+    public static ScreenCostTracker getInstance() {
+        return INSTANCE;
+    }
+
+    void onApplicationCreate(Application application) {
+        this.application = application;
+        mainHandler = new Handler(Looper.getMainLooper());
+        Resources resources = application.getResources();
+        debuggable = (application.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        ledger = new CostLedger(resources.getInteger(R.integer.query_read_budget),
+                resources.getInteger(R.integer.screen_read_budget),
+                CostLedger.parseBudgets(resources.getStringArray(R.array.screen_read_budgets)));
+        application.registerActivityLifecycleCallbacks(this);
+    }
+
+    String currentScreen() {
+        return currentScreen;
+    }
+
+    void record(String screen, String op, long reads, long writes) {
+        for (String violation : ledger.record(screen, op, reads, writes)) {
+            Log.w(TAG, "Read budget exceeded: " + violation);
+            Telemetry.getInstance().record(TelemetryEvent.BUDGET, screen + "/" + op, reads);
+            if (debuggable && application != null) {
+                mainHandler.post(() -> Toast.makeText(application, "Read budget: " + violation, Toast.LENGTH_LONG).show());
+            }
+        }
+    }
+
+    List<CostLedger.Cost> topOffenders(int limit) {
+        return ledger.topOffenders(limit);
+    }
+
+    String topOffendersJson(int limit) {
+        StringBuilder json = new StringBuilder("[");
+        List<CostLedger.Cost> costs = topOffenders(limit);
+        for (int i = 0; i < costs.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append(costs.get(i).toJson());
+        }
+        return json.append(']').toString();
+    }
+
+    public void reset() {
+        ledger.reset();
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {
+        String screen = activity.getClass().getSimpleName();
+        currentScreen = screen;
+        ledger.startVisit(screen);
+    }
+
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {
+        currentScreen = activity.getClass().getSimpleName();
+    }
+
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {
+        if (activity.getClass().getSimpleName().equals(currentScreen)) {
+            // App went to the background: leave the top offenders in the log for release builds too
+            currentScreen = NO_SCREEN;
+            for (CostLedger.Cost cost : topOffenders(5)) {
+                Log.i(TAG, "Top reader: " + cost.toJson());
+            }
+        }
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.exam_portal_app;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.Source;
+
+import java.util.Collections;
+import java.util.Map;
+
+// Estimates server time without trusting the device wall clock. A sync writes a server
+// timestamp, reads it back from the server and pins it to the middle of the write leg; the result
+// is anchored to elapsedRealtime(), which is monotonic and unaffected by the user changing the
+// clock. Until the first sync completes, now() falls back to the device clock.
+public final class ServerClock {
+
+    private static final String TAG = "ServerClock";
+
+    // Re-sync when the anchor is older than this; elapsedRealtime drift is tiny over an exam
+    private static final long RESYNC_INTERVAL_MS = 10 * 60 * 1000L;
+    // A sample this far behind the current anchor is a timestamp left by an earlier sync
+    private static final long MAX_SAMPLE_LAG_MS = 5_000L;
+
+    private static volatile long anchorServerMs = 0;
+    private static volatile long anchorElapsedMs = 0;
+    private static volatile long roundTripMs = Long.MAX_VALUE;
+
+    public interface OnSyncedListener {
+        void onSynced(boolean success);
+    }
+
+    private ServerClock() {
+    }
+
+    public static long now() {
+        if (!isSynced()) {
+            return System.currentTimeMillis();
+        }
+        return nowAt(SystemClock.elapsedRealtime());
+    }
+
+    static long nowAt(long elapsedNow) {
+        return anchorServerMs + (elapsedNow - anchorElapsedMs);
+    }
+
+    public static boolean isSynced() {
+        return anchorElapsedMs != 0;
+    }
+
+    public static boolean needsSync() {
+        return !isSynced() || SystemClock.elapsedRealtime() - anchorElapsedMs > RESYNC_INTERVAL_MS;
+    }
+
+    // Difference between the device wall clock and server time, for diagnostics
+    public static long getDeviceClockSkewMs() {
+        return isSynced() ? System.currentTimeMillis() - now() : 0;
+    }
+
+    // Keeps the sample with the tightest round trip unless the anchor is stale; returns whether
+    // the sample became the anchor
+    static synchronized boolean applySample(long serverMs, long sentAt, long receivedAt, boolean stale) {
+        long rtt = receivedAt - sentAt;
+        if (isSynced() && serverMs < nowAt(sentAt) - MAX_SAMPLE_LAG_MS) {
+            return false;
+        }
+        if (rtt > roundTripMs && !stale) {
+            return false;
+        }
+        // The timestamp was assigned during the write, roughly the first half of the exchange
+        anchorServerMs = serverMs;
+        anchorElapsedMs = sentAt + rtt / 4;
+        roundTripMs = rtt;
+        return true;
+    }
+
+    static synchronized void reset() {
+        anchorServerMs = 0;
+        anchorElapsedMs = 0;
+        roundTripMs = Long.MAX_VALUE;
+    }
+
+    public static void sync(String uid, OnSyncedListener listener) {
+        DocumentReference ref = FirebaseProvider.getFirestore().collection("clock_sync").document(uid);
+        long sentAt = SystemClock.elapsedRealtime();
+
+        Map<String, Object> stamp = Collections.singletonMap("ts", FieldValue.serverTimestamp());
+        FirestoreOps.write("writeClockSync", ref.set(stamp), 1, FirestoreOps.sizeOf(stamp))
+                .continueWithTask(task -> {
+                    // Reading after a failed write would return the timestamp of an earlier sync
+                    if (!task.isSuccessful()) throw task.getException();
+                    return FirestoreOps.read("readClockSync", ref.get(Source.SERVER));
+                })
+                .addOnSuccessListener(snapshot -> {
+                    long receivedAt = SystemClock.elapsedRealtime();
+                    Timestamp serverTs = snapshot.getTimestamp("ts");
+                    if (serverTs == null) {
+                        listener.onSynced(false);
+                        return;
+                    }
+                    long serverMs = serverTs.getSeconds() * 1000L + serverTs.getNanoseconds() / 1_000_000;
+                    applySample(serverMs, sentAt, receivedAt, needsSync());
+                    Log.d(TAG, "Synced, rtt=" + (receivedAt - sentAt) + " ms, device skew="
+                            + getDeviceClockSkewMs() + " ms");
+                    listener.onSynced(true);
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Clock sync failed: " + e.getMessage());
+                    listener.onSynced(false);
+                });
+    }
+}
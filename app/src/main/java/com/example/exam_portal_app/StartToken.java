@@ -0,0 +1,141 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.provider.Settings;
+import android.util.Base64;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Issued when a student starts an attempt and kept in the AnswerJournal. It fixes the deadline
+// for the whole attempt, so reopening the exam does not restart the clock, and anchors time to
+// elapsedRealtime() so the countdown keeps working offline even if the device clock is changed.
+// The id doubles as the attempt document id, which makes deferred uploads idempotent.
+public final class StartToken {
+
+    public final String id;
+    public final String examId;
+    public final String uid;
+    // Best estimate of server time when this device issued the token, and the attempt deadline
+    public final long startedAt;
+    public final long deadline;
+    // elapsedRealtime() and boot count at start; elapsed time is only meaningful in the same boot
+    final long startElapsed;
+    final int bootCount;
+    // Device wall clock minus server time at start, used after a reboot
+    final long clockSkew;
+    // False when the token was issued without any server clock sync (fully offline start)
+    public final boolean clockSynced;
+    public final long paperVersion;
+    byte[] signature;
+
+    StartToken(String id, String examId, String uid, long startedAt, long deadline, long startElapsed,
+               int bootCount, long clockSkew, boolean clockSynced, long paperVersion) {
+        this.id = id;
+        this.examId = examId;
+        this.uid = uid;
+        this.startedAt = startedAt;
+        this.deadline = deadline;
+        this.startElapsed = startElapsed;
+        this.bootCount = bootCount;
+        this.clockSkew = clockSkew;
+        this.clockSynced = clockSynced;
+        this.paperVersion = paperVersion;
+    }
+
+    // The attempt may have started earlier, possibly on another device: the deadline follows the
+    // stored start while startedAt anchors this device's clock to now
+    public static StartToken issue(Context context, Exam exam, String uid, AttemptStart start, JournalSigner signer)
+            throws GeneralSecurityException {
+        long now = ServerClock.now();
+        StartToken token = new StartToken(start.attemptId, exam.getId(), uid, now,
+                ExamTimer.computeDeadline(exam, start.startedAt), SystemClock.elapsedRealtime(), bootCount(context),
+                ServerClock.getDeviceClockSkewMs(), ServerClock.isSynced(), exam.getPaperVersion());
+        token.signature = signer.sign(token.signedBytes());
+        return token;
+    }
+
+    static int bootCount(Context context) {
+        return Settings.Global.getInt(context.getContentResolver(), Settings.Global.BOOT_COUNT, -1);
+    }
+
+    // Server time as seen by this attempt: the synced ServerClock when available, otherwise time
+    // elapsed since the token was issued (same boot) or the skew-corrected wall clock (after a reboot)
+    public long now(Context context) {
+        if (ServerClock.isSynced()) {
+            return ServerClock.now();
+        }
+        return estimateNow(SystemClock.elapsedRealtime(), bootCount(context), System.currentTimeMillis());
+    }
+
+    long estimateNow(long elapsedNow, int currentBootCount, long wallNow) {
+        if (currentBootCount == bootCount && bootCount != -1 && elapsedNow >= startElapsed) {
+            return startedAt + (elapsedNow - startElapsed);
+        }
+        // Never let a reboot plus a rolled-back clock move the attempt before its own start
+        return Math.max(startedAt, wallNow - clockSkew);
+    }
+
+    public boolean verify(JournalSigner signer) {
+        try {
+            return signature != null && signer.verify(signedBytes(), signature);
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    byte[] signedBytes() {
+        return ("v1|" + id + "|" + examId + "|" + uid + "|" + startedAt + "|" + deadline + "|" + startElapsed
+                + "|" + bootCount + "|" + clockSkew + "|" + clockSynced + "|" + paperVersion)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Stored on the attempt so reviewers can see how the attempt was timed
+    public Map<String, Object> toAttemptField() {
+        Map<String, Object> field = new HashMap<>();
+        field.put("id", id);
+        field.put("started_at", startedAt);
+        field.put("deadline", deadline);
+        field.put("clock_synced", clockSynced);
+        field.put("paper_version", paperVersion);
+        field.put("signature", signature != null ? Base64.encodeToString(signature, Base64.NO_WRAP) : null);
+        return field;
+    }
+
+    byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(id);
+        out.writeUTF(examId);
+        out.writeUTF(uid);
+        out.writeLong(startedAt);
+        out.writeLong(deadline);
+        out.writeLong(startElapsed);
+        out.writeInt(bootCount);
+        out.writeLong(clockSkew);
+        out.writeBoolean(clockSynced);
+        out.writeLong(paperVersion);
+        out.writeInt(signature != null ? signature.length : 0);
+        if (signature != null) out.write(signature);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static StartToken decode(DataInputStream in) throws IOException {
+        StartToken token = new StartToken(in.readUTF(), in.readUTF(), in.readUTF(), in.readLong(), in.readLong(),
+                in.readLong(), in.readInt(), in.readLong(), in.readBoolean(), in.readLong());
+        int signatureLength = in.readInt();
+        if (signatureLength > 0) {
+            token.signature = new byte[signatureLength];
+            in.readFully(token.signature);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.exam_portal_app;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+// Records startup markers so time-to-interactive can be tracked from logcat
+// (filter on the "StartupTracer" tag):
+//   - cold start: process start -> first dashboard frame
+//   - warm start: activity re-created in a live process -> first dashboard frame
+public final class StartupTracer implements Application.ActivityLifecycleCallbacks {
+
+    private static final String TAG = "StartupTracer";
+
+    public static final String START_COLD = "cold";
+    public static final String START_WARM = "warm";
+
+    private static final StartupTracer INSTANCE = new StartupTracer();
+
+    private long processStartMs;
+    private long applicationCreatedMs;
+    private long launchStartMs;
+    private String startType = START_COLD;
+    private int createdActivities = 0;
+    private boolean launchInProgress = true;
+
+    private StartupTracer() {
+    }
+
+    public static StartupTracer getInstance() {
+        return INSTANCE;
+    }
+
+    void onApplicationCreate(Application application) {
+        processStartMs = Process.getStartElapsedRealtime();
+        applicationCreatedMs = SystemClock.elapsedRealtime();
+        launchStartMs = processStartMs;
+        application.registerActivityLifecycleCallbacks(this);
+        Log.i(TAG, "Application created " + (applicationCreatedMs - processStartMs) + " ms after process start");
+    }
+
+    // Call from a dashboard's onCreate; logs once the dashboard has drawn its first frame
+    public void reportFirstDashboardFrame(Activity activity) {
+        if (!launchInProgress) return;
+
+        View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                // Posting puts the marker after the frame has been handed to the renderer
+                decorView.post(() -> onFirstDashboardFrame(activity));
+                return true;
+            }
+        });
+    }
+
+    private void onFirstDashboardFrame(Activity activity) {
+        if (!launchInProgress) return;
+        launchInProgress = false;
+
+        long now = SystemClock.elapsedRealtime();
+        Log.i(TAG, startType + " start: first " + activity.getClass().getSimpleName()
+                + " frame after " + (now - launchStartMs) + " ms");
+        Telemetry.screenLoad(activity.getClass().getSimpleName() + "." + startType, now - launchStartMs);
+        activity.reportFullyDrawn();
+    }
+
+    public String getStartType() {
+        return startType;
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+        if (createdActivities == 0 && START_WARM.equals(startType)) {
+            // First activity in a process that outlived its previous activities
+            launchStartMs = SystemClock.elapsedRealtime();
+            launchInProgress = true;
+            Log.i(TAG, "warm start: " + activity.getClass().getSimpleName() + " created");
+        }
+        createdActivities++;
+    }
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {
+        createdActivities--;
+        if (createdActivities == 0 && !activity.isChangingConfigurations()) {
+            // Process survives with no activities; the next launch is a warm start
+            startType = START_WARM;
+        }
+    }
+}
@@ -12,26 +12,35 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-public class StudentDashboardActivity extends AppCompatActivity implements ExamAdapter.OnExamStartListener {
+public class StudentDashboardActivity extends AppCompatActivity implements ExamAdapter.OnExamStartListener,
+        ExamCache.OnExamChangedListener {
 
     private RecyclerView examsRecyclerView;
     private ExamAdapter examAdapter;
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
     private SwipeRefreshLayout swipeRefreshLayout;
+    private List<Exam> sectionExams = new ArrayList<>();
+    private List<Exam> sharedExams = new ArrayList<>();
+    private int pendingLoads;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_student_dashboard);
+        StartupTracer.getInstance().reportFirstDashboardFrame(this);
 
         // Initialize Firebase
-        mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        mAuth = FirebaseProvider.getAuth();
+        db = FirebaseProvider.getFirestore();
 
         // Verify user is authenticated before proceeding
         if (mAuth.getCurrentUser() == null) {
@@ -43,6 +52,7 @@ public class StudentDashboardActivity extends AppCompatActivity implements ExamA
         // Initialize views
         examsRecyclerView = findViewById(R.id.examsRecyclerView);
         swipeRefreshLayout = findViewById(R.id.swipeRefreshLayout);
+        FirestoreMetricsActivity.attachTo(findViewById(R.id.upcomingExamsTitle));
 
         // Setup RecyclerView
         examsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
@@ -54,49 +64,122 @@ public class StudentDashboardActivity extends AppCompatActivity implements ExamA
 
         // Initial load
         loadAvailableExams();
+
+        // Offline submissions whose upload was never queued, e.g. the app died right after submitting
+        OfflineSubmitWorker.schedulePending(this);
+
+        // Upcoming/Active/Expired is decided on server time, not the device clock
+        if (ServerClock.needsSync()) {
+            ServerClock.sync(mAuth.getCurrentUser().getUid(), synced -> {
+                if (synced) {
+                    examAdapter.refreshStatus();
+                }
+            });
+        }
     }
 
     private void loadAvailableExams() {
-        db.collection("exams")
-                .whereGreaterThan("end_time", System.currentTimeMillis())
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<Exam> examList = new ArrayList<>();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        try {
-                            String id = document.getId();
-                            String title = document.getString("title");
-                            long startTime = document.getLong("start_time");
-                            long endTime = document.getLong("end_time");
-                            int duration = document.getLong("duration").intValue();
-                            String createdBy = document.getString("created_by");
-                            String teacherName = document.getString("teacher_name");
-                            int maxAttempts = document.getLong("max_attempts").intValue();
-                            String questionTypes = document.getString("question_types");
-                            List<String> questions = (List<String>) document.get("questions");
-
-                            if (id != null && title != null && startTime > 0 && endTime > 0) {
-                                Exam exam = new Exam(id, title, startTime, endTime, duration,
-                                        createdBy, teacherName, maxAttempts, questionTypes, questions);
-                                examList.add(exam);
-                            }
-                        } catch (Exception e) {
-                            // Skip invalid exam entries
-                            continue;
-                        }
-                    }
-                    examAdapter.setExamList(examList);
-                    if (swipeRefreshLayout != null) {
-                        swipeRefreshLayout.setRefreshing(false);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(this, "Error loading exams: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                    if (swipeRefreshLayout != null) {
-                        swipeRefreshLayout.setRefreshing(false);
-                    }
-                });
+        // Sectioned exams come from this student's own my_exams index (see ExamFanout), exams for
+        // everyone from one shared query; neither scans all exams. Cached lists first on repeat
+        // opens, then the server results replace them
+        pendingLoads = 2;
+        long now = ServerClock.now();
+        FirestoreDataSettings.get(ExamQueries.MY_EXAMS.getName(),
+                ExamQueries.myExams(db, mAuth.getCurrentUser().getUid(), now), new ExamListLoader(true));
+        FirestoreDataSettings.get(ExamQueries.SHARED_EXAMS.getName(),
+                ExamQueries.sharedExams(db, now), new ExamListLoader(false));
+    }
+
+    private class ExamListLoader implements FirestoreDataSettings.OnQueryResultListener {
+        private final boolean sectioned;
+
+        ExamListLoader(boolean sectioned) {
+            this.sectioned = sectioned;
+        }
+
+        @Override
+        public void onResult(QuerySnapshot queryDocumentSnapshots, boolean fromCache) {
+            List<Exam> examList = new ArrayList<>();
+            for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                Exam exam = Exam.fromSnapshot(document);
+                // Closed and graded exams stay listed until end_time; hide them as soon as they move
+                if (exam != null && ExamLifecycle.fromValue(exam.getStatus()).ordinal() <= ExamLifecycle.OPEN.ordinal()) {
+                    examList.add(exam);
+                    ExamCache.getInstance().putExam(exam);
+                }
+            }
+            if (sectioned) {
+                sectionExams = examList;
+            } else {
+                sharedExams = examList;
+            }
+            examAdapter.setExamList(mergedExams());
+            if (fromCache) return;
+
+            // Prefetch only from the server list; cached schedules may be stale
+            ExamPrefetcher.schedule(StudentDashboardActivity.this, examList);
+            loadFinished();
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            Toast.makeText(StudentDashboardActivity.this, "Error loading exams: " + e.getMessage(),
+                    Toast.LENGTH_SHORT).show();
+            loadFinished();
+        }
+
+        @Override
+        public void onServerFailed(Exception e) {
+            // Keep showing the cached list
+            loadFinished();
+        }
+    }
+
+    // Both lists are ordered by end time; an exam moved between audiences is listed once
+    private List<Exam> mergedExams() {
+        Map<String, Exam> byId = new LinkedHashMap<>();
+        for (Exam exam : sectionExams) {
+            byId.put(exam.getId(), exam);
+        }
+        for (Exam exam : sharedExams) {
+            byId.put(exam.getId(), exam);
+        }
+        List<Exam> merged = new ArrayList<>(byId.values());
+        Collections.sort(merged, (a, b) -> Long.compare(a.getEndTime(), b.getEndTime()));
+        return merged;
+    }
+
+    private void loadFinished() {
+        if (--pendingLoads <= 0 && swipeRefreshLayout != null) {
+            swipeRefreshLayout.setRefreshing(false);
+        }
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        ExamCache.getInstance().addListener(this);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        ExamCache.getInstance().removeListener(this);
+    }
+
+    // Pushed by CacheInvalidationHandler: patch just the affected row instead of refetching
+    @Override
+    public void onExamChanged(String examId, Exam exam) {
+        if (exam == null) {
+            examAdapter.removeExam(examId);
+        } else if (!examAdapter.contains(examId)) {
+            // Pushes are broadcast to every student; exams outside this student's index are ignored
+            return;
+        } else if (ExamLifecycle.fromValue(exam.getStatus()).ordinal() <= ExamLifecycle.OPEN.ordinal()) {
+            examAdapter.upsertExam(exam);
+        } else {
+            examAdapter.removeExam(examId);
+        }
     }
 
     @Override
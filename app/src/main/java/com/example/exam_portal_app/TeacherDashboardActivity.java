@@ -13,19 +13,19 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.Locale;
+import java.util.List;
 import java.util.Map;
 
 public class TeacherDashboardActivity extends AppCompatActivity {
 
     private static final String TAG = "TeacherDashboard";
 
-    private EditText examTitleEditText, examDurationEditText;
+    private EditText examTitleEditText, examDurationEditText, examSectionsEditText, examBlueprintEditText;
     private Button examStartTimeButton, examEndTimeButton, scheduleExamButton;
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
@@ -35,10 +35,11 @@ public class TeacherDashboardActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_teacher_dashboard);
+        StartupTracer.getInstance().reportFirstDashboardFrame(this);
 
         // Initialize Firebase
-        mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        mAuth = FirebaseProvider.getAuth();
+        db = FirebaseProvider.getFirestore();
 
         // Verify user is a teacher before proceeding
         FirebaseUser user = mAuth.getCurrentUser();
@@ -52,6 +53,12 @@ public class TeacherDashboardActivity extends AppCompatActivity {
             return;
         }
 
+        // Keep the status of this teacher's exams in step with their start/end times
+        ExamLifecycleEngine.getInstance().trackAll(ExamQueries.UNCLOSED_EXAMS_BY_CREATOR.getName(),
+                ExamQueries.unclosedExamsCreatedBy(db, user.getUid()));
+        ExamLifecycleEngine.getInstance().gradeAll(ExamQueries.CLOSED_EXAMS_BY_CREATOR.getName(),
+                ExamQueries.closedExamsCreatedBy(db, user.getUid()));
+
         // Initialize UI elements
         initializeViews();
 
@@ -62,6 +69,8 @@ public class TeacherDashboardActivity extends AppCompatActivity {
     private void initializeViews() {
         examTitleEditText = findViewById(R.id.examTitleEditText);
         examDurationEditText = findViewById(R.id.examDurationEditText);
+        examSectionsEditText = findViewById(R.id.examSectionsEditText);
+        examBlueprintEditText = findViewById(R.id.examBlueprintEditText);
         examStartTimeButton = findViewById(R.id.examStartTimeButton);
         examEndTimeButton = findViewById(R.id.examEndTimeButton);
         scheduleExamButton = findViewById(R.id.scheduleExamButton);
@@ -74,15 +83,22 @@ public class TeacherDashboardActivity extends AppCompatActivity {
     }
 
     private void checkTeacherRole(FirebaseUser user) {
-        db.collection("Teacher").document(user.getUid())
-                .get()
+        RoleResolver.getInstance().resolveRole(user.getUid(), role -> {
+            if (role == null) {
+                checkTeacherRoleFromFirestore(user);
+            } else if (!"teacher".equals(role)) {
+                denyTeacherAccess(user);
+            }
+        });
+    }
+
+    private void checkTeacherRoleFromFirestore(FirebaseUser user) {
+        FirestoreOps.read("checkTeacherRole", db.collection("Teacher").document(user.getUid()).get())
                 .addOnSuccessListener(documentSnapshot -> {
-                    if (!documentSnapshot.exists()) {
-                        Toast.makeText(this, "Access denied. You are not registered as a teacher.", Toast.LENGTH_LONG).show();
-                        Log.w(TAG, "User " + user.getEmail() + " not found in Teacher collection");
-                        mAuth.signOut();
-                        startActivity(new Intent(this, MainActivity.class));
-                        finish();
+                    if (documentSnapshot.exists()) {
+                        RoleResolver.getInstance().cacheVerifiedRole(user.getUid(), "teacher");
+                    } else {
+                        denyTeacherAccess(user);
                     }
                 })
                 .addOnFailureListener(e -> {
@@ -94,6 +110,15 @@ public class TeacherDashboardActivity extends AppCompatActivity {
                 });
     }
 
+    private void denyTeacherAccess(FirebaseUser user) {
+        Toast.makeText(this, "Access denied. You are not registered as a teacher.", Toast.LENGTH_LONG).show();
+        Log.w(TAG, "User " + user.getEmail() + " is not a teacher");
+        RoleResolver.getInstance().clear();
+        mAuth.signOut();
+        startActivity(new Intent(this, MainActivity.class));
+        finish();
+    }
+
     private void showDateTimePicker(boolean isStartTime) {
         Calendar calendar = Calendar.getInstance();
         DatePickerDialog datePickerDialog = new DatePickerDialog(
@@ -111,14 +136,14 @@ public class TeacherDashboardActivity extends AppCompatActivity {
                                         return;
                                     }
                                     startTime = timeMillis;
-                                    examStartTimeButton.setText(new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault()).format(calendar.getTime()));
+                                    examStartTimeButton.setText(DateFormatCache.format(calendar.getTimeInMillis()));
                                 } else {
                                     if (timeMillis <= startTime) {
                                         Toast.makeText(this, "End time must be after start time", Toast.LENGTH_SHORT).show();
                                         return;
                                     }
                                     endTime = timeMillis;
-                                    examEndTimeButton.setText(new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault()).format(calendar.getTime()));
+                                    examEndTimeButton.setText(DateFormatCache.format(calendar.getTimeInMillis()));
                                 }
                             },
                             calendar.get(Calendar.HOUR_OF_DAY),
@@ -148,11 +173,22 @@ public class TeacherDashboardActivity extends AppCompatActivity {
                 }
 
                 Map<String, Object> examData = createExamData(title, duration, user);
+                PaperBlueprint blueprint = PaperBlueprint.parse(examBlueprintEditText.getText().toString());
+                if (blueprint != null) {
+                    // Pooled papers are generated per enrolled student, so the exam needs sections
+                    if (ExamFanout.AUDIENCE_ALL.equals(examData.get(ExamFanout.FIELD_AUDIENCE))) {
+                        Toast.makeText(this, "A question pool needs at least one section", Toast.LENGTH_LONG).show();
+                        return;
+                    }
+                    examData.put(PaperBlueprint.FIELD, blueprint.toValue());
+                }
                 saveExamToFirestore(examData);
 
             } catch (NumberFormatException e) {
-                Toast.makeText(this, "Invalid duration format", Toast.LENGTH_SHORT).show();
-                Log.w(TAG, "Invalid duration input: " + durationStr);
+                Toast.makeText(this, "Invalid duration or question pool count", Toast.LENGTH_SHORT).show();
+                Log.w(TAG, "Invalid number input: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                Toast.makeText(this, "Invalid question pool: " + e.getMessage(), Toast.LENGTH_LONG).show();
             }
         }
     }
@@ -179,17 +215,29 @@ public class TeacherDashboardActivity extends AppCompatActivity {
         examData.put("teacher_name", user.getDisplayName() != null ? user.getDisplayName() : "Unknown Teacher");
         examData.put("max_attempts", 1);
         examData.put("question_types", "MCQ");
-        examData.put("status", "scheduled");
+        examData.put(ExamLifecycle.FIELD_STATUS, ExamLifecycle.SCHEDULED.getValue());
+        examData.put("version", 1L);
+        List<String> sectionIds = EnrollmentRegistry.parseSections(examSectionsEditText.getText().toString());
+        examData.put(ExamFanout.FIELD_SECTION_IDS, sectionIds);
+        examData.put(ExamFanout.FIELD_AUDIENCE, ExamFanout.audienceFor(sectionIds));
         return examData;
     }
 
     private void saveExamToFirestore(Map<String, Object> examData) {
-        db.collection("exams")
-                .add(examData)
+        FirestoreOps.write("addExam", db.collection("exams").add(examData), 1, FirestoreOps.sizeOf(examData))
                 .addOnSuccessListener(documentReference -> {
                     Toast.makeText(this, "Exam scheduled successfully!", Toast.LENGTH_SHORT).show();
-                    sendNotificationToStudents((String) examData.get("title"),
-                            new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault()).format(startTime));
+                    ExamLifecycleEngine.getInstance().track(documentReference.getId(),
+                            ExamLifecycle.SCHEDULED.getValue(),
+                            (long) examData.get("start_time"), (long) examData.get("end_time"));
+                    // Seals the paper (or generates every student's pooled paper), then fans the
+                    // exam out; questions attached later re-publish it
+                    ExamPublisher.publish(documentReference.getId());
+                    @SuppressWarnings("unchecked")
+                    List<String> sectionIds = (List<String>) examData.get(ExamFanout.FIELD_SECTION_IDS);
+                    sendNotificationToStudents(documentReference.getId(), (long) examData.get("version"),
+                            (String) examData.get("title"), sectionIds,
+                            DateFormatCache.format(startTime));
                     clearFields();
                 })
                 .addOnFailureListener(e -> {
@@ -198,15 +246,39 @@ public class TeacherDashboardActivity extends AppCompatActivity {
                 });
     }
 
-    private void sendNotificationToStudents(String examTitle, String startTime) {
-        Map<String, String> notification = new HashMap<>();
-        notification.put("title", "New Exam Scheduled");
-        notification.put("body", examTitle + " scheduled for " + startTime);
+    // Sectioned exams notify only their students' devices; exams for everyone go to the topic shards
+    private void sendNotificationToStudents(String examId, long version, String examTitle, List<String> sectionIds,
+                                            String startTime) {
+        String title = "New Exam Scheduled";
+        String body = examTitle + " scheduled for " + startTime;
+
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("title", title);
+        notification.put("body", body);
+        notification.put("exam_id", examId);
+        notification.put("audience", sectionIds.isEmpty() ? "all_students" : "sections");
+        if (!sectionIds.isEmpty()) {
+            notification.put(ExamFanout.FIELD_SECTION_IDS, sectionIds);
+        }
+        notification.put("created_at", FieldValue.serverTimestamp());
 
-        db.collection("notifications")
-                .add(notification)
-                .addOnSuccessListener(documentReference ->
-                        Log.d(TAG, "Notification saved for exam: " + examTitle))
+        FirestoreOps.write("addNotification", db.collection("notifications").add(notification), 1,
+                        FirestoreOps.sizeOf(notification))
+                .addOnSuccessListener(documentReference -> {
+                    Log.d(TAG, "Notification saved for exam: " + examTitle);
+                    NotificationDispatcher dispatcher = NotificationDispatcher.getDefault();
+                    if (dispatcher != null) {
+                        // Also an exam_changed event with the version written on creation; devices ignore
+                        // it unless they already cached the exam, so it never triggers a read
+                        Map<String, String> data = CacheInvalidationHandler.buildEvent(
+                                CacheInvalidationHandler.TYPE_EXAM_CHANGED, examId, version);
+                        if (sectionIds.isEmpty()) {
+                            dispatcher.dispatchToAllStudents(title, body, data, "scheduled_" + examId);
+                        } else {
+                            dispatcher.dispatchToSections(sectionIds, title, body, data, "scheduled_" + examId);
+                        }
+                    }
+                })
                 .addOnFailureListener(e ->
                         Log.e(TAG, "Failed to save notification: " + e.getMessage()));
     }
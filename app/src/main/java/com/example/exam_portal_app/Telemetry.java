@@ -0,0 +1,120 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Client telemetry pipeline: record() drops events into a lock-free ring from any thread, a
+// background flusher drains them in batches into the sink (a local file in production), and
+// TelemetryUploadWorker uploads sealed files compressed. Nothing here ever blocks the caller.
+public final class Telemetry {
+
+    private static final String TAG = "Telemetry";
+    private static final String DIR = "telemetry";
+    private static final int CAPACITY = 4096;
+    static final int BATCH_SIZE = 256;
+    private static final long FLUSH_INTERVAL_S = 15;
+    // Sealed files stay well below the 1 MB Firestore document limit once compressed
+    private static final long MAX_FILE_BYTES = 256 * 1024;
+
+    private static volatile Telemetry instance;
+
+    private final TelemetryRing<TelemetryEvent> ring;
+    private volatile TelemetrySink sink;
+    private ScheduledExecutorService flusher;
+
+    Telemetry(TelemetrySink sink, int capacity) {
+        this.sink = sink;
+        this.ring = new TelemetryRing<>(capacity);
+    }
+
+    // Called once from ExamPortalApplication
+    static synchronized void init(Context context) {
+        if (instance != null) return;
+        File dir = new File(context.getFilesDir(), DIR);
+        instance = new Telemetry(new FileTelemetrySink(dir, MAX_FILE_BYTES), CAPACITY);
+        instance.startFlusher();
+        TelemetryUploadWorker.schedule(context);
+    }
+
+    public static Telemetry getInstance() {
+        Telemetry result = instance;
+        if (result == null) {
+            synchronized (Telemetry.class) {
+                result = instance;
+                if (result == null) {
+                    // Before init (e.g. in a worker process) events are kept in memory only
+                    result = new Telemetry(new InMemoryTelemetrySink(), CAPACITY);
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Lets tests swap in an InMemoryTelemetrySink
+    public void setSink(TelemetrySink sink) {
+        this.sink = sink;
+    }
+
+    public TelemetrySink getSink() {
+        return sink;
+    }
+
+    public void record(String type, String name, long value) {
+        ring.offer(new TelemetryEvent(type, name, value, System.currentTimeMillis()));
+        if (ring.size() >= BATCH_SIZE && flusher != null) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    public static void screenLoad(String screen, long millis) {
+        getInstance().record(TelemetryEvent.SCREEN_LOAD, screen, millis);
+    }
+
+    public static void queryLatency(String operation, long millis) {
+        getInstance().record(TelemetryEvent.QUERY, operation, millis);
+    }
+
+    public static void writeLatency(String operation, long millis) {
+        getInstance().record(TelemetryEvent.WRITE, operation, millis);
+    }
+
+    // outcome is e.g. "submitted", "limit_reached", "failed"
+    public static void submitOutcome(String outcome, long millis) {
+        getInstance().record(TelemetryEvent.SUBMIT, outcome, millis);
+    }
+
+    // Drains the ring into the sink in batches; only ever runs on one thread at a time
+    public synchronized void flush() {
+        List<TelemetryEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (ring.drainTo(batch, BATCH_SIZE) > 0) {
+            try {
+                sink.write(batch);
+            } catch (Exception e) {
+                Log.w(TAG, "Dropping " + batch.size() + " telemetry events: " + e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    long droppedCount() {
+        return ring.droppedCount();
+    }
+
+    private void startFlusher() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "telemetry-flush");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_S, FLUSH_INTERVAL_S, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.exam_portal_app;
+
+// One telemetry sample. type groups events ("screen_load", "query", "write", "submit"), name identifies the
+// screen or operation and value is a duration in ms unless the type says otherwise.
+public final class TelemetryEvent {
+
+    public static final String SCREEN_LOAD = "screen_load";
+    public static final String QUERY = "query";
+    // Commits: set/update/delete, batches and transactions
+    public static final String WRITE = "write";
+    public static final String SUBMIT = "submit";
+    // value is the document count that went over a read budget
+    public static final String BUDGET = "budget";
+
+    public final String type;
+    public final String name;
+    public final long value;
+    public final long timestamp;
+
+    public TelemetryEvent(String type, String name, long value, long timestamp) {
+        this.type = type;
+        this.name = name;
+        this.value = value;
+        this.timestamp = timestamp;
+    }
+
+    // One JSON object per line in the batch files
+    public String toJson() {
+        return "{\"type\":\"" + escape(type) + "\",\"name\":\"" + escape(name)
+                + "\",\"value\":" + value + ",\"ts\":" + timestamp + "}";
+    }
+
+    private static String escape(String value) {
+        if (value == null) return "";
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
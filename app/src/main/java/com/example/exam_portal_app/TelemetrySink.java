@@ -0,0 +1,10 @@
+package com.example.exam_portal_app;
+
+import java.io.IOException;
+import java.util.List;
+
+// Destination for flushed telemetry batches. Production writes to FileTelemetrySink; tests use
+// InMemoryTelemetrySink.
+public interface TelemetrySink {
+    void write(List<TelemetryEvent> batch) throws IOException;
+}
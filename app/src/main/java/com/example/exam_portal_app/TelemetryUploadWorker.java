@@ -0,0 +1,105 @@
+package com.example.exam_portal_app;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.FieldValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Periodically seals the current telemetry file and uploads every sealed batch gzip-compressed as
+// one telemetry_batches document. A file is deleted only after its upload succeeded.
+public class TelemetryUploadWorker extends Worker {
+
+    private static final String TAG = "TelemetryUploadWorker";
+    static final String COLLECTION = "telemetry_batches";
+    private static final String WORK_NAME = "telemetry_upload";
+    private static final long UPLOAD_TIMEOUT_S = 60;
+
+    public TelemetryUploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .setRequiresBatteryNotLow(true)
+                .build();
+
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(TelemetryUploadWorker.class, 1, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 5, TimeUnit.MINUTES)
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Telemetry telemetry = Telemetry.getInstance();
+        telemetry.flush();
+        if (!(telemetry.getSink() instanceof FileTelemetrySink)) {
+            return Result.success();
+        }
+        FileTelemetrySink sink = (FileTelemetrySink) telemetry.getSink();
+
+        FirebaseUser user = FirebaseProvider.getAuth().getCurrentUser();
+        try {
+            sink.seal();
+            for (File file : sink.sealedBatches()) {
+                byte[] compressed = gzip(file);
+                Map<String, Object> batch = new HashMap<>();
+                batch.put("uid", user != null ? user.getUid() : null);
+                batch.put("events", Blob.fromBytes(compressed));
+                batch.put("raw_bytes", file.length());
+                batch.put("uploaded_at", FieldValue.serverTimestamp());
+                Tasks.await(FirebaseProvider.getFirestore().collection(COLLECTION).add(batch),
+                        UPLOAD_TIMEOUT_S, TimeUnit.SECONDS);
+                if (!file.delete()) {
+                    Log.w(TAG, "Could not delete uploaded batch " + file.getName());
+                }
+                Log.d(TAG, "Uploaded " + file.getName() + ": " + file.length() + " -> " + compressed.length + " bytes");
+            }
+            return Result.success();
+        } catch (Exception e) {
+            Log.w(TAG, "Telemetry upload failed: " + e.getMessage());
+            return Result.retry();
+        }
+    }
+
+    static byte[] gzip(File file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = new FileInputStream(file);
+             GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
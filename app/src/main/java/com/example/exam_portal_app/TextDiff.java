@@ -0,0 +1,89 @@
+package com.example.exam_portal_app;
+
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Single-region text edit: replace deleteCount chars at position with insert. Typing between two
+// autosaves nearly always touches one region of a program, so trimming the common prefix and
+// suffix gives an edit the size of that region rather than of the whole text.
+public final class TextDiff {
+
+    public static final class Edit {
+        public final int position;
+        public final int deleteCount;
+        public final String insert;
+
+        public Edit(int position, int deleteCount, String insert) {
+            this.position = position;
+            this.deleteCount = deleteCount;
+            this.insert = insert;
+        }
+
+        public int size() {
+            return insert.length() + 8;
+        }
+
+        Map<String, Object> toMap(long revision) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("p", position);
+            map.put("d", deleteCount);
+            map.put("i", insert);
+            // Makes every element distinct so arrayUnion never drops a repeated edit
+            map.put("r", revision);
+            return map;
+        }
+
+        @Nullable
+        static Edit fromMap(Map<String, Object> map) {
+            Object position = map.get("p");
+            Object deleteCount = map.get("d");
+            Object insert = map.get("i");
+            if (!(position instanceof Number) || !(deleteCount instanceof Number) || !(insert instanceof String)) {
+                return null;
+            }
+            return new Edit(((Number) position).intValue(), ((Number) deleteCount).intValue(), (String) insert);
+        }
+    }
+
+    private TextDiff() {
+    }
+
+    // Null when the texts are equal
+    @Nullable
+    public static Edit between(String before, String after) {
+        int prefix = 0;
+        int max = Math.min(before.length(), after.length());
+        while (prefix < max && before.charAt(prefix) == after.charAt(prefix)) {
+            prefix++;
+        }
+        if (prefix == before.length() && prefix == after.length()) {
+            return null;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+                && before.charAt(before.length() - 1 - suffix) == after.charAt(after.length() - 1 - suffix)) {
+            suffix++;
+        }
+        return new Edit(prefix, before.length() - prefix - suffix,
+                after.substring(prefix, after.length() - suffix));
+    }
+
+    public static String apply(String text, Edit edit) {
+        if (edit.position < 0 || edit.position + edit.deleteCount > text.length()) {
+            throw new IllegalArgumentException("Edit out of range: " + edit.position + "+" + edit.deleteCount
+                    + " on " + text.length() + " chars");
+        }
+        return text.substring(0, edit.position) + edit.insert + text.substring(edit.position + edit.deleteCount);
+    }
+
+    public static String applyAll(String base, List<Edit> edits) {
+        String text = base;
+        for (Edit edit : edits) {
+            text = apply(text, edit);
+        }
+        return text;
+    }
+}
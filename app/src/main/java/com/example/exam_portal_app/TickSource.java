@@ -0,0 +1,62 @@
+package com.example.exam_portal_app;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One shared once-per-second tick on the main thread, aligned to whole seconds of elapsedRealtime.
+// Countdown views subscribe here instead of each posting their own Handler callbacks, and the
+// tick stops entirely when nobody is listening.
+public final class TickSource {
+
+    private static final long TICK_MS = 1000L;
+    private static final TickSource INSTANCE = new TickSource();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<OnTickListener> listeners = new ArrayList<>();
+    private final Runnable tick = this::onTick;
+
+    public interface OnTickListener {
+        void onTick();
+    }
+
+    private TickSource() {
+    }
+
+    public static TickSource getInstance() {
+        return INSTANCE;
+    }
+
+    public void subscribe(OnTickListener listener) {
+        if (listeners.contains(listener)) return;
+        listeners.add(listener);
+        if (listeners.size() == 1) {
+            scheduleNext();
+        }
+    }
+
+    public void unsubscribe(OnTickListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            handler.removeCallbacks(tick);
+        }
+    }
+
+    private void onTick() {
+        // Copy so listeners may unsubscribe (e.g. on expiry) while being notified
+        for (OnTickListener listener : new ArrayList<>(listeners)) {
+            listener.onTick();
+        }
+        if (!listeners.isEmpty()) {
+            scheduleNext();
+        }
+    }
+
+    private void scheduleNext() {
+        long now = SystemClock.uptimeMillis();
+        handler.postAtTime(tick, now + TICK_MS - (now % TICK_MS));
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+public class AnswerJournalTest {
+
+    private static final JournalSigner SIGNER = JournalSigner.withKey("test-key-0123456789".getBytes());
+
+    private static StartToken token() throws Exception {
+        StartToken token = new StartToken("token-1", "exam-1", "student-1", 1_000_000L, 4_600_000L,
+                50_000L, 7, 250L, true, 3);
+        token.signature = SIGNER.sign(token.signedBytes());
+        return token;
+    }
+
+    private static File tempJournal() throws IOException {
+        File file = File.createTempFile("journal", ".log");
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static AnswerJournal journalWithAnswers(File file) throws Exception {
+        AnswerJournal journal = new AnswerJournal(file, SIGNER);
+        journal.append((byte) 1, token().encode());
+        record(journal, "q1", "A");
+        record(journal, "q2", "print('hi')");
+        record(journal, "q1", "B");
+        record(journal, "q2", null);
+        return journal;
+    }
+
+    // Synchronous stand-in for recordAnswer's delayed background write
+    private static void record(AnswerJournal journal, String questionId, String answer) {
+        journal.queue(questionId, answer);
+        journal.writeAnswers();
+    }
+
+    @Test
+    public void replaysTokenAndLatestAnswers() throws Exception {
+        File file = tempJournal();
+        journalWithAnswers(file);
+
+        AnswerJournal.State state = new AnswerJournal(file, SIGNER).readState();
+        assertTrue(state.intact);
+        assertNotNull(state.token);
+        assertEquals("token-1", state.token.id);
+        assertEquals(4_600_000L, state.token.deadline);
+        assertEquals("B", state.answers.get("q1"));
+        assertFalse(state.answers.containsKey("q2"));
+        assertNull(state.pending);
+    }
+
+    @Test
+    public void appendsContinueTheChainAfterReload() throws Exception {
+        File file = tempJournal();
+        journalWithAnswers(file);
+
+        AnswerJournal reopened = new AnswerJournal(file, SIGNER);
+        reopened.readState();
+        record(reopened, "q3", "C");
+
+        AnswerJournal.State state = new AnswerJournal(file, SIGNER).readState();
+        assertTrue(state.intact);
+        assertEquals("C", state.answers.get("q3"));
+    }
+
+    @Test
+    public void ignoresTornLastRecord() throws Exception {
+        File file = tempJournal();
+        journalWithAnswers(file);
+        long intactLength = file.length();
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{0, 0, 0, 40, 2, 0, 0});
+        }
+
+        AnswerJournal.State state = new AnswerJournal(file, SIGNER).readState();
+        assertTrue(state.intact);
+        assertEquals("B", state.answers.get("q1"));
+        // The torn tail is dropped so new records chain on cleanly
+        assertEquals(intactLength, file.length());
+    }
+
+    @Test
+    public void detectsEditedRecord() throws Exception {
+        File file = tempJournal();
+        journalWithAnswers(file);
+        // Flip the answer "B" to "C" in place: the record payload is "q1", present, length 1, "B"
+        byte[] bytes = java.nio.file.Files.readAllBytes(file.toPath());
+        int index = indexOf(bytes, new byte[]{'q', '1', 1, 0, 0, 0, 1, 'B'}) + 7;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(index);
+            raf.write('C');
+        }
+
+        AnswerJournal.State state = new AnswerJournal(file, SIGNER).readState();
+        assertFalse(state.intact);
+        assertEquals("A", state.answers.get("q1"));
+
+        // The damage stays on record, and the journal keeps accepting answers
+        AnswerJournal reopened = new AnswerJournal(file, SIGNER);
+        assertFalse(reopened.readState().intact);
+        record(reopened, "q1", "D");
+        state = new AnswerJournal(file, SIGNER).readState();
+        assertFalse(state.intact);
+        assertNotNull(state.token);
+        assertEquals("D", state.answers.get("q1"));
+    }
+
+    @Test
+    public void detectsJournalSignedWithAnotherKey() throws Exception {
+        File file = tempJournal();
+        journalWithAnswers(file);
+
+        AnswerJournal.State state = new AnswerJournal(file, JournalSigner.withKey("other".getBytes())).readState();
+        assertFalse(state.intact);
+        assertNull(state.token);
+    }
+
+    @Test
+    public void tokenSurvivesEncodingAndRejectsTampering() throws Exception {
+        StartToken token = token();
+        StartToken decoded = StartToken.decode(new DataInputStream(new ByteArrayInputStream(token.encode())));
+        assertTrue(decoded.verify(SIGNER));
+        assertArrayEquals(token.signedBytes(), decoded.signedBytes());
+
+        StartToken extended = new StartToken(token.id, token.examId, token.uid, token.startedAt,
+                token.deadline + 600_000, token.startElapsed, token.bootCount, token.clockSkew, token.clockSynced,
+                token.paperVersion);
+        extended.signature = token.signature;
+        assertFalse(extended.verify(SIGNER));
+    }
+
+    @Test
+    public void tokenClockFollowsElapsedTimeWithinABoot() throws Exception {
+        StartToken token = token();
+        // Same boot: the wall clock is ignored
+        assertEquals(1_060_000L, token.estimateNow(110_000L, 7, 0L));
+        // After a reboot: skew-corrected wall clock, never before the start
+        assertEquals(2_000_000L, token.estimateNow(5_000L, 8, 2_000_250L));
+        assertEquals(1_000_000L, token.estimateNow(5_000L, 8, 10L));
+    }
+
+    @Test
+    public void offlineConflictsAreFlagged() throws Exception {
+        AnswerJournal.State state = new AnswerJournal.State();
+        state.token = token();
+        state.pending = new AnswerJournal.Pending(false, 4_700_000L, 0, new byte[0], new byte[0]);
+        Exam exam = new Exam();
+        exam.setPaperVersion(4);
+
+        assertEquals(Arrays.asList("late", "paper_changed"), OfflineSubmitWorker.conflictsOf(state, exam, 60_000));
+        assertEquals(Arrays.asList("paper_changed"), OfflineSubmitWorker.conflictsOf(state, exam, 120_000));
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= bytes.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) continue outer;
+            }
+            return i;
+        }
+        throw new AssertionError("pattern not found");
+    }
+}
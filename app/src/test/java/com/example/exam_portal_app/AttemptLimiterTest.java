@@ -0,0 +1,43 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class AttemptLimiterTest {
+
+    private static Exam examWithMaxAttempts(int maxAttempts) {
+        return new Exam("e1", "Algebra", 1000L, 2000L, 60, "t1", "Teacher", maxAttempts, "MCQ", null);
+    }
+
+    @Test
+    public void firstAttemptIsNumberOne() {
+        assertEquals(1, AttemptLimiter.nextAttemptNumber(0, 1));
+    }
+
+    @Test
+    public void attemptsAreNumberedUpToTheLimit() {
+        assertEquals(2, AttemptLimiter.nextAttemptNumber(1, 3));
+        assertEquals(3, AttemptLimiter.nextAttemptNumber(2, 3));
+    }
+
+    @Test
+    public void attemptBeyondTheLimitIsRefused() {
+        assertEquals(AttemptLimiter.LIMIT_REACHED, AttemptLimiter.nextAttemptNumber(3, 3));
+        assertEquals(AttemptLimiter.LIMIT_REACHED, AttemptLimiter.nextAttemptNumber(1, 1));
+    }
+
+    @Test
+    public void counterAboveTheLimitIsRefused() {
+        // max_attempts lowered after students had already used more
+        assertEquals(AttemptLimiter.LIMIT_REACHED, AttemptLimiter.nextAttemptNumber(5, 2));
+    }
+
+    @Test
+    public void unsetMaxAttemptsAllowsOneAttempt() {
+        int maxAttempts = AttemptLimiter.maxAttemptsOf(examWithMaxAttempts(0));
+        assertEquals(1, maxAttempts);
+        assertEquals(1, AttemptLimiter.nextAttemptNumber(0, maxAttempts));
+        assertEquals(AttemptLimiter.LIMIT_REACHED, AttemptLimiter.nextAttemptNumber(1, maxAttempts));
+    }
+}
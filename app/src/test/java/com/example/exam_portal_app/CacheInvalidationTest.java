@@ -0,0 +1,119 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Firestore is unavailable here, so any event that would refetch an exam fails the test
+public class CacheInvalidationTest {
+
+    private static Exam exam(String id, long version, long paperVersion) {
+        Exam exam = new Exam();
+        exam.setId(id);
+        exam.setVersion(version);
+        exam.setPaperVersion(paperVersion);
+        return exam;
+    }
+
+    private static List<Question> paper() {
+        return Collections.singletonList(new Question("q1", "2 + 2?", "MCQ", null, null, null, "e"));
+    }
+
+    @Test
+    public void onlyHigherVersionsAreNewer() {
+        assertTrue(CacheInvalidationHandler.isNewer(3, 2));
+        assertFalse(CacheInvalidationHandler.isNewer(2, 2));
+        assertFalse(CacheInvalidationHandler.isNewer(1, 2));
+        // Nothing cached yet
+        assertTrue(CacheInvalidationHandler.isNewer(1, -1));
+    }
+
+    @Test
+    public void staleAndDuplicateExamEventsAreIgnored() {
+        ExamCache.getInstance().putExam(exam("stale-exam", 5, 1));
+
+        for (long version : new long[]{4, 5}) {
+            Map<String, String> event = CacheInvalidationHandler.buildEvent(
+                    CacheInvalidationHandler.TYPE_EXAM_CHANGED, "stale-exam", version);
+            assertTrue(CacheInvalidationHandler.handle(event));
+        }
+        assertEquals(5, ExamCache.getInstance().getExamVersion("stale-exam"));
+    }
+
+    @Test
+    public void eventsForUncachedExamsAreIgnored() {
+        assertTrue(CacheInvalidationHandler.handle(CacheInvalidationHandler.buildEvent(
+                CacheInvalidationHandler.TYPE_EXAM_CHANGED, "unknown-exam", 7)));
+        assertTrue(CacheInvalidationHandler.handle(CacheInvalidationHandler.buildStatusEvent(
+                "unknown-exam", 8, ExamLifecycle.OPEN.getValue())));
+        assertNull(ExamCache.getInstance().getExam("unknown-exam"));
+    }
+
+    @Test
+    public void statusEventPatchesCachedExamWithoutReading() {
+        ExamCache cache = ExamCache.getInstance();
+        cache.putExam(exam("opening-exam", 2, 1));
+
+        assertTrue(CacheInvalidationHandler.handle(CacheInvalidationHandler.buildStatusEvent(
+                "opening-exam", 3, ExamLifecycle.OPEN.getValue())));
+        assertEquals(3, cache.getExamVersion("opening-exam"));
+        assertEquals(ExamLifecycle.OPEN.getValue(), cache.getExam("opening-exam").getStatus());
+        assertEquals(1, cache.getExam("opening-exam").getPaperVersion());
+    }
+
+    @Test
+    public void olderExamNeverReplacesNewerOne() {
+        ExamCache cache = ExamCache.getInstance();
+        assertTrue(cache.putExam(exam("ordered-exam", 3, 1)));
+        assertFalse(cache.putExam(exam("ordered-exam", 2, 1)));
+        assertEquals(3, cache.getExamVersion("ordered-exam"));
+    }
+
+    @Test
+    public void questionsAreDroppedOnlyForNewerPaperVersions() {
+        ExamCache cache = ExamCache.getInstance();
+        cache.putQuestions("paper-exam", paper(), 2);
+
+        cache.invalidateQuestions("paper-exam", 2);
+        assertNotNull(cache.getQuestions("paper-exam"));
+        cache.invalidateQuestions("paper-exam", 1);
+        assertNotNull(cache.getQuestions("paper-exam"));
+
+        CacheInvalidationHandler.handle(CacheInvalidationHandler.buildEvent(
+                CacheInvalidationHandler.TYPE_QUESTIONS_CHANGED, "paper-exam", 3));
+        assertNull(cache.getQuestions("paper-exam"));
+    }
+
+    @Test
+    public void olderQuestionsNeverReplaceNewerOnes() {
+        ExamCache cache = ExamCache.getInstance();
+        cache.putQuestions("late-paper", paper(), 4);
+        cache.putQuestions("late-paper", Collections.emptyList(), 3);
+        assertEquals(1, cache.getQuestions("late-paper").size());
+    }
+
+    @Test
+    public void deletedExamIsRemoved() {
+        ExamCache cache = ExamCache.getInstance();
+        cache.putExam(exam("gone-exam", 1, 1));
+        cache.putQuestions("gone-exam", paper(), 1);
+
+        assertTrue(CacheInvalidationHandler.handle(CacheInvalidationHandler.buildEvent(
+                CacheInvalidationHandler.TYPE_EXAM_DELETED, "gone-exam", 2)));
+        assertNull(cache.getExam("gone-exam"));
+        assertNull(cache.getQuestions("gone-exam"));
+    }
+
+    @Test
+    public void otherMessagesAreNotCacheEvents() {
+        assertFalse(CacheInvalidationHandler.handle(Collections.singletonMap("exam_id", "e1")));
+    }
+}
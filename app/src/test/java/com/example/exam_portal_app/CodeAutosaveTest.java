@@ -0,0 +1,99 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class CodeAutosaveTest {
+
+    private static final String TEMPLATE = "def rev(xs):\n    pass";
+
+    // The edits that turn each text into the next, numbered from revision 2 as after a base write
+    private static List<Map<String, Object>> editsBetween(String... texts) {
+        List<Map<String, Object>> edits = new ArrayList<>();
+        for (int i = 1; i < texts.length; i++) {
+            edits.add(TextDiff.between(texts[i - 1], texts[i]).toMap(i + 1));
+        }
+        return edits;
+    }
+
+    @Test
+    public void restoreReplaysEditsOntoBase() {
+        String base = TEMPLATE;
+        String typed = "def rev(xs):\n    return xs[::-1]";
+        String fixed = "def rev(xs):\n    return list(reversed(xs))";
+        CodeAutosave.Restored restored = CodeAutosave.restore(base, editsBetween(base, typed, fixed));
+        assertEquals(fixed, restored.text);
+    }
+
+    @Test
+    public void restoreOrdersEditsByRevision() {
+        List<Map<String, Object>> edits = editsBetween("a", "ab", "abc", "abcd");
+        List<Map<String, Object>> shuffled = Arrays.asList(edits.get(2), edits.get(0), edits.get(1));
+        assertEquals("abcd", CodeAutosave.restore("a", shuffled).text);
+    }
+
+    @Test
+    public void restoreCountsEditsAndBytes() {
+        List<Map<String, Object>> edits = editsBetween("x = 1", "x = 12", "x = 123");
+        CodeAutosave.Restored restored = CodeAutosave.restore("x = 1", edits);
+        int bytes = 0;
+        for (Map<String, Object> edit : edits) {
+            bytes += TextDiff.Edit.fromMap(edit).size();
+        }
+        assertEquals(2, restored.editCount);
+        assertEquals(bytes, restored.editBytes);
+    }
+
+    @Test
+    public void baseWithoutEditsRestoresAsIs() {
+        CodeAutosave.Restored restored = CodeAutosave.restore(TEMPLATE, null);
+        assertEquals(TEMPLATE, restored.text);
+        assertEquals(0, restored.editCount);
+        assertEquals(0, restored.editBytes);
+    }
+
+    @Test
+    public void editsThatDoNotApplyFallBackToBaseAndForceCompaction() {
+        // The edit for revision 2 is missing, so revision 3 points past the end of the base
+        List<Map<String, Object>> edits = editsBetween("a", "abcdef", "abcdefg");
+        CodeAutosave.Restored restored = CodeAutosave.restore("a", edits.subList(1, 2));
+        assertEquals("a", restored.text);
+        assertTrue(CodeAutosave.needsCompaction(restored.editCount, restored.editBytes,
+                TextDiff.between("a", "ab"), 2));
+    }
+
+    @Test
+    public void onlyAnEmptyOrTemplateFieldIsRestoredInto() {
+        assertTrue(CodeAutosave.isUntouched("", TEMPLATE));
+        assertTrue(CodeAutosave.isUntouched("  \n", null));
+        assertTrue(CodeAutosave.isUntouched(TEMPLATE + "\n", TEMPLATE));
+        assertFalse(CodeAutosave.isUntouched("def rev(xs):\n    return xs", TEMPLATE));
+        assertFalse(CodeAutosave.isUntouched("print(1)", null));
+    }
+
+    @Test
+    public void smallEditsAppendUntilTheCountLimit() {
+        TextDiff.Edit edit = TextDiff.between("x", "xy");
+        assertFalse(CodeAutosave.needsCompaction(0, 0, edit, 100));
+        assertFalse(CodeAutosave.needsCompaction(49, 49 * edit.size(), edit, 100));
+        assertTrue(CodeAutosave.needsCompaction(50, 50 * edit.size(), edit, 100));
+    }
+
+    @Test
+    public void largeEditsCompactOncePastHalfTheText() {
+        char[] chars = new char[20000];
+        Arrays.fill(chars, 'a');
+        String text = new String(chars);
+        TextDiff.Edit edit = new TextDiff.Edit(0, 0, text.substring(0, 6000));
+        assertFalse(CodeAutosave.needsCompaction(1, 3000, edit, text.length()));
+        assertTrue(CodeAutosave.needsCompaction(1, 5000, edit, text.length()));
+    }
+}
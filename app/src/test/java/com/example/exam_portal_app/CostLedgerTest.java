@@ -0,0 +1,65 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class CostLedgerTest {
+
+    private static CostLedger ledger() {
+        Map<String, Long> budgets = CostLedger.parseBudgets(new String[]{
+                "ManageQuestionsActivity=600", "broken", "ExamActivity=x"});
+        return new CostLedger(200, 500, budgets);
+    }
+
+    @Test
+    public void parsesBudgetsAndSkipsMalformedEntries() {
+        CostLedger ledger = ledger();
+        assertEquals(600L, ledger.screenBudget("ManageQuestionsActivity"));
+        assertEquals(500L, ledger.screenBudget("ExamActivity"));
+    }
+
+    @Test
+    public void warnsOnOversizedQuery() {
+        CostLedger ledger = ledger();
+        assertTrue(ledger.record("StudentDashboardActivity", "loadAvailableExams", 20, 0).isEmpty());
+        List<String> violations = ledger.record("ManageQuestionsActivity", "loadQuestions", 450, 0);
+        assertEquals(1, violations.size());
+        assertTrue(violations.get(0).startsWith("loadQuestions on ManageQuestionsActivity returned 450"));
+    }
+
+    @Test
+    public void warnsOncePerVisitWhenScreenBudgetIsExceeded() {
+        CostLedger ledger = ledger();
+        ledger.startVisit("ExamActivity");
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ledger.record("ExamActivity", "loadCodeTemplate", 100, 0).isEmpty());
+        }
+        assertEquals(1, ledger.record("ExamActivity", "loadCodeTemplate", 1, 0).size());
+        assertTrue(ledger.record("ExamActivity", "loadCodeTemplate", 1, 0).isEmpty());
+
+        // A new visit starts counting again
+        ledger.startVisit("ExamActivity");
+        assertTrue(ledger.record("ExamActivity", "loadCodeTemplate", 100, 0).isEmpty());
+    }
+
+    @Test
+    public void topOffendersAreOrderedByReads() {
+        CostLedger ledger = ledger();
+        ledger.record("ManageQuestionsActivity", "loadQuestions", 150, 0);
+        ledger.record("ManageQuestionsActivity", "loadQuestions", 150, 0);
+        ledger.record("StudentDashboardActivity", "loadAvailableExams", 12, 0);
+        ledger.record("ExamActivity", "submitExam", 1, 2);
+
+        List<CostLedger.Cost> top = ledger.topOffenders(2);
+        assertEquals(2, top.size());
+        assertEquals("loadQuestions", top.get(0).op);
+        assertEquals(300L, top.get(0).reads.get());
+        assertEquals(150L, top.get(0).maxReadsPerQuery.get());
+        assertEquals("loadAvailableExams", top.get(1).op);
+    }
+}
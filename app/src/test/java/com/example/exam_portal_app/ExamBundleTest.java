@@ -0,0 +1,61 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ExamBundleTest {
+
+    private static List<Question> paper(int size) {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            questions.add(new Question("q" + i, "Question " + i, "MCQ",
+                    Arrays.asList("a" + i, "b" + i, "c" + i), null, null, "e1"));
+        }
+        questions.add(new Question("code", "Reverse a list", "coding", null, null, "def rev(xs):\n    pass", "e1"));
+        return questions;
+    }
+
+    @Test
+    public void bundleRoundTripsQuestionsAndVersion() throws IOException {
+        List<Question> decoded = new ArrayList<>();
+        long version = ExamBundle.decode(new ByteArrayInputStream(ExamBundle.encode(paper(50), 9)), decoded::add);
+
+        assertEquals(9, version);
+        ExamPackageTest.assertSamePaper(paper(50), decoded);
+    }
+
+    @Test
+    public void sealedBundleRoundTrips() throws Exception {
+        ExamPackage.Sealed sealed = ExamPackage.seal(paper(50), 3);
+        List<Question> decoded = new ArrayList<>();
+        long version = ExamPackage.open(new ByteArrayInputStream(sealed.blob), sealed.key, decoded::add);
+
+        assertEquals(3, version);
+        ExamPackageTest.assertSamePaper(paper(50), decoded);
+    }
+
+    @Test
+    public void emptyBundleRoundTrips() throws IOException {
+        List<Question> decoded = new ArrayList<>();
+        ExamBundle.decode(new ByteArrayInputStream(ExamBundle.encode(new ArrayList<>(), 1)), decoded::add);
+        assertEquals(0, decoded.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void sealedBlobIsNotABundle() throws Exception {
+        ExamBundle.decode(new ByteArrayInputStream(ExamPackage.seal(paper(1), 1).blob), question -> { });
+    }
+
+    @Test(expected = IOException.class)
+    public void otherBytesAreNotABundle() throws IOException {
+        ExamBundle.decode(new ByteArrayInputStream("not a bundle".getBytes(StandardCharsets.US_ASCII)), question -> { });
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ExamGraderTest {
+
+    private static Map<String, String> key() {
+        Map<String, String> key = new HashMap<>();
+        key.put("q1", "Paris");
+        key.put("q2", "4");
+        key.put("q3", "binary search");
+        return key;
+    }
+
+    @Test
+    public void countsMatchesIgnoringCaseAndWhitespace() {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q1", " paris ");
+        answers.put("q2", "5");
+        answers.put("q3", "Binary Search");
+        ExamGrader.Score score = ExamGrader.score(answers, Arrays.asList("q1", "q2", "q3"), key());
+        assertEquals(2, score.correct);
+        assertEquals(3, score.max);
+    }
+
+    @Test
+    public void unansweredQuestionsCountTowardsMax() {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q1", "Paris");
+        ExamGrader.Score score = ExamGrader.score(answers, Arrays.asList("q1", "q2", "q3"), key());
+        assertEquals(1, score.correct);
+        assertEquals(3, score.max);
+    }
+
+    @Test
+    public void questionsWithoutKeyAreNotMarked() {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q1", "Paris");
+        answers.put("code1", "int main() {}");
+        ExamGrader.Score score = ExamGrader.score(answers, Arrays.asList("q1", "code1"), key());
+        assertEquals(1, score.correct);
+        assertEquals(1, score.max);
+    }
+
+    @Test
+    public void questionIdsSuppliedByTheStudentAreNotTrusted() {
+        // The student answered q1 correctly and left the two questions they missed off their list
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("q1", "Paris");
+        Map<String, Object> attempt = new HashMap<>();
+        attempt.put("answers", answers);
+        attempt.put("question_ids", Arrays.asList("q1"));
+        ExamGrader.Score score = ExamGrader.scoreAttempt(attempt, Arrays.asList("q1", "q2", "q3"), key());
+        assertEquals(1, score.correct);
+        assertEquals(3, score.max);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ExamLifecycleTest {
+
+    @Test
+    public void transitionTableOnlyMovesForward() {
+        assertTrue(ExamLifecycle.SCHEDULED.canMoveTo(ExamLifecycle.OPEN));
+        assertTrue(ExamLifecycle.SCHEDULED.canMoveTo(ExamLifecycle.CLOSED));
+        assertTrue(ExamLifecycle.OPEN.canMoveTo(ExamLifecycle.CLOSED));
+        assertTrue(ExamLifecycle.CLOSED.canMoveTo(ExamLifecycle.GRADED));
+
+        assertFalse(ExamLifecycle.OPEN.canMoveTo(ExamLifecycle.SCHEDULED));
+        assertFalse(ExamLifecycle.CLOSED.canMoveTo(ExamLifecycle.OPEN));
+        assertFalse(ExamLifecycle.GRADED.canMoveTo(ExamLifecycle.CLOSED));
+        for (ExamLifecycle state : ExamLifecycle.values()) {
+            assertFalse(state.canMoveTo(state));
+        }
+    }
+
+    @Test
+    public void gradedOnlyFromClosed() {
+        assertFalse(ExamLifecycle.SCHEDULED.canMoveTo(ExamLifecycle.GRADED));
+        assertFalse(ExamLifecycle.OPEN.canMoveTo(ExamLifecycle.GRADED));
+    }
+
+    @Test
+    public void stateForTime() {
+        assertEquals(ExamLifecycle.SCHEDULED, ExamLifecycle.forTime(100, 200, 99));
+        assertEquals(ExamLifecycle.OPEN, ExamLifecycle.forTime(100, 200, 100));
+        assertEquals(ExamLifecycle.OPEN, ExamLifecycle.forTime(100, 200, 199));
+        assertEquals(ExamLifecycle.CLOSED, ExamLifecycle.forTime(100, 200, 200));
+    }
+
+    @Test
+    public void unknownStatusReadsAsScheduled() {
+        assertEquals(ExamLifecycle.SCHEDULED, ExamLifecycle.fromValue(null));
+        assertEquals(ExamLifecycle.SCHEDULED, ExamLifecycle.fromValue("bogus"));
+        assertEquals(ExamLifecycle.GRADED, ExamLifecycle.fromValue("graded"));
+    }
+
+    @Test
+    public void overdueExamIsClosedThenGraded() throws InterruptedException {
+        List<String> writes = new ArrayList<>();
+        CountDownLatch graded = new CountDownLatch(1);
+        ExamLifecycleEngine engine = new ExamLifecycleEngine((examId, from, to, listener) -> {
+            synchronized (writes) {
+                writes.add(examId + ":" + from.getValue() + "->" + to.getValue());
+            }
+            listener.onStatusWritten(true);
+            if (to == ExamLifecycle.GRADED) {
+                graded.countDown();
+            }
+        }, (examId, onGraded) -> onGraded.run());
+
+        long now = System.currentTimeMillis();
+        engine.track("e1", "scheduled", now - 2000, now - 1000);
+
+        assertTrue(graded.await(5, TimeUnit.SECONDS));
+        synchronized (writes) {
+            assertEquals(2, writes.size());
+            assertEquals("e1:scheduled->closed", writes.get(0));
+            assertEquals("e1:closed->graded", writes.get(1));
+        }
+    }
+
+    @Test
+    public void supersededTransitionsAreDropped() throws InterruptedException {
+        List<String> writes = new ArrayList<>();
+        ExamLifecycleEngine engine = new ExamLifecycleEngine((examId, from, to, listener) -> {
+            synchronized (writes) {
+                writes.add(from.getValue() + "->" + to.getValue());
+            }
+        }, (examId, onGraded) -> onGraded.run());
+
+        long now = System.currentTimeMillis();
+        // Rescheduled: the old start is replaced by one an hour away, the open time is now
+        engine.track("e1", "scheduled", now + 50, now + 100);
+        engine.track("e1", "open", now - 1000, now + 3_600_000);
+
+        Thread.sleep(300);
+        synchronized (writes) {
+            assertTrue(writes.isEmpty());
+        }
+        engine.untrack("e1");
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class ExamMonitorSnapshotTest {
+
+    private static final long NOW = 1_000_000L;
+    private static final long SILENT_AFTER = 120_000L;
+
+    private static Map<String, Object> state(int answered, boolean foreground, boolean done, long ts) {
+        Map<String, Object> state = new HashMap<>();
+        state.put("q", 0);
+        state.put("a", answered);
+        state.put("fg", foreground);
+        state.put("done", done);
+        state.put("ts", ts);
+        return state;
+    }
+
+    @Test
+    public void classifiesStudentsAcrossShards() {
+        Map<String, Object> shard0 = new HashMap<>();
+        shard0.put("active", state(4, true, false, NOW - 10_000));
+        shard0.put("background", state(2, false, false, NOW - 30_000));
+        Map<String, Object> shard1 = new HashMap<>();
+        shard1.put("silent", state(0, true, false, NOW - 300_000));
+        shard1.put("done", state(6, false, true, NOW - 500_000));
+        List<Map<String, Object>> shards = new ArrayList<>();
+        shards.add(shard0);
+        shards.add(shard1);
+        shards.add(null);
+
+        ExamMonitorSnapshot snapshot = ExamMonitorSnapshot.aggregate(shards, NOW, SILENT_AFTER);
+
+        assertEquals(4, snapshot.total);
+        assertEquals(1, snapshot.active);
+        assertEquals(1, snapshot.background);
+        assertEquals(1, snapshot.silent);
+        assertEquals(1, snapshot.submitted);
+        assertEquals(3.0, snapshot.averageAnswered, 1e-9);
+        // Longest unseen first
+        assertEquals(2, snapshot.attention.size());
+        assertEquals("silent", snapshot.attention.get(0).uid);
+        assertEquals("background", snapshot.attention.get(1).uid);
+    }
+
+    @Test
+    public void shardOfIsStableAndInRange() {
+        for (String uid : new String[]{"a", "uid-123", "Xq9Lm2pR7vT"}) {
+            int shard = ExamMonitor.shardOf(uid, 32);
+            assertEquals(shard, ExamMonitor.shardOf(uid, 32));
+            assertTrue(shard >= 0 && shard < 32);
+        }
+    }
+
+    @Test
+    public void busiestShardStaysUnderOneWritePerSecondAtTargetScale() {
+        int students = 5000;
+        int intervalSeconds = 60;
+        int shards = ExamMonitor.shardCount(students, intervalSeconds);
+        int[] perShard = new int[shards];
+        Random random = new Random(42);
+        for (int i = 0; i < students; i++) {
+            perShard[ExamMonitor.shardOf(firebaseUid(random), shards)]++;
+        }
+        int busiest = 0;
+        for (int count : perShard) {
+            busiest = Math.max(busiest, count);
+        }
+        // One heartbeat per student per interval
+        double writesPerSecond = (double) busiest / intervalSeconds;
+        assertTrue("busiest shard gets " + writesPerSecond + " writes/s", writesPerSecond < 1.0);
+    }
+
+    @Test
+    public void shardCountGrowsWithTheAudience() {
+        assertEquals(1, ExamMonitor.shardCount(10, 60));
+        assertEquals(209, ExamMonitor.shardCount(5000, 60));
+        assertTrue(ExamMonitor.shardCount(20000, 60) > ExamMonitor.shardCount(5000, 60));
+    }
+
+    // 28 alphanumeric characters, like Firebase Auth uids
+    private static String firebaseUid(Random random) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        StringBuilder uid = new StringBuilder();
+        for (int i = 0; i < 28; i++) {
+            uid.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return uid.toString();
+    }
+
+    @Test
+    public void heartbeatsFromEveryStudentAggregateOnceAcrossShards() {
+        int shardCount = 8;
+        List<Map<String, Object>> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new HashMap<>());
+        }
+        // 100 students, each merging a first heartbeat and then a newer one into their own shard
+        for (int i = 0; i < 100; i++) {
+            String uid = "student-" + i;
+            Map<String, Object> shard = shards.get(ExamMonitor.shardOf(uid, shardCount));
+            shard.put(uid, ExamMonitor.stateOf(0, 0, true, false, NOW - 200_000));
+            shard.put(uid, ExamMonitor.stateOf(i % 5, 2, i % 4 != 0, i % 10 == 0, NOW - 1_000));
+        }
+
+        ExamMonitorSnapshot snapshot = ExamMonitorSnapshot.aggregate(shards, NOW, SILENT_AFTER);
+
+        assertEquals(100, snapshot.total);
+        assertEquals(0, snapshot.silent);
+        assertEquals(10, snapshot.submitted);
+        // Every fourth student is in the background; those that also submitted count as submitted
+        assertEquals(20, snapshot.background);
+        assertEquals(70, snapshot.active);
+        assertEquals(2.0, snapshot.averageAnswered, 1e-9);
+    }
+}
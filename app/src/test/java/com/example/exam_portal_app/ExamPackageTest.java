@@ -0,0 +1,119 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ExamPackageTest {
+
+    private static List<Question> paper() {
+        List<Question> questions = new ArrayList<>();
+        questions.add(new Question("q1", "2 + 2?", "MCQ", Arrays.asList("3", "4", "5"), null, null, "e1"));
+        questions.add(new Question("q2", "Explain recursion", "subjective", null, null, null, "e1"));
+        questions.add(new Question("q3", "Reverse a list", "coding", null, null, "def rev(xs):\n    pass", "e1"));
+        return questions;
+    }
+
+    private static List<Question> open(byte[] blob, byte[] key) throws IOException, GeneralSecurityException {
+        List<Question> questions = new ArrayList<>();
+        ExamPackage.open(new ByteArrayInputStream(blob), key, questions::add);
+        return questions;
+    }
+
+    static void assertSamePaper(List<Question> expected, List<Question> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Question want = expected.get(i);
+            Question got = actual.get(i);
+            assertEquals(want.getId(), got.getId());
+            assertEquals(want.getQuestionText(), got.getQuestionText());
+            assertEquals(want.getType(), got.getType());
+            assertEquals(want.getExamId(), got.getExamId());
+            assertEquals(want.getCodeTemplate(), got.getCodeTemplate());
+            assertEquals(want.getOptions(), got.getOptions());
+        }
+    }
+
+    @Test
+    public void sealedPaperOpensWithItsKey() throws Exception {
+        ExamPackage.Sealed sealed = ExamPackage.seal(paper(), 1);
+        assertEquals(32, sealed.key.length);
+        assertSamePaper(paper(), open(sealed.blob, sealed.key));
+    }
+
+    @Test
+    public void blobDoesNotLeakQuestionText() throws Exception {
+        ExamPackage.Sealed sealed = ExamPackage.seal(paper(), 1);
+        assertFalse(new String(sealed.blob, StandardCharsets.ISO_8859_1).contains("recursion"));
+    }
+
+    @Test
+    public void papersSealedUnderOneKeyOpenWithIt() throws Exception {
+        byte[] key = ExamPackage.newKey();
+        ExamPackage.Sealed first = ExamPackage.seal(paper(), 4, key);
+        ExamPackage.Sealed second = ExamPackage.seal(paper().subList(0, 1), 4, key);
+        assertSamePaper(paper(), open(first.blob, key));
+        assertSamePaper(paper().subList(0, 1), open(second.blob, key));
+    }
+
+    @Test
+    public void openReturnsBundleVersion() throws Exception {
+        ExamPackage.Sealed sealed = ExamPackage.seal(paper(), 7);
+        assertEquals(7, ExamPackage.open(new ByteArrayInputStream(sealed.blob), sealed.key, question -> { }));
+    }
+
+    @Test
+    public void emptyPaperRoundTrips() throws Exception {
+        ExamPackage.Sealed sealed = ExamPackage.seal(new ArrayList<>(), 1);
+        assertEquals(0, open(sealed.blob, sealed.key).size());
+    }
+
+    @Test
+    public void answersAreNeverSealed() throws Exception {
+        List<Question> withAnswers = paper();
+        withAnswers.get(0).setCorrectAnswer("4");
+        ExamPackage.Sealed sealed = ExamPackage.seal(withAnswers, 1);
+        assertNull(open(sealed.blob, sealed.key).get(0).getCorrectAnswer());
+    }
+
+    @Test
+    public void anotherExamsKeyIsRejected() throws Exception {
+        ExamPackage.Sealed sealed = ExamPackage.seal(paper(), 1);
+        ExamPackage.Sealed other = ExamPackage.seal(paper(), 1);
+        try {
+            open(sealed.blob, other.key);
+            fail("Opened with the wrong key");
+        } catch (GeneralSecurityException | IOException expected) {
+            // GCM tag mismatch
+        }
+    }
+
+    @Test
+    public void tamperedBlobIsRejected() throws Exception {
+        ExamPackage.Sealed sealed = ExamPackage.seal(paper(), 1);
+        byte[] blob = sealed.blob.clone();
+        blob[blob.length - 1] ^= 1;
+        try {
+            open(blob, sealed.key);
+            fail("Opened a tampered blob");
+        } catch (GeneralSecurityException | IOException expected) {
+            // GCM tag mismatch
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void otherBlobsAreNotPackages() throws Exception {
+        open("EXP1 an old package".getBytes(StandardCharsets.US_ASCII), new byte[32]);
+    }
+}
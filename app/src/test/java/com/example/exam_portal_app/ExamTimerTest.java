@@ -0,0 +1,66 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ExamTimerTest {
+
+    @Test
+    public void serverTimeFollowsAnchorOnElapsedClock() {
+        ServerClock.reset();
+        // Sent at elapsed 10 000, reply after 400 ms; stamped about a quarter of the way in
+        assertTrue(ServerClock.applySample(5_000_000L, 10_000L, 10_400L, false));
+        assertEquals(5_000_000L, ServerClock.nowAt(10_100L));
+        assertEquals(5_060_000L, ServerClock.nowAt(70_100L));
+    }
+
+    @Test
+    public void slowerSampleDoesNotReplaceTighterAnchor() {
+        ServerClock.reset();
+        ServerClock.applySample(5_000_000L, 10_000L, 10_100L, false);
+        assertFalse(ServerClock.applySample(9_000_000L, 20_000L, 22_000L, false));
+        assertEquals(5_000_000L + 975L, ServerClock.nowAt(11_000L));
+
+        assertTrue(ServerClock.applySample(5_010_000L, 20_000L, 20_040L, false));
+        assertEquals(5_010_000L, ServerClock.nowAt(20_010L));
+    }
+
+    @Test
+    public void staleAnchorTakesAnySample() {
+        ServerClock.reset();
+        ServerClock.applySample(5_000_000L, 10_000L, 10_100L, false);
+        assertTrue(ServerClock.applySample(6_000_000L, 900_000L, 903_000L, true));
+        assertEquals(6_000_000L, ServerClock.nowAt(900_750L));
+    }
+
+    @Test
+    public void timestampLeftByAnEarlierSyncIsRejected() {
+        ServerClock.reset();
+        ServerClock.applySample(5_000_000L, 10_000L, 10_100L, false);
+        // Fifteen minutes later the read returned the old ts, e.g. because the new write failed
+        assertFalse(ServerClock.applySample(5_000_000L, 910_000L, 910_050L, true));
+        assertEquals(5_000_000L + 899_975L, ServerClock.nowAt(910_000L));
+    }
+
+    @Test
+    public void deadlineIsStartPlusDurationCappedByEnd() {
+        Exam exam = new Exam();
+        exam.setDuration(60);
+        exam.setEndTime(10_000_000L);
+        assertEquals(1_000_000L + 3_600_000L, ExamTimer.computeDeadline(exam, 1_000_000L));
+        // A late start cannot run past the exam window
+        assertEquals(10_000_000L, ExamTimer.computeDeadline(exam, 9_000_000L));
+    }
+
+    @Test
+    public void storedStartIsReusedUntilTheAttemptIsCounted() {
+        // Attempt 1 started, nothing submitted yet: relaunches and other devices reuse it
+        assertTrue(AttemptStart.isCurrent(1L, 0));
+        // Attempt 1 submitted: the next launch starts attempt 2 with a fresh clock
+        assertFalse(AttemptStart.isCurrent(1L, 1));
+        assertFalse(AttemptStart.isCurrent(null, 0));
+    }
+}
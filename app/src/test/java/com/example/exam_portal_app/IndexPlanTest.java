@@ -0,0 +1,78 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Keeps the checked-in firestore.indexes.json in step with the query shapes in ExamQueries.
+ */
+public class IndexPlanTest {
+
+    @Test
+    public void checkedInIndexesMatchQueryShapes() throws IOException {
+        assertEquals("firestore.indexes.json is stale; regenerate it from IndexPlan.toIndexesJson()",
+                IndexPlan.toIndexesJson(), readCheckedIn());
+    }
+
+    @Test
+    public void everyShapeIsRegistered() throws IllegalAccessException {
+        // A shape left out of all() would silently get no index
+        for (Field field : ExamQueries.class.getDeclaredFields()) {
+            if (field.getType() == QueryShape.class && Modifier.isStatic(field.getModifiers())) {
+                assertTrue(field.getName() + " is missing from ExamQueries.all()",
+                        ExamQueries.all().contains((QueryShape) field.get(null)));
+            }
+        }
+    }
+
+    @Test
+    public void everyCompositeShapeHasAnIndexEntry() throws IOException {
+        String checkedIn = readCheckedIn();
+        for (QueryShape shape : ExamQueries.all()) {
+            if (shape.needsCompositeIndex()) {
+                assertTrue(shape.getName() + " has no entry in firestore.indexes.json",
+                        checkedIn.contains(IndexPlan.indexJson(shape)));
+            }
+        }
+    }
+
+    @Test
+    public void arrayContainsWithEqualityNeedsCompositeIndex() {
+        assertTrue(ExamQueries.UNCLOSED_EXAMS_FOR_SECTION.needsCompositeIndex());
+    }
+
+    @Test
+    public void equalityWithRangeOnAnotherFieldNeedsCompositeIndex() {
+        assertTrue(ExamQueries.SHARED_EXAMS.needsCompositeIndex());
+    }
+
+    @Test
+    public void singleFieldShapesDoNotNeedCompositeIndex() {
+        assertFalse(ExamQueries.MY_EXAMS.needsCompositeIndex());
+        assertFalse(ExamQueries.ALL_EXAMS_BY_START.needsCompositeIndex());
+        assertFalse(ExamQueries.UNENDED_EXAMS.needsCompositeIndex());
+        assertFalse(ExamQueries.QUESTIONS_FOR_EXAM.needsCompositeIndex());
+        assertFalse(ExamQueries.STALE_TOKENS.needsCompositeIndex());
+        // Equality-only filters are served by merging single-field indexes
+        assertFalse(ExamQueries.UNCLOSED_EXAMS_BY_CREATOR.needsCompositeIndex());
+    }
+
+    private static String readCheckedIn() throws IOException {
+        // Unit tests run from the module directory; the indexes file lives at the project root
+        File file = new File("../firestore.indexes.json");
+        if (!file.exists()) {
+            file = new File("firestore.indexes.json");
+        }
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
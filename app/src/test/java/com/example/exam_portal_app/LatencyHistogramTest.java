@@ -0,0 +1,64 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValueWithBoundedError() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            assertBucketHolds(value);
+        }
+        assertBucketHolds(LatencyHistogram.MAX_VALUE);
+    }
+
+    private static void assertBucketHolds(long value) {
+        int index = LatencyHistogram.indexOf(value);
+        long high = LatencyHistogram.highestValueAt(index);
+        assertTrue(high >= value);
+        assertTrue(index == 0 || LatencyHistogram.highestValueAt(index - 1) < value);
+        // Within one sub-bucket: 1/64 of the value
+        assertTrue(high - value <= value / 64 + 1);
+    }
+
+    @Test
+    public void percentilesOfUniformSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms * 1000);
+        }
+        assertEquals(1000L, histogram.count());
+        assertEquals(1_000_000L, histogram.max());
+        assertEquals(500_500.0, histogram.mean(), 1e-6);
+        assertWithin(500_000, histogram.valueAtPercentile(50));
+        assertWithin(990_000, histogram.valueAtPercentile(99));
+        assertEquals(1_000_000L, histogram.valueAtPercentile(100));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 64);
+    }
+
+    @Test
+    public void clampsOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0L, histogram.valueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.max());
+    }
+
+    @Test
+    public void metricsExportAsJson() {
+        FirestoreMetrics.reset();
+        FirestoreMetrics.record("loadAvailableExams", 12_000, true, 5, 0, 900, 0);
+        FirestoreMetrics.record("loadAvailableExams", 30_000, false, 0, 0, 0, 0);
+        String json = FirestoreMetrics.toJson();
+        assertTrue(json.contains("\"loadAvailableExams\":{\"calls\":2,\"failures\":1,\"reads\":5,\"writes\":0,"
+                + "\"bytes_read\":900,\"bytes_written\":0,\"latency_ms\":{\"p50\":12.031"));
+        FirestoreMetrics.reset();
+    }
+}
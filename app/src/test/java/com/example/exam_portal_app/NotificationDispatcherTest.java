@@ -0,0 +1,283 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs NotificationDispatcher and HttpFcmTransport against a local mock relay.
+ */
+public class NotificationDispatcherTest {
+
+    // Tokens starting with "dead" are unregistered, "bad" ones are refused with INVALID_ARGUMENT and
+    // "flaky" ones fail once with UNAVAILABLE
+    private static class MockRelay implements AutoCloseable {
+        final HttpServer server;
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        final List<String> topics = Collections.synchronizedList(new ArrayList<>());
+        final Set<String> authorizations = ConcurrentHashMap.newKeySet();
+        final Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+        final AtomicInteger throttleNext = new AtomicInteger();
+        final AtomicInteger refuseNext = new AtomicInteger();
+        final AtomicInteger requests = new AtomicInteger();
+
+        MockRelay() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/send", this::handle);
+            server.start();
+        }
+
+        String endpoint() {
+            return "http://127.0.0.1:" + server.getAddress().getPort() + "/send";
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            String body = read(exchange.getRequestBody());
+            if (throttleNext.getAndDecrement() > 0) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                respond(exchange, 429, "{}");
+                return;
+            }
+            if (refuseNext.getAndDecrement() > 0) {
+                respond(exchange, 400, "{\"error\":{\"status\":\"INVALID_ARGUMENT\"}}");
+                return;
+            }
+            JSONObject request = new JSONObject(body);
+            if (!request.has("tokens")) {
+                topics.add(request.getJSONObject("message").getString("topic"));
+                respond(exchange, 200, "{\"name\":\"projects/demo/messages/1\"}");
+                return;
+            }
+            JSONArray tokens = request.getJSONArray("tokens");
+            batchSizes.add(tokens.length());
+            JSONArray responses = new JSONArray();
+            for (int i = 0; i < tokens.length(); i++) {
+                String token = tokens.getString(i);
+                JSONObject entry = new JSONObject();
+                if (token.startsWith("dead")) {
+                    entry.put("success", false).put("error", "UNREGISTERED");
+                } else if (token.startsWith("bad")) {
+                    entry.put("success", false).put("error", "INVALID_ARGUMENT");
+                } else if (token.startsWith("flaky") && failedOnce.add(token)) {
+                    entry.put("success", false).put("error", "UNAVAILABLE");
+                } else {
+                    entry.put("success", true);
+                }
+                responses.put(entry);
+            }
+            respond(exchange, 200, new JSONObject().put("responses", responses).toString());
+        }
+
+        private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(code, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+
+        private static String read(InputStream in) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+        }
+    }
+
+    private static List<String> tokens(String prefix, int count) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tokens.add(prefix + "-" + i);
+        }
+        return tokens;
+    }
+
+    private static Map<String, String> data() {
+        Map<String, String> data = new HashMap<>();
+        data.put("exam_id", "e1");
+        return data;
+    }
+
+    private static void drain(NotificationDispatcher dispatcher) throws InterruptedException {
+        dispatcher.shutdown();
+        assertTrue(dispatcher.awaitTermination(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void tokensAreSentInBatchesOf500() throws Exception {
+        try (MockRelay relay = new MockRelay()) {
+            List<String> invalid = Collections.synchronizedList(new ArrayList<>());
+            NotificationDispatcher dispatcher = new NotificationDispatcher(
+                    new HttpFcmTransport(relay.endpoint(), () -> "id-token"), 1000, invalid::addAll);
+
+            dispatcher.dispatchToTokens(tokens("ok", 1200), "New exam", "Algebra at 10:00", data(), null);
+            drain(dispatcher);
+
+            List<Integer> sizes = new ArrayList<>(relay.batchSizes);
+            Collections.sort(sizes);
+            assertEquals("[200, 500, 500]", sizes.toString());
+            assertTrue(invalid.isEmpty());
+            assertEquals(Collections.singleton("Bearer id-token"), relay.authorizations);
+        }
+    }
+
+    @Test
+    public void unregisteredTokensArePrunedAndTransientOnesRetried() throws Exception {
+        try (MockRelay relay = new MockRelay()) {
+            List<String> invalid = Collections.synchronizedList(new ArrayList<>());
+            NotificationDispatcher dispatcher = new NotificationDispatcher(
+                    new HttpFcmTransport(relay.endpoint(), () -> "id-token"), 1000, invalid::addAll);
+
+            List<String> batch = new ArrayList<>(tokens("ok", 3));
+            batch.addAll(tokens("dead", 2));
+            batch.addAll(tokens("flaky", 2));
+            dispatcher.dispatchToTokens(batch, "New exam", "Algebra at 10:00", data(), null);
+            drain(dispatcher);
+
+            Collections.sort(invalid);
+            assertEquals("[dead-0, dead-1]", invalid.toString());
+            // Only the two flaky tokens are sent again
+            assertEquals("[7, 2]", relay.batchSizes.toString());
+        }
+    }
+
+    @Test
+    public void onlyUnregisteredTokensArePruned() throws Exception {
+        try (MockRelay relay = new MockRelay()) {
+            List<String> invalid = Collections.synchronizedList(new ArrayList<>());
+            NotificationDispatcher dispatcher = new NotificationDispatcher(
+                    new HttpFcmTransport(relay.endpoint(), () -> "id-token"), 1000, invalid::addAll);
+
+            List<String> batch = new ArrayList<>(tokens("bad", 3));
+            batch.addAll(tokens("dead", 1));
+            dispatcher.dispatchToTokens(batch, "New exam", "Algebra at 10:00", data(), null);
+            drain(dispatcher);
+
+            // INVALID_ARGUMENT is a permanent failure: not retried and not pruned
+            assertEquals("[dead-0]", invalid.toString());
+            assertEquals("[4]", relay.batchSizes.toString());
+        }
+    }
+
+    @Test
+    public void refusedRequestPrunesNothing() throws Exception {
+        try (MockRelay relay = new MockRelay()) {
+            relay.refuseNext.set(1);
+            List<String> invalid = Collections.synchronizedList(new ArrayList<>());
+            NotificationDispatcher dispatcher = new NotificationDispatcher(
+                    new HttpFcmTransport(relay.endpoint(), () -> "id-token"), 1000, invalid::addAll);
+
+            dispatcher.dispatchToTokens(tokens("ok", 5), "New exam", "Algebra at 10:00", data(), null);
+            drain(dispatcher);
+
+            assertEquals(1, relay.requests.get());
+            assertTrue(invalid.isEmpty());
+        }
+    }
+
+    @Test
+    public void statusCodesMapToOutcomes() {
+        assertEquals(FcmTransport.Outcome.SENT, HttpFcmTransport.toResult(200, null).outcome);
+        assertEquals(FcmTransport.Outcome.UNREGISTERED, HttpFcmTransport.toResult(404, null).outcome);
+        assertEquals(FcmTransport.Outcome.FAILED, HttpFcmTransport.toResult(400, null).outcome);
+        assertEquals(FcmTransport.Outcome.FAILED, HttpFcmTransport.toResult(403, null).outcome);
+        assertEquals(FcmTransport.Outcome.RETRY, HttpFcmTransport.toResult(503, null).outcome);
+        assertEquals(FcmTransport.Outcome.UNREGISTERED, HttpFcmTransport.outcomeOf("UNREGISTERED"));
+        assertEquals(FcmTransport.Outcome.FAILED, HttpFcmTransport.outcomeOf("INVALID_ARGUMENT"));
+        assertEquals(FcmTransport.Outcome.RETRY, HttpFcmTransport.outcomeOf("UNAVAILABLE"));
+    }
+
+    @Test
+    public void collapseKeyIsSetOnTheAndroidConfig() throws Exception {
+        JSONObject message = HttpFcmTransport.buildMessage("New exam", "Algebra at 10:00", data(), "scheduled_e1");
+
+        JSONObject android = message.getJSONObject("android");
+        assertEquals("scheduled_e1", android.getString("collapse_key"));
+        assertEquals("scheduled_e1", android.getJSONObject("notification").getString("tag"));
+        assertFalse(message.getJSONObject("data").has("collapse_key"));
+
+        assertFalse(HttpFcmTransport.buildMessage("New exam", "Algebra", data(), null).has("android"));
+        // Cache events go out without a notification
+        assertFalse(HttpFcmTransport.buildMessage(null, null, data(), null).has("notification"));
+    }
+
+    @Test
+    public void throttledRequestIsRetried() throws Exception {
+        try (MockRelay relay = new MockRelay()) {
+            relay.throttleNext.set(1);
+            List<String> invalid = Collections.synchronizedList(new ArrayList<>());
+            NotificationDispatcher dispatcher = new NotificationDispatcher(
+                    new HttpFcmTransport(relay.endpoint(), () -> "id-token"), 1000, invalid::addAll);
+
+            dispatcher.dispatchToTokens(tokens("ok", 10), "New exam", "Algebra at 10:00", data(), null);
+            drain(dispatcher);
+
+            assertEquals(2, relay.requests.get());
+            assertEquals("[10]", relay.batchSizes.toString());
+            assertTrue(invalid.isEmpty());
+        }
+    }
+
+    @Test
+    public void wholeAudienceGoesToEveryStudentTopic() throws Exception {
+        try (MockRelay relay = new MockRelay()) {
+            NotificationDispatcher dispatcher = new NotificationDispatcher(
+                    new HttpFcmTransport(relay.endpoint(), () -> "id-token"), 1000, null);
+
+            dispatcher.dispatchToAllStudents("New exam", "Algebra at 10:00", data(), null);
+            drain(dispatcher);
+
+            List<String> topics = new ArrayList<>(relay.topics);
+            Collections.sort(topics);
+            List<String> expected = new ArrayList<>(NotificationTopics.allStudentTopics());
+            Collections.sort(expected);
+            assertEquals(expected, topics);
+        }
+    }
+
+    @Test
+    public void nothingIsSentWithoutSignedInUser() throws Exception {
+        try (MockRelay relay = new MockRelay()) {
+            NotificationDispatcher dispatcher = new NotificationDispatcher(
+                    new HttpFcmTransport(relay.endpoint(), () -> null), 1000, null);
+
+            dispatcher.dispatchToTokens(tokens("ok", 3), "New exam", "Algebra at 10:00", data(), null);
+            drain(dispatcher);
+
+            assertEquals(0, relay.requests.get());
+        }
+    }
+}
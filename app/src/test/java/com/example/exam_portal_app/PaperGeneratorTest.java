@@ -0,0 +1,126 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class PaperGeneratorTest {
+
+    private static final String[] TOPICS = {"algebra", "geometry", "calculus"};
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+
+    @Test
+    public void drawsRequestedCountPerRule() {
+        QuestionBank bank = bank(3000);
+        PaperBlueprint blueprint = PaperBlueprint.parse("algebra:easy:5, geometry:hard:3, calculus:*:4");
+
+        List<Question> paper = PaperGenerator.generate(bank, blueprint, 42L);
+
+        assertEquals(12, paper.size());
+        assertEquals(12, ids(paper).size());
+        int algebraEasy = 0;
+        for (Question question : paper.subList(0, 5)) {
+            if ("algebra".equals(question.getTopic()) && "easy".equals(question.getDifficulty())) {
+                algebraEasy++;
+            }
+        }
+        assertEquals(5, algebraEasy);
+    }
+
+    @Test
+    public void sameSeedGivesSamePaper() {
+        QuestionBank bank = bank(3000);
+        PaperBlueprint blueprint = PaperBlueprint.parse("algebra:*:10");
+        assertEquals(ids(PaperGenerator.generate(bank, blueprint, 7L)),
+                ids(PaperGenerator.generate(bank, blueprint, 7L)));
+        assertNotEquals(ids(PaperGenerator.generate(bank, blueprint, 7L)),
+                ids(PaperGenerator.generate(bank, blueprint, 8L)));
+    }
+
+    @Test
+    public void overlappingRulesDoNotRepeatQuestions() {
+        QuestionBank bank = bank(90);
+        // algebra/easy has 10 questions and algebra/* has 30; together they must stay distinct
+        PaperBlueprint blueprint = PaperBlueprint.parse("algebra:easy:10, algebra:*:20");
+        assertNull(PaperGenerator.validate(bank, blueprint));
+        for (long seed = 0; seed < 20; seed++) {
+            List<Question> paper = PaperGenerator.generate(bank, blueprint, seed);
+            assertEquals(30, paper.size());
+            assertEquals(30, ids(paper).size());
+        }
+    }
+
+    @Test
+    public void anyDifficultyRuleListedFirstLeavesSpecificRuleFull() {
+        QuestionBank bank = bank(90);
+        PaperBlueprint blueprint = PaperBlueprint.parse("algebra:*:20, algebra:easy:10");
+        for (long seed = 0; seed < 20; seed++) {
+            List<Question> paper = PaperGenerator.generate(bank, blueprint, seed);
+            assertEquals(30, ids(paper).size());
+            // Blueprint order is kept: the easy rule's picks come last
+            for (Question question : paper.subList(20, 30)) {
+                assertEquals("easy", question.getDifficulty());
+            }
+        }
+    }
+
+    @Test
+    public void validateReportsOverlappingRulesThatCannotBeFilled() {
+        QuestionBank bank = bank(90);
+        // algebra has 30 questions, 10 of them easy
+        assertNotNull(PaperGenerator.validate(bank, PaperBlueprint.parse("algebra:easy:10, algebra:*:21")));
+        assertNotNull(PaperGenerator.validate(bank, PaperBlueprint.parse("algebra:easy:6, algebra:easy:5")));
+        assertNull(PaperGenerator.validate(bank, PaperBlueprint.parse("algebra:easy:5, algebra:easy:5")));
+    }
+
+    @Test
+    public void loadOrderDoesNotChangeThePaper() {
+        List<Question> questions = questions(300);
+        List<Question> reversed = new ArrayList<>(questions);
+        Collections.reverse(reversed);
+        PaperBlueprint blueprint = PaperBlueprint.parse("algebra:easy:5, geometry:*:5");
+        assertEquals(ids(PaperGenerator.generate(new QuestionBank(questions), blueprint, 3L)),
+                ids(PaperGenerator.generate(new QuestionBank(reversed), blueprint, 3L)));
+    }
+
+    @Test
+    public void validateReportsShortfall() {
+        QuestionBank bank = bank(90);
+        assertNull(PaperGenerator.validate(bank, PaperBlueprint.parse("geometry:hard:10")));
+        assertNotNull(PaperGenerator.validate(bank, PaperBlueprint.parse("geometry:hard:11")));
+        assertNotNull(PaperGenerator.validate(bank, PaperBlueprint.parse("history:*:1")));
+    }
+
+    private static Set<String> ids(List<Question> paper) {
+        Set<String> ids = new HashSet<>();
+        for (Question question : paper) {
+            ids.add(question.getId());
+        }
+        return ids;
+    }
+
+    private static QuestionBank bank(int size) {
+        return new QuestionBank(questions(size));
+    }
+
+    // Evenly spread over 3 topics x 3 difficulties
+    private static List<Question> questions(int size) {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Question question = new Question("q" + i, "Question " + i, "MCQ", null, null, null, "");
+            question.setTopic(TOPICS[i % 3]);
+            question.setDifficulty(DIFFICULTIES[(i / 3) % 3]);
+            questions.add(question);
+        }
+        return questions;
+    }
+}
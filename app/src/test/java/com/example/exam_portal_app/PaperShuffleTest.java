@@ -0,0 +1,83 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import com.google.firebase.firestore.Blob;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class PaperShuffleTest {
+
+    @Test
+    public void sameStudentAndExamGiveSamePaper() {
+        List<Question> paper = paper(20);
+        assertArrayEquals(order(PaperShuffle.create("s1", "e1", paper)),
+                order(PaperShuffle.create("s1", "e1", paper)));
+    }
+
+    @Test
+    public void differentStudentsGiveDifferentPapers() {
+        List<Question> paper = paper(20);
+        assertNotEquals(Arrays.toString(order(PaperShuffle.create("s1", "e1", paper))),
+                Arrays.toString(order(PaperShuffle.create("s2", "e1", paper))));
+    }
+
+    @Test
+    public void questionAndOptionOrdersArePermutations() {
+        List<Question> paper = paper(30);
+        PaperShuffle shuffle = PaperShuffle.create("s1", "e1", paper);
+        int[] sorted = order(shuffle);
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(i, sorted[i]);
+        }
+
+        List<String> options = paper.get(3).getOptions();
+        List<String> displayed = new ArrayList<>(shuffle.displayedOptions(3, options));
+        displayed.sort(null);
+        List<String> expected = new ArrayList<>(options);
+        expected.sort(null);
+        assertEquals(expected, displayed);
+    }
+
+    @Test
+    public void attemptFieldsRoundTrip() {
+        List<Question> paper = paper(12);
+        PaperShuffle shuffle = PaperShuffle.create("s1", "e1", paper);
+        Map<String, Object> fields = shuffle.toAttemptFields();
+
+        PaperShuffle restored = PaperShuffle.fromPacked((Long) fields.get(PaperShuffle.FIELD_SEED),
+                ((Blob) fields.get(PaperShuffle.FIELD_QUESTION_ORDER)).toBytes(),
+                ((Blob) fields.get(PaperShuffle.FIELD_OPTION_ORDER)).toBytes());
+        assertArrayEquals(order(shuffle), order(restored));
+        for (int q = 0; q < paper.size(); q++) {
+            for (int o = 0; o < 4; o++) {
+                assertEquals(shuffle.originalOption(q, o), restored.originalOption(q, o));
+            }
+        }
+    }
+
+    private static int[] order(PaperShuffle shuffle) {
+        int[] order = new int[shuffle.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = shuffle.originalQuestion(i);
+        }
+        return order;
+    }
+
+    private static List<Question> paper(int size) {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            questions.add(new Question(String.format("q%03d", i), "Question " + i, "MCQ",
+                    Arrays.asList("a" + i, "b" + i, "c" + i, "d" + i), null, null, "e1"));
+        }
+        return questions;
+    }
+}
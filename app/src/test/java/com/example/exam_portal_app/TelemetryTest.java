@@ -0,0 +1,83 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class TelemetryTest {
+
+    @Test
+    public void ringDrainsInOrderAndDropsWhenFull() {
+        TelemetryRing<Integer> ring = new TelemetryRing<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(1L, ring.droppedCount());
+
+        List<Integer> out = new ArrayList<>();
+        assertEquals(3, ring.drainTo(out, 3));
+        assertTrue(ring.offer(5));
+        assertEquals(2, ring.drainTo(out, 10));
+        assertEquals("[0, 1, 2, 3, 5]", out.toString());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    public void concurrentProducersLoseNothingWhileDraining() throws InterruptedException {
+        TelemetryRing<Integer> ring = new TelemetryRing<>(1024);
+        int producers = 4;
+        int perProducer = 20_000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        List<Integer> out = new ArrayList<>();
+        while (seen.size() < producers * perProducer) {
+            out.clear();
+            ring.drainTo(out, 256);
+            seen.addAll(out);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(producers * perProducer, seen.size());
+    }
+
+    @Test
+    public void flushWritesBatchesToSink() {
+        InMemoryTelemetrySink sink = new InMemoryTelemetrySink();
+        Telemetry telemetry = new Telemetry(sink, 1024);
+        for (int i = 0; i < Telemetry.BATCH_SIZE + 10; i++) {
+            telemetry.record(TelemetryEvent.QUERY, "loadAvailableExams", i);
+        }
+        telemetry.flush();
+
+        assertEquals(2, sink.batches().size());
+        assertEquals(Telemetry.BATCH_SIZE + 10, sink.events().size());
+        assertEquals(0L, sink.events().get(0).value);
+    }
+
+    @Test
+    public void eventJsonEscapesNames() {
+        TelemetryEvent event = new TelemetryEvent(TelemetryEvent.SCREEN_LOAD, "a\"b", 12, 34);
+        assertEquals("{\"type\":\"screen_load\",\"name\":\"a\\\"b\",\"value\":12,\"ts\":34}", event.toJson());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.exam_portal_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TextDiffTest {
+
+    @Test
+    public void equalTextsHaveNoEdit() {
+        assertNull(TextDiff.between("int x = 1;", "int x = 1;"));
+    }
+
+    @Test
+    public void editCoversOnlyTheChangedRegion() {
+        String before = "public class Main {\n    int x = 1;\n}\n";
+        String after = "public class Main {\n    int x = 42;\n}\n";
+        TextDiff.Edit edit = TextDiff.between(before, after);
+        assertEquals("42", edit.insert);
+        assertEquals(1, edit.deleteCount);
+        assertEquals(after, TextDiff.apply(before, edit));
+    }
+
+    @Test
+    public void insertionsAndDeletionsRoundTrip() {
+        String[] versions = {"", "a", "abc", "abXc", "Xc", "XcXc", "aaaa", "aa", ""};
+        List<TextDiff.Edit> edits = new ArrayList<>();
+        for (int i = 1; i < versions.length; i++) {
+            TextDiff.Edit edit = TextDiff.between(versions[i - 1], versions[i]);
+            if (edit != null) {
+                edits.add(edit);
+            }
+            assertEquals(versions[i], TextDiff.applyAll(versions[0], edits));
+        }
+    }
+
+    @Test
+    public void repeatedCharactersDoNotOverlapPrefixAndSuffix() {
+        TextDiff.Edit edit = TextDiff.between("aaa", "aaaa");
+        assertEquals("aaaa", TextDiff.apply("aaa", edit));
+        assertEquals(0, edit.deleteCount);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void outOfRangeEditIsRejected() {
+        TextDiff.apply("abc", new TextDiff.Edit(2, 5, ""));
+    }
+}